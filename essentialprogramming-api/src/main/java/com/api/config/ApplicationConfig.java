@@ -3,6 +3,7 @@ package com.api.config;
 
 import com.api.controller.*;
 import com.fasterxml.jackson.jaxrs.json.JacksonJaxbJsonProvider;
+import com.token.validation.auth.UserPrincipal;
 import com.util.enums.Language;
 import io.swagger.v3.jaxrs2.integration.resources.AcceptHeaderOpenApiResource;
 import io.swagger.v3.oas.integration.SwaggerConfiguration;
@@ -49,6 +50,9 @@ public class ApplicationConfig extends ResourceConfig {
                 bindFactory(LanguageContextProvider.class)
                         .to(Language.class)
                         .in(RequestScoped.class);
+                bindFactory(UserPrincipalContextProvider.class)
+                        .to(UserPrincipal.class)
+                        .in(RequestScoped.class);
             }
         });
 
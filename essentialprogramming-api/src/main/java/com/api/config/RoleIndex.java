@@ -0,0 +1,76 @@
+package com.api.config;
+
+import java.util.Arrays;
+
+/**
+ * Gives every role named in a {@code @RolesAllowed} annotation a bit, so that both the roles allowed on a resource
+ * method and the roles of a token are bitmasks and authorization is a single AND.
+ * <p/>
+ * Roles are registered while the resource methods are configured at startup. A role of a token that no resource
+ * method allows gets no bit, it never grants access anyway. At most 64 roles can be registered.
+ */
+final class RoleIndex {
+
+    private static final int MAXIMUM_ROLES = Long.SIZE;
+
+    private volatile String[] roles = new String[0];
+
+    /**
+     * @return the mask of the roles, registering the roles seen for the first time
+     */
+    synchronized long register(String... allowedRoles) {
+        long mask = 0;
+        for (String role : allowedRoles) {
+            int bit = Arrays.asList(roles).indexOf(role);
+            if (bit < 0) {
+                if (roles.length == MAXIMUM_ROLES) {
+                    throw new IllegalStateException("At most " + MAXIMUM_ROLES + " roles can be used in @RolesAllowed");
+                }
+                String[] registered = Arrays.copyOf(roles, roles.length + 1);
+                bit = roles.length;
+                registered[bit] = role;
+                roles = registered;
+            }
+            mask |= 1L << bit;
+        }
+        return mask;
+    }
+
+    /**
+     * Mask of a comma separated roles claim, read in place without allocating.
+     */
+    long mask(String rolesClaim) {
+        if (rolesClaim == null) {
+            return 0;
+        }
+        String[] knownRoles = roles;
+        long mask = 0;
+        int length = rolesClaim.length();
+        int start = 0;
+        while (start < length) {
+            int end = rolesClaim.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            // same trimming as String.trim()
+            int from = start;
+            int to = end;
+            while (from < to && rolesClaim.charAt(from) <= ' ') {
+                from++;
+            }
+            while (to > from && rolesClaim.charAt(to - 1) <= ' ') {
+                to--;
+            }
+            int roleLength = to - from;
+            for (int bit = 0; bit < knownRoles.length && roleLength > 0; bit++) {
+                String role = knownRoles[bit];
+                if (role.length() == roleLength && rolesClaim.regionMatches(from, role, 0, roleLength)) {
+                    mask |= 1L << bit;
+                    break;
+                }
+            }
+            start = end + 1;
+        }
+        return mask;
+    }
+}
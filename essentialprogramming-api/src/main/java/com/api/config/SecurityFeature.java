@@ -1,18 +1,25 @@
 package com.api.config;
 
-import com.authentication.security.KeyStoreService;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import javax.annotation.security.RolesAllowed;
 import javax.ws.rs.Priorities;
 import javax.ws.rs.container.DynamicFeature;
 import javax.ws.rs.container.ResourceInfo;
 import javax.ws.rs.core.FeatureContext;
 import javax.ws.rs.ext.Provider;
 
+/**
+ * Registers a {@link SecurityFilter} on every controller method that is not {@link Anonymous}.
+ * The roles allowed by {@code @RolesAllowed} on the method, or else on its class, are resolved here once per method.
+ */
 @Provider
 public class SecurityFeature implements DynamicFeature {
     @Autowired
-    KeyStoreService keyStoreService;
+    TokenKeyRing tokenKeyRing;
+
+    @Autowired
+    VerifiedTokenCache verifiedTokenCache;
 
     @Override
     public void configure(final ResourceInfo resourceInfo, final FeatureContext context) {
@@ -25,7 +32,12 @@ public class SecurityFeature implements DynamicFeature {
             return;
         }
 
-        context.register(new SecurityFilter(keyStoreService, resourceInfo), Priorities.AUTHENTICATION);
+        RolesAllowed rolesAllowed = resourceInfo.getResourceMethod().getAnnotation(RolesAllowed.class);
+        if (rolesAllowed == null) {
+            rolesAllowed = resourceInfo.getResourceClass().getAnnotation(RolesAllowed.class);
+        }
+
+        context.register(new SecurityFilter(tokenKeyRing, verifiedTokenCache, rolesAllowed), Priorities.AUTHENTICATION);
 
     }
 }
\ No newline at end of file
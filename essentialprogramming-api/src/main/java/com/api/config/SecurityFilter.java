@@ -1,30 +1,37 @@
 package com.api.config;
 
-import com.authentication.security.KeyStoreService;
 import com.token.validation.auth.AuthUtils;
-import com.token.validation.jwt.JwtClaims;
-import com.token.validation.jwt.JwtUtil;
-import com.token.validation.response.ValidationResponse;
+import com.token.validation.auth.UserPrincipal;
+import com.token.validation.jwt.exception.SignatureValidationException;
+import com.token.validation.jwt.exception.TokenValidationException;
+import com.token.validation.keys.KeyRing;
 
 import javax.annotation.security.RolesAllowed;
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerRequestFilter;
-import javax.ws.rs.container.ResourceInfo;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
-import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
 
 public class SecurityFilter implements ContainerRequestFilter {
 
-    private final KeyStoreService keyStoreService;
-    private final ResourceInfo resourceInfo;
+    /**
+     * Request property holding the {@link UserPrincipal} of an authenticated request.
+     */
+    static final String PRINCIPAL = UserPrincipal.class.getName();
 
-    public SecurityFilter(KeyStoreService keyStoreService, ResourceInfo resourceInfo) {
-        this.keyStoreService = keyStoreService;
-        this.resourceInfo = resourceInfo;
+    private final KeyRing keyRing;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final boolean checkRoles;
+    private final long allowedRoles;
+
+    /**
+     * @param rolesAllowed the roles allowed on the resource method, null when any authenticated user is allowed
+     */
+    SecurityFilter(KeyRing keyRing, VerifiedTokenCache verifiedTokenCache, RolesAllowed rolesAllowed) {
+        this.keyRing = keyRing;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.checkRoles = rolesAllowed != null;
+        this.allowedRoles = rolesAllowed != null ? verifiedTokenCache.getRoleIndex().register(rolesAllowed.value()) : 0;
     }
 
 
@@ -40,36 +47,24 @@ public class SecurityFilter implements ContainerRequestFilter {
             return;
         }
 
-        ValidationResponse response = JwtUtil.verifyJwt(AuthUtils.extractBearerToken(authorization), keyStoreService.getPublicKey());
-        if (!response.isValid()) {
+        VerifiedTokenCache.VerifiedToken verified;
+        try {
+            verified = verifiedTokenCache.verify(AuthUtils.extractBearerToken(authorization), keyRing);
+        } catch (TokenValidationException | SignatureValidationException e) {
+            // malformed token or unsupported algorithm
+            verified = null;
+        }
+        if (verified == null) {
             requestContext.abortWith(Response.status(Response.Status.UNAUTHORIZED).entity("{\"error\":\"invalid_credentials\"}").build());
+            return;
         }
 
-        Method method = resourceInfo.getResourceMethod();
-        //Verify user access
-        if (method.isAnnotationPresent(RolesAllowed.class)) {
-            RolesAllowed rolesAnnotation = method.getAnnotation(RolesAllowed.class);
-            Set<String> rolesSet = new HashSet<>(Arrays.asList(rolesAnnotation.value()));
-
-            //Is user valid?
-            if (!isUserAllowed(response.getClaims(), rolesSet)) {
-                requestContext.abortWith(Response.status(Response.Status.FORBIDDEN).build());
+        requestContext.setProperty(PRINCIPAL, verified.getPrincipal());
 
-            }
+        //Verify user access
+        if (checkRoles && (verified.getRoleMask() & allowedRoles) == 0) {
+            requestContext.abortWith(Response.status(Response.Status.FORBIDDEN).build());
         }
 
     }
-
-    public static boolean isUserAllowed(JwtClaims claims, final Set<String> rolesSet)
-    {
-        boolean isAllowed = false;
-
-        String[] roles = claims.getRoles().split("\\,");
-
-        if(rolesSet.stream().anyMatch(Arrays.asList(roles)::contains))
-        {
-            isAllowed = true;
-        }
-        return isAllowed;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package com.api.config;
+
+import com.authentication.security.KeyStoreService;
+import com.token.validation.keys.CachedKeyRing;
+import com.token.validation.keys.KeyRing;
+import com.util.cloud.DeploymentConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.security.Key;
+
+/**
+ * Keys verifying the bearer tokens, looked up by the kid of the token.
+ * <p/>
+ * With JWKS_URL set, the keys come from the JWKS document published by the auth service and are refreshed in the
+ * background every JWKS_REFRESH_SECONDS (300), so an API deployed on its own needs no key files.
+ * Otherwise the keys of the local {@link KeyStoreService} are used.
+ */
+@Component
+public class TokenKeyRing implements KeyRing {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TokenKeyRing.class);
+
+    private static final String JWKS_URL = DeploymentConfiguration.getProperty("JWKS_URL", "");
+    private static final long JWKS_REFRESH = DeploymentConfiguration.getProperty("JWKS_REFRESH_SECONDS", 300) * 1000L;
+
+    private final KeyRing keyRing;
+    private final CachedKeyRing cachedKeyRing;
+
+    @Autowired
+    public TokenKeyRing(KeyStoreService keyStoreService) {
+        if (JWKS_URL.isEmpty()) {
+            this.cachedKeyRing = null;
+            this.keyRing = keyStoreService;
+        } else {
+            this.cachedKeyRing = CachedKeyRing.forJwks(jwksUrl(), JWKS_REFRESH,
+                    e -> LOG.warn("Unable to refresh the token keys from {}, keeping the current keys", JWKS_URL, e));
+            this.keyRing = cachedKeyRing;
+        }
+    }
+
+    @Override
+    public Key getKey(String keyId) {
+        return keyRing.getKey(keyId);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (cachedKeyRing != null) {
+            cachedKeyRing.close();
+        }
+    }
+
+    private static URL jwksUrl() {
+        try {
+            return new URL(JWKS_URL);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("JWKS_URL is not a valid URL: " + JWKS_URL, e);
+        }
+    }
+}
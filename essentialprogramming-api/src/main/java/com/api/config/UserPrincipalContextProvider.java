@@ -0,0 +1,26 @@
+package com.api.config;
+
+import com.token.validation.auth.UserPrincipal;
+import org.glassfish.hk2.api.Factory;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.Context;
+
+/**
+ * Provides the principal published by {@link SecurityFilter}, so controllers get it through {@code @Context}.
+ */
+public class UserPrincipalContextProvider implements Factory<UserPrincipal> {
+
+    @Context
+    private ContainerRequestContext requestContext;
+
+    @Override
+    public UserPrincipal provide() {
+        return (UserPrincipal) requestContext.getProperty(SecurityFilter.PRINCIPAL);
+    }
+
+    @Override
+    public void dispose(UserPrincipal userPrincipal) {
+
+    }
+}
@@ -0,0 +1,204 @@
+package com.api.config;
+
+import com.authentication.service.TokenService;
+import com.token.validation.auth.UserPrincipal;
+import com.token.validation.jwt.Jwt;
+import com.token.validation.jwt.JwtClaims;
+import com.token.validation.jwt.JwtUtil;
+import com.token.validation.keys.KeyRing;
+import com.token.validation.response.ValidationResponse;
+import com.util.cache.ExpiringCache;
+import com.util.cloud.DeploymentConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Key;
+import java.util.Base64;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers the claims of tokens whose signature was already verified, so repeated requests carrying the
+ * same token skip the RSA verification and the claims parsing.
+ * <p/>
+ * The principal and the role mask of a token are built once, when it is verified, and kept with its claims.
+ * Masks use the roles registered in the {@link RoleIndex} of the cache, all registered while the resource
+ * methods are configured, before the first request.
+ * <p/>
+ * Tokens are keyed by their SHA-256 hash, bearer tokens themselves are never kept in memory.
+ * An entry never outlives the token expiration time, and it is only used while the key ring still resolves
+ * the kid of the token to the key it was verified with, so a key dropped from the key ring invalidates its entries.
+ * Invalid tokens are not cached. Refresh tokens are signed with the same key but only open the refresh endpoint,
+ * they are not valid here. The cached claims are shared between requests and must not be modified.
+ */
+@Component
+public class VerifiedTokenCache implements VerifiedTokenCacheMXBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VerifiedTokenCache.class);
+
+    private static final int CACHE_SIZE = DeploymentConfiguration.getProperty("TOKEN_CACHE_SIZE", 10_000);
+    private static final long CACHE_TTL = DeploymentConfiguration.getProperty("TOKEN_CACHE_TTL_SECONDS", 300) * 1000L;
+    private static final String OBJECT_NAME = "com.api:type=VerifiedTokenCache";
+
+    private final ExpiringCache<String, VerifiedToken> tokens;
+    private final RoleIndex roleIndex = new RoleIndex();
+    private final LongSupplier currentTimeMillis;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public VerifiedTokenCache() {
+        this(CACHE_SIZE, CACHE_TTL, System::currentTimeMillis);
+    }
+
+    VerifiedTokenCache(int maximumSize, long timeToLiveMillis, LongSupplier currentTimeMillis) {
+        this.tokens = new ExpiringCache<>(maximumSize, timeToLiveMillis);
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    /**
+     * Same checks as {@link JwtUtil#verifyJwt(String, KeyRing)}, answered from the cache when the token was already verified.
+     *
+     * @return the verified token, null when the token is not valid, is a refresh token or its key is unknown
+     * @throws com.token.validation.jwt.exception.TokenValidationException when the token is malformed
+     */
+    public VerifiedToken verify(String jwt, KeyRing keyRing) {
+        if (jwt == null) {
+            return null;
+        }
+        String tokenHash = hash(jwt);
+        long now = currentTimeMillis.getAsLong();
+
+        VerifiedToken verified = tokens.get(tokenHash);
+        if (verified != null && now < verified.expiresAt && verified.key.equals(keyRing.getKey(verified.keyId))) {
+            hits.increment();
+            return verified;
+        }
+
+        misses.increment();
+        Jwt token = new Jwt(jwt);
+        String keyId = JwtUtil.getKeyId(token);
+        Key key = keyRing.getKey(keyId);
+        if (key == null) {
+            return null;
+        }
+        ValidationResponse response = JwtUtil.verifyJwt(token, key);
+        if (!response.isValid() || TokenService.REFRESH_TOKEN_USE.equals(response.getClaims().get(TokenService.TOKEN_USE_CLAIM))) {
+            return null;
+        }
+        JwtClaims claims = response.getClaims();
+        long expiresAt = claims.getExpiration() * 1000L;
+        verified = new VerifiedToken(claims, UserPrincipal.fromClaims(claims), roleIndex.mask(claims.getRoles()), keyId, key, expiresAt);
+        tokens.put(tokenHash, verified, expiresAt - now);
+        return verified;
+    }
+
+    /**
+     * The roles the cached role masks are built from.
+     */
+    RoleIndex getRoleIndex() {
+        return roleIndex;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long requestCount = hitCount + misses.sum();
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+
+    @Override
+    public int getSize() {
+        return tokens.size();
+    }
+
+    @PostConstruct
+    public void registerMBean() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(this, objectName);
+            }
+        } catch (JMException e) {
+            LOG.warn("Unable to publish verified token cache statistics", e);
+        }
+    }
+
+    @PreDestroy
+    public void unregisterMBean() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            LOG.warn("Unable to remove verified token cache statistics", e);
+        }
+    }
+
+    private static String hash(String jwt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(jwt.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A verified token, shared by all the requests carrying it.
+     */
+    public static final class VerifiedToken {
+        private final JwtClaims claims;
+        private final UserPrincipal principal;
+        private final long roleMask;
+        private final String keyId;
+        private final Key key;
+        private final long expiresAt;
+
+        VerifiedToken(JwtClaims claims, UserPrincipal principal, long roleMask, String keyId, Key key, long expiresAt) {
+            this.claims = claims;
+            this.principal = principal;
+            this.roleMask = roleMask;
+            this.keyId = keyId;
+            this.key = key;
+            this.expiresAt = expiresAt;
+        }
+
+        public JwtClaims getClaims() {
+            return claims;
+        }
+
+        public UserPrincipal getPrincipal() {
+            return principal;
+        }
+
+        /**
+         * The roles of the token as a {@link RoleIndex} mask.
+         */
+        long getRoleMask() {
+            return roleMask;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.api.config;
+
+/**
+ * Verified token cache statistics, published over JMX.
+ */
+public interface VerifiedTokenCacheMXBean {
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRatio();
+
+    int getSize();
+}
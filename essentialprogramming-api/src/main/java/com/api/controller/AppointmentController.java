@@ -3,13 +3,15 @@ package com.api.controller;
 import com.api.input.AppointmentInput;
 import com.api.input.BusinessServiceInput;
 import com.api.input.BusinessUnitInput;
+import com.api.output.AppointmentJSON;
 import com.api.output.UserJSON;
 import com.api.service.AppointmentService;
+import com.api.service.BookingLanes;
 import com.api.service.UserService;
 import com.config.spring.ExecutorsProvider;
 import com.exceptions.ExceptionHandler;
 import com.internationalization.Messages;
-import com.token.validation.auth.AuthUtils;
+import com.token.validation.auth.UserPrincipal;
 import com.util.async.Computation;
 import com.util.enums.HTTPCustomStatus;
 import com.util.enums.Language;
@@ -30,6 +32,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.io.Serializable;
 import java.security.GeneralSecurityException;
+import java.util.Optional;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 
@@ -44,11 +47,13 @@ public class AppointmentController {
 
     private final UserService userService;
     private final AppointmentService appointmentService;
+    private final BookingLanes bookingLanes;
 
     @Autowired
-    public AppointmentController(UserService userService, AppointmentService appointmentService) {
+    public AppointmentController(UserService userService, AppointmentService appointmentService, BookingLanes bookingLanes) {
         this.userService = userService;
         this.appointmentService = appointmentService;
+        this.bookingLanes = bookingLanes;
     }
 
     @POST
@@ -61,9 +66,8 @@ public class AppointmentController {
                             content = @Content(mediaType = "application/json"
                             ))
             })
-    public void create(@HeaderParam("Authorization") String authorization, AppointmentInput appointmentInput, @Suspended AsyncResponse asyncResponse) {
-        final String bearer = AuthUtils.extractBearerToken(authorization);
-        final String email = AuthUtils.getClaim(bearer, "email");
+    public void create(@Context UserPrincipal principal, AppointmentInput appointmentInput, @Suspended AsyncResponse asyncResponse) {
+        final String email = principal.getEmail();
 
         ExecutorService executorService = ExecutorsProvider.getExecutorService();
         Computation.computeAsync(() -> create(email, appointmentInput), executorService)
@@ -74,7 +78,14 @@ public class AppointmentController {
     private Serializable create(String email, AppointmentInput appointmentInput) throws ApiException {
         try {
             UserJSON user = userService.loadUser(email, language);
-            return appointmentService.save(email, appointmentInput, language);
+            // the transaction of save commits before the lane takes the next booking of the unit;
+            // a unit picked by the server may be taken by a booking ahead in its lane, then another unit is picked
+            Optional<AppointmentJSON> appointment;
+            do {
+                BookingLanes.Lane lane = appointmentService.bookingLane(appointmentInput, language);
+                appointment = bookingLanes.execute(lane, () -> appointmentService.save(email, appointmentInput, lane, language));
+            } while (!appointment.isPresent());
+            return appointment.get();
         } catch (ApiException e) {
             LOG.error("An error occurred while saving a new appointment.", e);
             throw e;
@@ -84,6 +95,28 @@ public class AppointmentController {
         }
     }
 
+    @POST
+    @Path("appointment/hold")
+    @Consumes("application/json")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Hold a slot for an Appointment", tags = {"Appointment",},
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Returns the hold code to create the appointment with.",
+                            content = @Content(mediaType = "application/json"
+                            )),
+                    @ApiResponse(responseCode = "429", description = "Too many slots held, retry after the Retry-After header delay",
+                            content = @Content(mediaType = "application/json"
+                            ))
+            })
+    public void hold(@Context UserPrincipal principal, AppointmentInput appointmentInput, @Suspended AsyncResponse asyncResponse) {
+        final String email = principal.getEmail();
+
+        ExecutorService executorService = ExecutorsProvider.getExecutorService();
+        Computation.computeAsync(() -> appointmentService.hold(email, appointmentInput, language), executorService)
+                .thenApplyAsync(json -> asyncResponse.resume(Response.ok(json).build()), executorService)
+                .exceptionally(error -> asyncResponse.resume(ExceptionHandler.handleException((CompletionException) error)));
+    }
+
     @POST
     @Path("appointment/updateStatus/{appointmentCode}")
     @Consumes("application/json")
@@ -8,7 +8,7 @@ import com.api.service.BusinessService;
 import com.api.service.UserService;
 import com.config.spring.ExecutorsProvider;
 import com.internationalization.Messages;
-import com.token.validation.auth.AuthUtils;
+import com.token.validation.auth.UserPrincipal;
 import com.util.async.Computation;
 import com.util.enums.HTTPCustomStatus;
 import com.util.enums.Language;
@@ -60,10 +60,9 @@ public class BusinessController {
                             content = @Content(mediaType = "application/json",
                                     schema = @Schema(implementation = String.class)))
             })
-    public void loadAll(@HeaderParam("Authorization") String authorization, @Suspended AsyncResponse asyncResponse) {
+    public void loadAll(@Context UserPrincipal principal, @Suspended AsyncResponse asyncResponse) {
 
-        final String bearer = AuthUtils.extractBearerToken(authorization);
-        final String email = AuthUtils.getClaim(bearer, "email");
+        final String email = principal.getEmail();
         ExecutorService executorService = ExecutorsProvider.getExecutorService();
         Computation.computeAsync(businessService::loadAll, executorService)
                 .thenApplyAsync(json -> asyncResponse.resume(Response.ok(json).build()), executorService)
@@ -80,10 +79,9 @@ public class BusinessController {
                             content = @Content(mediaType = "application/json",
                                     schema = @Schema(implementation = String.class)))
             })
-    public void load(@HeaderParam("Authorization") String authorization, @Suspended AsyncResponse asyncResponse) {
+    public void load(@Context UserPrincipal principal, @Suspended AsyncResponse asyncResponse) {
 
-        final String bearer = AuthUtils.extractBearerToken(authorization);
-        final String email = AuthUtils.getClaim(bearer, "email");
+        final String email = principal.getEmail();
         ExecutorService executorService = ExecutorsProvider.getExecutorService();
         Computation.computeAsync(() -> businessService.load(email, language), executorService)
                 .thenApplyAsync(json -> asyncResponse.resume(Response.ok(json).build()), executorService)
@@ -120,9 +118,8 @@ public class BusinessController {
                             content = @Content(mediaType = "application/json"
                             ))
             })
-    public void create(@HeaderParam("Authorization") String authorization, BusinessInput businessInput, @Suspended AsyncResponse asyncResponse) {
-        final String bearer = AuthUtils.extractBearerToken(authorization);
-        final String email = AuthUtils.getClaim(bearer, "email");
+    public void create(@Context UserPrincipal principal, BusinessInput businessInput, @Suspended AsyncResponse asyncResponse) {
+        final String email = principal.getEmail();
 
         ExecutorService executorService = ExecutorsProvider.getExecutorService();
         Computation.computeAsync(() -> create(email, businessInput), executorService)
@@ -155,9 +152,8 @@ public class BusinessController {
                             content = @Content(mediaType = "application/json",
                                     schema = @Schema(implementation = String.class)))
             })
-    public void update(@HeaderParam("Authorization") String authorization, BusinessInput businessInput, @Suspended AsyncResponse asyncResponse) {
-        final String bearer = AuthUtils.extractBearerToken(authorization);
-        final String email = AuthUtils.getClaim(bearer, "email");
+    public void update(@Context UserPrincipal principal, BusinessInput businessInput, @Suspended AsyncResponse asyncResponse) {
+        final String email = principal.getEmail();
 
         ExecutorService executorService = ExecutorsProvider.getExecutorService();
         Computation.computeAsync(() -> update(email, businessInput), executorService)
@@ -180,10 +176,9 @@ public class BusinessController {
                             content = @Content(mediaType = "application/json",
                                     schema = @Schema(implementation = String.class)))
             })
-    public void loadAllByCriteria(@HeaderParam("Authorization") String authorization, @PathParam("search") String search, @Suspended AsyncResponse asyncResponse) {
+    public void loadAllByCriteria(@Context UserPrincipal principal, @PathParam("search") String search, @Suspended AsyncResponse asyncResponse) {
 
-        final String bearer = AuthUtils.extractBearerToken(authorization);
-        final String email = AuthUtils.getClaim(bearer, "email");
+        final String email = principal.getEmail();
         ExecutorService executorService = ExecutorsProvider.getExecutorService();
         Computation.computeAsync(() -> businessService.loadAllByCriteria(search), executorService)
                 .thenApplyAsync(json -> asyncResponse.resume(Response.ok(json).build()), executorService)
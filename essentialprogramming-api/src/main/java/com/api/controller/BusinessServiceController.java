@@ -6,7 +6,7 @@ import com.api.service.UserService;
 import com.config.spring.ExecutorsProvider;
 import com.exceptions.ExceptionHandler;
 import com.internationalization.Messages;
-import com.token.validation.auth.AuthUtils;
+import com.token.validation.auth.UserPrincipal;
 import com.util.async.Computation;
 import com.util.enums.HTTPCustomStatus;
 import com.util.enums.Language;
@@ -30,7 +30,9 @@ import java.io.Serializable;
 import java.security.GeneralSecurityException;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
@@ -48,6 +50,7 @@ public class BusinessServiceController {
     private final UserService userService;
     private final BusinessServiceService businessServiceService;
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("h:mm a");
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy");
 
 
     @Autowired
@@ -93,6 +96,43 @@ public class BusinessServiceController {
     }
 
 
+    @POST
+    @Path("business-service/schedule/range")
+    @Consumes("application/json")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Load Business Service schedule for a date range", tags = {"BusinessService",},
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Returns the free slots of each date of the range.",
+                            content = @Content(mediaType = "application/json"
+                            ))
+            })
+    public void getScheduleRange(BusinessServiceScheduleRangeInput scheduleInput, @Suspended AsyncResponse asyncResponse) {
+
+        ExecutorService executorService = ExecutorsProvider.getExecutorService();
+        Computation.computeAsync(() -> getScheduleRange(scheduleInput), executorService)
+                .thenApplyAsync(json -> asyncResponse.resume(Response.ok(json).build()), executorService)
+                .exceptionally(error -> asyncResponse.resume(ExceptionHandler.handleException((CompletionException) error)));
+    }
+
+    private Map<String, List<String>> getScheduleRange(BusinessServiceScheduleRangeInput scheduleInput) throws ApiException {
+        try {
+            Map<String, List<String>> schedule = new LinkedHashMap<>();
+            businessServiceService.getScheduleRange(scheduleInput, language).forEach((date, times) ->
+                    schedule.put(date.format(DATE_FORMATTER), times.stream()
+                            .map(time -> time.format(FORMATTER))
+                            .collect(Collectors.toList())));
+
+            return schedule;
+        } catch (ApiException e) {
+            LOG.error("An error occurred while retrieving business service schedule.", e);
+            throw e;
+        } catch (Exception e) {
+            LOG.error("An error occurred while retrieving business service schedule.", e);
+            throw new ApiException(Messages.get("", language), HTTPCustomStatus.BUSINESS_EXCEPTION);
+        }
+    }
+
+
     @POST
     @Path("business-service/create")
     @Consumes("application/json")
@@ -103,9 +143,8 @@ public class BusinessServiceController {
                             content = @Content(mediaType = "application/json"
                             ))
             })
-    public void create(@HeaderParam("Authorization") String authorization, BusinessServiceInput businessServiceInput, @Suspended AsyncResponse asyncResponse) {
-        final String bearer = AuthUtils.extractBearerToken(authorization);
-        final String email = AuthUtils.getClaim(bearer, "email");
+    public void create(@Context UserPrincipal principal, BusinessServiceInput businessServiceInput, @Suspended AsyncResponse asyncResponse) {
+        final String email = principal.getEmail();
 
         ExecutorService executorService = ExecutorsProvider.getExecutorService();
         Computation.computeAsync(() -> create(email, businessServiceInput), executorService)
@@ -256,9 +295,8 @@ public class BusinessServiceController {
                             content = @Content(mediaType = "application/json"
                             ))
             })
-    public void addEmployee(@HeaderParam("Authorization") String authorization, @RequestBody EmployeeInput employeeInput, @Suspended AsyncResponse asyncResponse) {
-        final String bearer = AuthUtils.extractBearerToken(authorization);
-        final String email = AuthUtils.getClaim(bearer, "email");
+    public void addEmployee(@Context UserPrincipal principal, @RequestBody EmployeeInput employeeInput, @Suspended AsyncResponse asyncResponse) {
+        final String email = principal.getEmail();
 
         ExecutorService executorService = ExecutorsProvider.getExecutorService();
         Computation.computeAsync(() -> createEmployee(email, employeeInput, language), executorService)
@@ -281,10 +319,9 @@ public class BusinessServiceController {
                             content = @Content(mediaType = "application/json",
                                     schema = @Schema(implementation = String.class)))
             })
-    public void loadUsersByBusiness(@HeaderParam("Authorization") String authorization, @Suspended AsyncResponse asyncResponse) {
+    public void loadUsersByBusiness(@Context UserPrincipal principal, @Suspended AsyncResponse asyncResponse) {
 
-        final String bearer = AuthUtils.extractBearerToken(authorization);
-        final String email = AuthUtils.getClaim(bearer, "email");
+        final String email = principal.getEmail();
 
         ExecutorService executorService = ExecutorsProvider.getExecutorService();
         Computation.computeAsync(() -> businessServiceService.getAllEmployeesForBusiness(email), executorService)
@@ -10,7 +10,7 @@ import com.api.service.UserService;
 import com.config.spring.ExecutorsProvider;
 import com.exceptions.ExceptionHandler;
 import com.internationalization.Messages;
-import com.token.validation.auth.AuthUtils;
+import com.token.validation.auth.UserPrincipal;
 import com.util.async.Computation;
 import com.util.enums.HTTPCustomStatus;
 import com.util.enums.Language;
@@ -63,9 +63,8 @@ public class BusinessUnitController {
                             content = @Content(mediaType = "application/json"
                             ))
             })
-    public void create(@HeaderParam("Authorization") String authorization, BusinessUnitInput businessUnitInput, @DefaultValue("0") @QueryParam("v") int version, @Suspended AsyncResponse asyncResponse) {
-        final String bearer = AuthUtils.extractBearerToken(authorization);
-        final String email = AuthUtils.getClaim(bearer, "email");
+    public void create(@Context UserPrincipal principal, BusinessUnitInput businessUnitInput, @DefaultValue("0") @QueryParam("v") int version, @Suspended AsyncResponse asyncResponse) {
+        final String email = principal.getEmail();
 
         ExecutorService executorService = ExecutorsProvider.getExecutorService();
         Computation.computeAsync(() -> create(email, businessUnitInput, version), executorService)
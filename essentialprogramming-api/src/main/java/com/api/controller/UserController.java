@@ -7,7 +7,7 @@ import com.api.input.*;
 import com.config.spring.ExecutorsProvider;
 import com.exceptions.ExceptionHandler;
 import com.internationalization.Messages;
-import com.token.validation.auth.AuthUtils;
+import com.token.validation.auth.UserPrincipal;
 import com.util.async.Computation;
 import com.util.enums.HTTPCustomStatus;
 import com.util.enums.Language;
@@ -111,10 +111,9 @@ public class UserController {
                             content = @Content(mediaType = "application/json",
                                     schema = @Schema(implementation = UserJSON.class)))
             })
-    public void load(@HeaderParam("Authorization") String authorization, @Suspended AsyncResponse asyncResponse) {
+    public void load(@Context UserPrincipal principal, @Suspended AsyncResponse asyncResponse) {
 
-        final String bearer = AuthUtils.extractBearerToken(authorization);
-        final String email = AuthUtils.getClaim(bearer, "email");
+        final String email = principal.getEmail();
 
         ExecutorService executorService = ExecutorsProvider.getExecutorService();
         Computation.computeAsync(() -> loadUser(email), executorService)
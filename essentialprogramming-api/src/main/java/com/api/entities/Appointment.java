@@ -7,6 +7,7 @@ import lombok.*;
 import javax.persistence.*;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.UUID;
 
 @Builder
 @Getter
@@ -45,8 +46,8 @@ public class Appointment {
     @Column(name = "status")
     private AppointmentStatus status;
 
-    @Column(name = "appointmentcode")
-    private String appointmentCode;
+    @Column(name = "appointmentcode", columnDefinition = "uuid")
+    private UUID appointmentCode;
 
     @Column(name = "endtime")
     private LocalTime endTime;
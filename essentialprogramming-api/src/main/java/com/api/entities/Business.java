@@ -7,6 +7,7 @@ import javax.persistence.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @Builder
 @Getter
@@ -35,8 +36,8 @@ public class Business {
     @Column(name = "email")
     private String email;
 
-    @Column(name = "businesscode")
-    private String businessCode;
+    @Column(name = "businesscode", columnDefinition = "uuid")
+    private UUID businessCode;
 
     @Column(name="latitude")
     private String latitude;
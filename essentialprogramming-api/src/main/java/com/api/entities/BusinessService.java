@@ -5,6 +5,7 @@ import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 import java.util.List;
+import java.util.UUID;
 
 @Builder
 @Getter
@@ -35,8 +36,8 @@ public class BusinessService {
     @OneToMany(mappedBy = "businessService" ,fetch = FetchType.LAZY)
     private List<Subscription> subscriptions;
 
-    @Column(name = "businessservicecode")
-    private String businessServiceCode;
+    @Column(name = "businessservicecode", columnDefinition = "uuid")
+    private UUID businessServiceCode;
 
     @Column(name = "name")
     private String name;
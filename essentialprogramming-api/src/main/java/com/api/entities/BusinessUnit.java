@@ -4,6 +4,7 @@ import lombok.*;
 
 import javax.persistence.*;
 import java.util.List;
+import java.util.UUID;
 
 @Builder
 @Getter
@@ -23,11 +24,11 @@ public class BusinessUnit {
     @JoinColumn(name = "businessid")
     private Business business;
 
-    @OneToMany (mappedBy = "businessUnit", fetch = FetchType.EAGER)
+    @OneToMany (mappedBy = "businessUnit", fetch = FetchType.LAZY)
     private List<Appointment> appointments;
 
-    @Column(name = "businessunitcode")
-    private String businessUnitCode;
+    @Column(name = "businessunitcode", columnDefinition = "uuid")
+    private UUID businessUnitCode;
 
     @Column(name = "businessunitowner")
     private String businessOwnerEmail;
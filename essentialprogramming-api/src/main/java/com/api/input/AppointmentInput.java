@@ -23,5 +23,6 @@ public class AppointmentInput {
     private String endTime;
     private String date;
     private Day day;
+    private String holdCode;
 
 }
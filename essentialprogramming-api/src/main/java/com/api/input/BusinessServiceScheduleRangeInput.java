@@ -0,0 +1,17 @@
+package com.api.input;
+
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.*;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BusinessServiceScheduleRangeInput {
+    private String businessServiceCode;
+    private String from;
+    private String to;
+}
@@ -2,8 +2,10 @@ package com.api.mapper;
 
 import com.api.entities.Appointment;
 import com.api.input.AppointmentInput;
+import com.api.output.AppointmentHoldJSON;
 import com.api.output.AppointmentJSON;
-import com.crypto.Crypt;
+import com.api.service.SlotHold;
+import com.crypto.PublicCode;
 
 import java.security.GeneralSecurityException;
 import java.time.LocalDate;
@@ -37,8 +39,8 @@ public class AppointmentMapper {
 
     public static AppointmentJSON appointmentToOutput(Appointment appointment) throws GeneralSecurityException {
         return AppointmentJSON.builder()
-                .appointmentCode(Crypt.encrypt(appointment.getAppointmentCode(), ENCRYPTION_KEY.value()))
-                .businessUnitCode(appointment.getBusinessUnit().getBusinessUnitCode())
+                .appointmentCode(PublicCode.encode(appointment.getAppointmentCode().toString(), ENCRYPTION_KEY.value()))
+                .businessUnitCode(appointment.getBusinessUnit().getBusinessUnitCode().toString())
                 .status(appointment.getStatus())
                 .name(appointment.getBusinessService().getName())
                 .start(appointment.getStartTime().toString())
@@ -48,4 +50,15 @@ public class AppointmentMapper {
                 .build();
     }
 
+    public static AppointmentHoldJSON holdToOutput(SlotHold hold) {
+        return AppointmentHoldJSON.builder()
+                .holdCode(hold.getCode())
+                .businessUnitCode(hold.getUnitCode().toString())
+                .start(hold.getStartTime().toString())
+                .end(hold.getEndTime().toString())
+                .date(hold.getDate().toString())
+                .expiresIn(Math.max(0, (hold.getExpiresAt() - System.currentTimeMillis()) / 1000))
+                .build();
+    }
+
 }
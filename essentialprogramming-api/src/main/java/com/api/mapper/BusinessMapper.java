@@ -4,7 +4,7 @@ import com.api.entities.Business;
 import com.api.entities.history.BusinessHistory;
 import com.api.input.BusinessInput;
 import com.api.output.BusinessJSON;
-import com.crypto.Crypt;
+import com.crypto.PublicCode;
 import com.util.web.URLHelper;
 
 import java.security.GeneralSecurityException;
@@ -30,7 +30,7 @@ public class BusinessMapper {
                 .active(business.isActive())
                 .address(business.getAddress())
                 .business(business)
-                .businessCode(business.getBusinessCode())
+                .businessCode(business.getBusinessCode().toString())
                 .deleted(business.isDeleted())
                 .email(business.getEmail())
                 .name(business.getName())
@@ -43,7 +43,7 @@ public class BusinessMapper {
     public static BusinessJSON businessToOutput(Business business) throws GeneralSecurityException {
         return BusinessJSON.builder()
                 .name(business.getName())
-                .businessCode(Crypt.encrypt(business.getBusinessCode(), ENCRYPTION_KEY.value()))
+                .businessCode(PublicCode.encode(business.getBusinessCode().toString(), ENCRYPTION_KEY.value()))
                 .address(business.getAddress().getStreet())
                 .zip(business.getAddress().getZip())
                 .city(business.getAddress().getCity())
@@ -3,7 +3,7 @@ package com.api.mapper;
 import com.api.entities.BusinessService;
 import com.api.input.BusinessServiceInput;
 import com.api.output.BusinessServiceJSON;
-import com.crypto.Crypt;
+import com.crypto.PublicCode;
 
 import java.security.GeneralSecurityException;
 import java.time.LocalTime;
@@ -33,7 +33,7 @@ public class BusinessServiceMapper {
         return BusinessServiceJSON.builder()
                 .name(business.getName())
                 .duration(business.getServiceDetail().getDuration())
-                .businessServiceCode(Crypt.encrypt(business.getBusinessServiceCode(), ENCRYPTION_KEY.value()))
+                .businessServiceCode(PublicCode.encode(business.getBusinessServiceCode().toString(), ENCRYPTION_KEY.value()))
                 .endTime(end)
                 .startTime(start)
                 .days(business.getServiceDetail().getDay())
@@ -4,7 +4,7 @@ import com.api.entities.BusinessService;
 import com.api.entities.BusinessUnit;
 import com.api.input.BusinessUnitInput;
 import com.api.output.BusinessUnitJSON;
-import com.crypto.Crypt;
+import com.crypto.PublicCode;
 
 import java.security.GeneralSecurityException;
 import java.util.stream.Collectors;
@@ -22,7 +22,7 @@ public class BusinessUnitMapper {
     public static BusinessUnitJSON businessUnitToOutput(BusinessUnit business) throws GeneralSecurityException {
         return BusinessUnitJSON.builder()
                 .name(business.getName())
-                .businessUnitCode(Crypt.encrypt(business.getBusinessUnitCode(), ENCRYPTION_KEY.value()))
+                .businessUnitCode(PublicCode.encode(business.getBusinessUnitCode().toString(), ENCRYPTION_KEY.value()))
                 .businessUnitOwner(business.getBusinessOwnerEmail())
                 .services(business.getServicesPerformedByUnit().stream().map(BusinessService::getName).collect(Collectors.toList()))
                 .build();
@@ -0,0 +1,21 @@
+package com.api.output;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentHoldJSON implements Serializable {
+
+    private String holdCode;
+    private String businessUnitCode;
+    private String start;
+    private String end;
+    private String date;
+    private long expiresIn;
+
+}
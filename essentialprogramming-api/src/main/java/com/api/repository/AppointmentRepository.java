@@ -1,13 +1,17 @@
 package com.api.repository;
 
 import com.api.entities.*;
+import com.api.entities.enums.AppointmentStatus;
 import com.api.entities.enums.Day;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment,Integer> {
@@ -21,10 +25,14 @@ public interface AppointmentRepository extends JpaRepository<Appointment,Integer
 
     List<Appointment> findAllByBusinessService(BusinessService businessService);
 
-    Optional<Appointment> findByAppointmentCode(String businessUnitCode);
+    Optional<Appointment> findByAppointmentCode(UUID appointmentCode);
 
     List<Appointment> findAllByBusinessAndBusinessServiceAndBusinessUnitAndDayAndStartTimeAndEndTime(Business business, BusinessService businessService, BusinessUnit businessUnit, Day day, LocalTime startTime, LocalTime endTime);
 
-    void deleteByAppointmentCode(String appointmentCode);
+    List<Appointment> findAllByBusinessUnitInAndDateInAndStatus(Collection<BusinessUnit> businessUnits, Collection<LocalDate> dates, AppointmentStatus status);
+
+    Optional<Appointment> findFirstByBusinessUnitAndDateAndStartTimeAndEndTimeAndStatusOrderByIdAsc(BusinessUnit businessUnit, LocalDate date, LocalTime startTime, LocalTime endTime, AppointmentStatus status);
+
+    void deleteByAppointmentCode(UUID appointmentCode);
 
 }
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 
 @Repository
@@ -16,9 +17,9 @@ public interface BusinessRepository extends JpaRepository<Business, Integer> {
 
     Optional<Business> findByCreatedBy(User user);
     
-    Optional<Business> findByBusinessCode(@Param("businessCode") String businessCode);
+    Optional<Business> findByBusinessCode(@Param("businessCode") UUID businessCode);
 
-    Optional<Business> findByBusinessCodeAndDeleted(@Param("businessCode") String businessCode, @Param("deleted") boolean deleted);
+    Optional<Business> findByBusinessCodeAndDeleted(@Param("businessCode") UUID businessCode, @Param("deleted") boolean deleted);
 
     @Query(value = "select b\n" +
             "from business b\n" +
@@ -6,12 +6,13 @@ import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 public interface BusinessServiceRepository extends JpaRepository<BusinessService,Integer> {
 
     List<BusinessService> findAllByBusiness(Business business);
 
-    Optional<BusinessService> findByBusinessServiceCode(String businessServiceCode);
+    Optional<BusinessService> findByBusinessServiceCode(UUID businessServiceCode);
 
-    void deleteByBusinessServiceCode(String businessServiceCode);
+    void deleteByBusinessServiceCode(UUID businessServiceCode);
 }
@@ -7,15 +7,16 @@ import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 public interface BusinessUnitRepository extends JpaRepository<BusinessUnit,Integer> {
 
     List<BusinessUnit> findAllByBusiness(Business business);
 
-    Optional<BusinessUnit> findByBusinessUnitCode(String businessUnitCode);
+    Optional<BusinessUnit> findByBusinessUnitCode(UUID businessUnitCode);
 
     Optional<BusinessUnit> findByUser(User user);
 
-    void deleteByBusinessUnitCode(String businessUnitCode);
+    void deleteByBusinessUnitCode(UUID businessUnitCode);
 
 }
@@ -3,41 +3,63 @@ package com.api.service;
 import com.api.entities.*;
 import com.api.entities.BusinessService;
 import com.api.entities.enums.AppointmentStatus;
-import com.api.entities.enums.Day;
 import com.api.input.AppointmentInput;
 import com.api.mapper.AppointmentMapper;
+import com.api.output.AppointmentHoldJSON;
 import com.api.output.AppointmentJSON;
 import com.api.repository.*;
-import com.crypto.Crypt;
+import com.crypto.PublicCode;
 import com.email.EmailTemplateService;
 import com.email.Template;
 import com.internationalization.EmailMessages;
 import com.internationalization.Messages;
 import com.resources.AppResources;
+import com.util.cloud.DeploymentConfiguration;
+import com.util.code.EntityCode;
 import com.util.enums.HTTPCustomStatus;
 import com.util.enums.Language;
+import com.config.spring.ExecutorsProvider;
 import com.util.exceptions.ApiException;
+import com.util.exceptions.TooManyRequestsException;
+import com.util.throttle.TokenBucketLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.transaction.Transactional;
 import java.security.GeneralSecurityException;
-import java.time.LocalTime;
+import java.sql.SQLException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
 
 import static com.resources.AppResources.ENCRYPTION_KEY;
 
 @Service
 public class AppointmentService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(AppointmentService.class);
+
+    // exclusion_violation, raised by the appointment_unit_no_overlap constraint (V4 migration)
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private static final int HOLDS_PER_OWNER = DeploymentConfiguration.getProperty("SLOT_HOLDS_PER_OWNER", 3);
+    private static final int HOLD_OWNERS = DeploymentConfiguration.getProperty("SLOT_HOLD_MAX_OWNERS", 65536);
+
     private AppointmentRepository appointmentRepository;
     private BusinessRepository businessRepository;
     private BusinessUnitRepository businessUnitRepository;
     private BusinessServiceRepository businessServiceRepository;
     private UserRepository userRepository;
+    private CodeResolver codeResolver;
+    private AvailabilityIndex availabilityIndex;
 
     private final EmailTemplateService emailTemplateService;
+    // one more hold per hold lifetime, so an owner never has more than SLOT_HOLDS_PER_OWNER + 1 unexpired holds
+    private final TokenBucketLimiter holdLimiter = new TokenBucketLimiter(HOLD_OWNERS, HOLDS_PER_OWNER, AvailabilityIndex.HOLD_TTL);
 
 
     @Autowired
@@ -45,32 +67,95 @@ public class AppointmentService {
                               BusinessRepository businessRepository,
                               BusinessUnitRepository businessUnitRepository,
                               BusinessServiceRepository businessServiceRepository,
-                              UserRepository userRepository, EmailTemplateService emailTemplateService) {
+                              UserRepository userRepository, EmailTemplateService emailTemplateService,
+                              CodeResolver codeResolver, AvailabilityIndex availabilityIndex) {
         this.appointmentRepository = appointmentRepository;
         this.businessRepository = businessRepository;
         this.businessUnitRepository = businessUnitRepository;
         this.businessServiceRepository = businessServiceRepository;
         this.userRepository = userRepository;
         this.emailTemplateService = emailTemplateService;
+        this.codeResolver = codeResolver;
+        this.availabilityIndex = availabilityIndex;
     }
 
-    private String getComplexUUID() {
-        return UUID.randomUUID().toString() + UUID.randomUUID().toString();
+    /**
+     * Lane of {@link BookingLanes} in which {@link #save} must run: the lane of the held unit, of the unit chosen
+     * by the client, or of the first free unit performing the service, which {@link #save} books if still free.
+     */
+    public BookingLanes.Lane bookingLane(AppointmentInput appointmentInput, Language language) throws GeneralSecurityException {
+        if (appointmentInput.getHoldCode() != null && !appointmentInput.getHoldCode().equals("")) {
+            return BookingLanes.unit(availabilityIndex.heldUnit(appointmentInput.getHoldCode()).orElseThrow(
+                    () -> new ApiException(Messages.get("APPOINTMENT.HOLD.NOT.EXIST", language), HTTPCustomStatus.BUSINESS_VALIDATION_ERROR)
+            ));
+        }
+        if (!appointmentInput.getBusinessUnitCode().equals("")) {
+            BusinessUnit businessUnit = codeResolver.findBusinessUnit(appointmentInput.getBusinessUnitCode()).orElseThrow(
+                    () -> new ApiException(Messages.get("BUSINESSUNIT.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
+            );
+            return BookingLanes.unit(businessUnit.getId());
+        }
+        BusinessService businessService = codeResolver.findBusinessService(appointmentInput.getBusinessServiceCode()).orElseThrow(
+                () -> new ApiException(Messages.get("BUSINESSSERVICE.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
+        );
+        Appointment app = AppointmentMapper.inputToAppointment(appointmentInput);
+        BusinessUnit businessUnit = availabilityIndex.freeUnit(businessService.getUnitsPerformingService(), app.getDate(), app.getStartTime(), app.getEndTime())
+                .orElseThrow(
+                        () -> new ApiException(Messages.get("BUSINESSUNIT.NOT.AVAILABLE", language), HTTPCustomStatus.UNAUTHORIZED)
+                );
+        return BookingLanes.unit(businessUnit.getId());
     }
 
+    /**
+     * Reserves the interval of the appointment on the chosen unit, or on a free unit performing the service,
+     * until the appointment is created with the code of the hold or the hold expires.
+     * An owner may take SLOT_HOLDS_PER_OWNER (3) holds at once, then one more per hold lifetime.
+     */
     @Transactional
-    public AppointmentJSON save(String email, AppointmentInput appointmentInput, Language language) throws GeneralSecurityException {
-        String businessCode = appointmentInput.getBusinessCode();
-        businessCode  = Crypt.decrypt(businessCode, ENCRYPTION_KEY.value());
+    public AppointmentHoldJSON hold(String email, AppointmentInput appointmentInput, Language language) throws GeneralSecurityException {
+        BusinessService businessService = codeResolver.findBusinessService(appointmentInput.getBusinessServiceCode()).orElseThrow(
+                () -> new ApiException(Messages.get("BUSINESSSERVICE.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
+        );
+
+        if (!businessService.getServiceDetail().getDay().contains(appointmentInput.getDay())) {
+            throw new ApiException(Messages.get("BUSINESSSERVICE.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED);
+        }
+
+        Appointment app = AppointmentMapper.inputToAppointment(appointmentInput);
+        checkTime(app, language);
+
+        List<BusinessUnit> units;
+        if (!appointmentInput.getBusinessUnitCode().equals("")) {
+            units = Collections.singletonList(codeResolver.findBusinessUnit(appointmentInput.getBusinessUnitCode()).orElseThrow(
+                    () -> new ApiException(Messages.get("BUSINESSUNIT.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
+            ));
+        } else {
+            units = businessService.getUnitsPerformingService();
+        }
+
+        long retryAfterMillis = holdLimiter.tryAcquire(email);
+        if (retryAfterMillis > 0) {
+            throw new TooManyRequestsException(Messages.get("APPOINTMENT.HOLD.LIMIT", language), (retryAfterMillis + 999) / 1000);
+        }
+        SlotHold hold = availabilityIndex.hold(email, businessService.getId(), units, app.getDate(), app.getStartTime(), app.getEndTime())
+                .orElseThrow(
+                        () -> new ApiException(Messages.get("BUSINESSUNIT.NOT.AVAILABLE", language), HTTPCustomStatus.UNAUTHORIZED)
+                );
+        return AppointmentMapper.holdToOutput(hold);
+    }
 
-        Business business = businessRepository.findByBusinessCode(businessCode).orElseThrow(
+    /**
+     * Creates the appointment, running in the lane returned by {@link #bookingLane}.
+     *
+     * @return the appointment, empty if the unit picked for the lane was booked in the meantime
+     */
+    @Transactional
+    public Optional<AppointmentJSON> save(String email, AppointmentInput appointmentInput, BookingLanes.Lane lane, Language language) throws GeneralSecurityException {
+        Business business = codeResolver.findBusiness(appointmentInput.getBusinessCode()).orElseThrow(
                 () -> new ApiException(Messages.get("BUSINESS.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
         );
 
-        String businessServiceCode = appointmentInput.getBusinessServiceCode();
-        businessServiceCode  = Crypt.decrypt(businessServiceCode, ENCRYPTION_KEY.value());
-
-        BusinessService businessService = businessServiceRepository.findByBusinessServiceCode(businessServiceCode).orElseThrow(
+        BusinessService businessService = codeResolver.findBusinessService(appointmentInput.getBusinessServiceCode()).orElseThrow(
                 () -> new ApiException(Messages.get("BUSINESSSERVICE.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
         );
 
@@ -80,8 +165,9 @@ public class AppointmentService {
                 () -> new ApiException(Messages.get("USER.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
         );
 
-        String businessUnitCode = "";
         BusinessUnit businessUnit = null;
+        boolean unitPicked = appointmentInput.getBusinessUnitCode().equals("");
+        boolean held = appointmentInput.getHoldCode() != null && !appointmentInput.getHoldCode().equals("");
 
         Appointment app = AppointmentMapper.inputToAppointment(appointmentInput);
 
@@ -97,13 +183,21 @@ public class AppointmentService {
             throw  new ApiException(Messages.get("BUSINESSSERVICE.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED);
         }
 
+        checkTime(app, language);
+
+        // a held interval is already booked on the unit of the hold
         // if a business unit is provided we create the link between the unit and the appointment
         // if a business unit is not provided we select a random available unit and we create the link between the unit and the appointment
-        if (!appointmentInput.getBusinessUnitCode().equals("")) {
-            businessUnitCode = appointmentInput.getBusinessUnitCode();
-            businessUnitCode = Crypt.decrypt(businessUnitCode, ENCRYPTION_KEY.value());
-
-            businessUnit = businessUnitRepository.findByBusinessUnitCode(businessUnitCode).orElseThrow(
+        if (held) {
+            SlotHold hold = availabilityIndex.claim(appointmentInput.getHoldCode(), email, businessService.getId(),
+                    app.getDate(), app.getStartTime(), app.getEndTime()).orElseThrow(
+                    () -> new ApiException(Messages.get("APPOINTMENT.HOLD.NOT.EXIST", language), HTTPCustomStatus.BUSINESS_VALIDATION_ERROR)
+            );
+            businessUnit = businessUnitRepository.findById(hold.getUnitId()).orElseThrow(
+                    () -> new ApiException(Messages.get("BUSINESSUNIT.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
+            );
+        } else if (!appointmentInput.getBusinessUnitCode().equals("")) {
+            businessUnit = codeResolver.findBusinessUnit(appointmentInput.getBusinessUnitCode()).orElseThrow(
                     () -> new ApiException(Messages.get("BUSINESSUNIT.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
             );
 
@@ -163,36 +257,15 @@ public class AppointmentService {
 //            }
 
         } else {
-            // the search for an available business unit will stop when one available unit is found
-            businessUnit = businessUnitRepository
-                    .findAll()
-                    .stream()
-                    .filter(businessUnit1 -> {
-                        return businessUnit1.getAppointments().stream().allMatch(appointment -> {
-                            Day day = appointment.getDay();
-                            LocalTime start = appointment.getStartTime();
-                            LocalTime end = appointment.getEndTime();
-
-                            if (day.equals(app.getDay())) {
-                                if (start.equals(app.getStartTime()) && end.equals(app.getEndTime())) {
-                                    return false;
-                                }
-
-                                if (app.getStartTime().isAfter(start) && app.getStartTime().isBefore(end)) {
-                                    return false;
-                                }
-
-                                if (app.getEndTime().isAfter(start) && app.getEndTime().isBefore(end)) {
-                                    return false;
-                                }
-                            }
-
-                            return true;
-                        });
-                    })
-                    .findFirst().orElseThrow(
-                            () -> new ApiException(Messages.get("BUSINESSUNIT.NOT.AVAILABLE", language), HTTPCustomStatus.UNAUTHORIZED)
-                    );
+            // the unit picked for the lane is booked if no booking ahead in the lane took it, otherwise another is picked
+            businessUnit = businessService.getUnitsPerformingService().stream()
+                    .filter(unit -> unit.getId() == lane.getBusinessUnitId())
+                    .findFirst()
+                    .filter(unit -> availabilityIndex.tryBook(unit, app.getDate(), app.getStartTime(), app.getEndTime()))
+                    .orElse(null);
+            if (businessUnit == null) {
+                return Optional.empty();
+            }
         }
 
 
@@ -200,66 +273,81 @@ public class AppointmentService {
         app.setBusiness(business);
         app.setBusinessUnit(businessUnit);
         app.setBusinessService(businessService);
-        app.setAppointmentCode(getComplexUUID());
-
-        boolean anotherAppointmentFound = false;
+        app.setAppointmentCode(EntityCode.generate());
 
-        List<Appointment> appointments = appointmentRepository.findAllByBusinessAndBusinessServiceAndBusinessUnitAndDayAndStartTimeAndEndTime(
-                business,
-                businessService,
+        // a unit chosen by the user may already be booked: an appointment for the same slot on the same date
+        // waits for the slot, an appointment overlapping other bookings is refused
+        boolean unitBooked = !held && !unitPicked && !availabilityIndex.tryBook(businessUnit, app.getDate(), app.getStartTime(), app.getEndTime());
+        if (unitBooked && !appointmentRepository.findFirstByBusinessUnitAndDateAndStartTimeAndEndTimeAndStatusOrderByIdAsc(
                 businessUnit,
-                app.getDay(),
+                app.getDate(),
                 app.getStartTime(),
-                app.getEndTime()
-        );
-
-        if (!appointments.isEmpty()) {
-            anotherAppointmentFound = true;
+                app.getEndTime(),
+                AppointmentStatus.ACCEPTED
+        ).isPresent()) {
+            throw new ApiException(Messages.get("BUSINESSUNIT.NOT.AVAILABLE", language), HTTPCustomStatus.UNAUTHORIZED);
         }
 
-        if (!anotherAppointmentFound) {
-            app.setStatus(AppointmentStatus.ACCEPTED);
-            businessUnit.getAppointments().add(app);
-            appointmentRepository.save(app);
-        } else {
-            app.setStatus(AppointmentStatus.PENDING);
-            businessUnit.getAppointments().add(app);
-            appointmentRepository.save(app);
-        }
+        app.setStatus(unitBooked ? AppointmentStatus.PENDING : AppointmentStatus.ACCEPTED);
+        saveBooking(app, language);
 
-        return AppointmentMapper.appointmentToOutput(app);
+        return Optional.of(AppointmentMapper.appointmentToOutput(app));
     }
 
     @Transactional
     public AppointmentJSON updateStatus(String appointmentCode, Language language) throws GeneralSecurityException {
-        String code = Crypt.decrypt(appointmentCode, ENCRYPTION_KEY.value());
-
-        Appointment appointment = appointmentRepository.findByAppointmentCode(code).orElseThrow(
+        Appointment appointment = codeResolver.findAppointment(appointmentCode).orElseThrow(
                 () -> new ApiException(Messages.get("APPOINTMENT.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
         );
 
-        appointment.setStatus(AppointmentStatus.ACCEPTED);
-        appointmentRepository.save(appointment);
+        if (appointment.getStatus() != AppointmentStatus.ACCEPTED) {
+            appointment.setStatus(AppointmentStatus.ACCEPTED);
+            availabilityIndex.book(appointment);
+        }
+        saveBooking(appointment, language);
 
         return AppointmentMapper.appointmentToOutput(appointment);
     }
 
     @Transactional
     public void update(String code, AppointmentInput appointmentInput, Language language) throws GeneralSecurityException {
-        code  = Crypt.decrypt(code, ENCRYPTION_KEY.value());
-
-        Appointment appointment = appointmentRepository.findByAppointmentCode(code).orElseThrow(
+        Appointment appointment = codeResolver.findAppointment(code).orElseThrow(
                 () -> new ApiException(Messages.get("APPOINTMENT.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
         );
 
         Appointment app = AppointmentMapper.inputToAppointment(appointmentInput);
+        checkTime(app, language);
+
+        boolean accepted = appointment.getStatus() == AppointmentStatus.ACCEPTED;
+        Appointment vacated = Appointment.builder()
+                .businessUnit(appointment.getBusinessUnit())
+                .date(appointment.getDate())
+                .startTime(appointment.getStartTime())
+                .endTime(appointment.getEndTime())
+                .build();
+        if (accepted) {
+            availabilityIndex.release(appointment);
+        }
 
         appointment.setDate(app.getDate());
         appointment.setDay(app.getDay());
         appointment.setStartTime(app.getStartTime());
         appointment.setEndTime(app.getEndTime());
 
-        appointmentRepository.save(appointment);
+        // the move reaches the database before a promotion, like a delete
+        saveBooking(appointment, language);
+        if (!accepted) {
+            return;
+        }
+        availabilityIndex.book(appointment);
+
+        // a slot the appointment still overlaps is not free for the appointments waiting for it
+        boolean slotVacated = !vacated.getDate().equals(appointment.getDate())
+                || !vacated.getStartTime().isBefore(appointment.getEndTime())
+                || !appointment.getStartTime().isBefore(vacated.getEndTime());
+        if (slotVacated) {
+            promoteNext(vacated, language).ifPresent(availabilityIndex::book);
+        }
     }
 
     @Transactional
@@ -280,9 +368,7 @@ public class AppointmentService {
 
     @Transactional
     public List<AppointmentJSON> loadByBusiness(String businessCode, Language language) throws GeneralSecurityException {
-        businessCode  = Crypt.decrypt(businessCode, ENCRYPTION_KEY.value());
-
-        Business business = businessRepository.findByBusinessCode(businessCode).orElseThrow(
+        Business business = codeResolver.findBusiness(businessCode).orElseThrow(
                 () -> new ApiException(Messages.get("BUSINESS.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
         );
 
@@ -297,9 +383,7 @@ public class AppointmentService {
 
     @Transactional
     public List<AppointmentJSON> loadByBusinessUnit(String businessUnitCode, Language language) throws GeneralSecurityException {
-        businessUnitCode  = Crypt.decrypt(businessUnitCode, ENCRYPTION_KEY.value());
-
-        BusinessUnit businessUnit = businessUnitRepository.findByBusinessUnitCode(businessUnitCode).orElseThrow(
+        BusinessUnit businessUnit = codeResolver.findBusinessUnit(businessUnitCode).orElseThrow(
                 () -> new ApiException(Messages.get("BUSINESSUNIT.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
         );
 
@@ -314,9 +398,7 @@ public class AppointmentService {
 
     @Transactional
     public List<AppointmentJSON> loadByBusinessService(String businessServiceCode, Language language) throws GeneralSecurityException {
-        businessServiceCode  = Crypt.decrypt(businessServiceCode, ENCRYPTION_KEY.value());
-
-        BusinessService businessService = businessServiceRepository.findByBusinessServiceCode(businessServiceCode).orElseThrow(
+        BusinessService businessService = codeResolver.findBusinessService(businessServiceCode).orElseThrow(
                 () -> new ApiException(Messages.get("BUSINESSSERVICE.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
         );
 
@@ -331,37 +413,118 @@ public class AppointmentService {
 
     @Transactional
     public void delete(String appointmentCode, Language language) throws GeneralSecurityException {
-        appointmentCode  = Crypt.decrypt(appointmentCode, ENCRYPTION_KEY.value());
-
-        Appointment app = appointmentRepository.findByAppointmentCode(appointmentCode).orElseThrow(
+        Appointment app = codeResolver.findAppointment(appointmentCode).orElseThrow(
                 () -> new ApiException(Messages.get("APPOINTMENT.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
         );
 
-        List<Appointment> appointments = appointmentRepository.findAllByBusinessAndBusinessServiceAndBusinessUnitAndDayAndStartTimeAndEndTime(
-                app.getBusiness(),
-                app.getBusinessService(),
-                app.getBusinessUnit(),
-                app.getDay(),
-                app.getStartTime(),
-                app.getEndTime()
-        ).stream().filter(appointment -> !appointment.getAppointmentCode().equals(app.getAppointmentCode())).collect(Collectors.toList());
+        // the delete reaches the database before a promotion, appointment_unit_no_overlap is checked on every statement
+        appointmentRepository.delete(app);
+        appointmentRepository.flush();
+        codeResolver.evictAppointment(appointmentCode);
+        if (app.getStatus() != AppointmentStatus.ACCEPTED) {
+            return;
+        }
 
-        appointments.forEach(appointment -> {
-            String validationKey = null;
+        // the interval stays booked on the unit, for the promoted appointment
+        if (!promoteNext(app, language).isPresent()) {
+            availabilityIndex.release(app);
+        }
+    }
+
+    /**
+     * Gives the slot left by an accepted appointment to the first pending appointment made for it, which is
+     * notified once the transaction commits.
+     *
+     * @return the promoted appointment, empty if no appointment waits for the slot
+     */
+    private Optional<Appointment> promoteNext(Appointment vacated, Language language) {
+        // the pending appointments of the slot wait in the order they were made, the first one takes the slot
+        Optional<Appointment> next = appointmentRepository.findFirstByBusinessUnitAndDateAndStartTimeAndEndTimeAndStatusOrderByIdAsc(
+                vacated.getBusinessUnit(),
+                vacated.getDate(),
+                vacated.getStartTime(),
+                vacated.getEndTime(),
+                AppointmentStatus.PENDING
+        );
+        next.ifPresent(promoted -> {
+            promoted.setStatus(AppointmentStatus.ACCEPTED);
+            saveBooking(promoted, language);
+            notifyPromotion(promoted, language);
+        });
+        return next;
+    }
+
+    /**
+     * Sends the confirmation of a promoted appointment once the promotion is committed, off the request thread.
+     */
+    private void notifyPromotion(Appointment appointment, Language language) {
+        String appointmentCode = appointment.getAppointmentCode().toString();
+        String fullName = appointment.getUser().getFullName();
+        String email = appointment.getUser().getEmail();
+
+        Runnable notification = () -> {
             try {
-                validationKey = Crypt.encrypt(appointment.getUser().getUserKey(), Crypt.encrypt(appointment.getUser().getUserKey(), appointment.getUser().getUserKey()));
-                String encryptedUserKey = Crypt.encrypt(appointment.getUser().getUserKey(), AppResources.ENCRYPTION_KEY.value());
                 Map<String, Object> templateKeysAndValues = new HashMap<>();
-                String url = AppResources.APPOINTMENT_CONFIRMATION_URL.value() + "?code=" + Crypt.encrypt(appointment.getAppointmentCode(), ENCRYPTION_KEY.value());
-                templateKeysAndValues.put("fullName", appointment.getUser().getFullName());
+                String url = AppResources.APPOINTMENT_CONFIRMATION_URL.value() + "?code=" + PublicCode.encode(appointmentCode, ENCRYPTION_KEY.value());
+                templateKeysAndValues.put("fullName", fullName);
                 templateKeysAndValues.put("confirmationLink", url);
-                emailTemplateService.send(templateKeysAndValues, appointment.getUser().getEmail(), EmailMessages.get("appointment.subject", language.getLocale()), Template.APPOINTMENT_CONFIRMATION, language.getLocale());
-            } catch (GeneralSecurityException e) {
-                throw new ApiException(Messages.get("ENCRYPTION.FAILED", language), HTTPCustomStatus.UNAUTHORIZED);
+                emailTemplateService.send(templateKeysAndValues, email, EmailMessages.get("appointment.subject", language.getLocale()), Template.APPOINTMENT_CONFIRMATION, language.getLocale());
+            } catch (Exception e) {
+                LOG.error("The confirmation of a promoted appointment could not be sent.", e);
+            }
+        };
+
+        executeAfterCommit(notification, ExecutorsProvider.getExecutorService());
+    }
+
+    /**
+     * Runs the task on the executor once the current transaction commits, right away outside of a transaction.
+     * Nothing runs if the transaction rolls back.
+     */
+    static void executeAfterCommit(Runnable task, Executor executor) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            executor.execute(task);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                executor.execute(task);
             }
         });
+    }
 
-        appointmentRepository.deleteByAppointmentCode(appointmentCode);
+    /**
+     * Writes the appointment at once, so that an accepted appointment overlapping another one of the unit,
+     * booked by this node or by another one, is refused by the database here and reported as a taken slot.
+     * The transaction rolls back, which drops the schedules it booked from the {@link AvailabilityIndex},
+     * so that a new attempt sees the booking of the other node and waits for the slot as pending.
+     */
+    private void saveBooking(Appointment appointment, Language language) {
+        try {
+            appointmentRepository.saveAndFlush(appointment);
+        } catch (DataIntegrityViolationException e) {
+            if (!isExclusionViolation(e)) {
+                throw e;
+            }
+            throw new ApiException(Messages.get("APPOINTMENT.SLOT.TAKEN", language), HTTPCustomStatus.BUSINESS_VALIDATION_ERROR);
+        }
+    }
+
+    private static boolean isExclusionViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void checkTime(Appointment appointment, Language language) {
+        if (appointment.getDate() == null || appointment.getStartTime() == null || appointment.getEndTime() == null
+                || !appointment.getStartTime().isBefore(appointment.getEndTime())) {
+            throw new ApiException(Messages.get("APPOINTMENT.INVALID.TIME", language), HTTPCustomStatus.BUSINESS_VALIDATION_ERROR);
+        }
     }
 
 }
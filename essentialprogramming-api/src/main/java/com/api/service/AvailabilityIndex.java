@@ -0,0 +1,443 @@
+package com.api.service;
+
+import com.api.entities.Appointment;
+import com.api.entities.BusinessUnit;
+import com.api.entities.ServiceDetail;
+import com.api.entities.enums.AppointmentStatus;
+import com.api.repository.AppointmentRepository;
+import com.config.spring.ExecutorsProvider;
+import com.util.cache.ExpiringCache;
+import com.util.cache.ShardedExpiringMap;
+import com.util.cloud.DeploymentConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Booked time of the business units, per unit and date, so that finding a free unit for an appointment or the free
+ * slots of a service checks a bitmap per candidate unit instead of loading the appointments of every unit.
+ * <p/>
+ * A {@link DaySchedule} is loaded from the accepted appointments of a unit on a date the first time it is needed,
+ * then kept up to date by the appointment service on create, update and delete.
+ * Schedules that are not cached are left alone by these updates, they are loaded from the database when needed.
+ * Schedules are kept in a {@link ShardedExpiringMap}, so lookups of different units rarely share a lock.
+ * Schedules expire after AVAILABILITY_CACHE_TTL_SECONDS (300) so that changes made by other nodes are picked up,
+ * and the change a transaction makes to a schedule is undone if it rolls back, leaving the bookings of other
+ * transactions on the schedule in place.
+ * <p/>
+ * A {@link SlotHold} books its interval like an accepted appointment until it is claimed or expires.
+ * Holds only live in memory: they are booked again on every schedule loaded from the database,
+ * and expired holds are released by the first lookup after their expiry.
+ */
+@Component
+public class AvailabilityIndex {
+
+    private static final int CACHE_SIZE = DeploymentConfiguration.getProperty("AVAILABILITY_CACHE_SIZE", 50_000);
+    private static final long CACHE_TTL = DeploymentConfiguration.getProperty("AVAILABILITY_CACHE_TTL_SECONDS", 300) * 1000L;
+    // every lookup reads one schedule per unit and day, shards keep those reads from contending on one lock
+    private static final int CACHE_SHARDS = 64;
+    private static final long CACHE_TICK_MILLIS = 1000;
+    static final long HOLD_TTL = DeploymentConfiguration.getProperty("SLOT_HOLD_TTL_SECONDS", 120) * 1000L;
+
+    private static final int SLOT_TEMPLATE_CACHE_SIZE = 1_000;
+    // unit schedules handled by one fork join task, each takes about a microsecond
+    private static final int SCHEDULES_PER_TASK = 256;
+
+    private final ShardedExpiringMap<UnitDate, DaySchedule> schedules = new ShardedExpiringMap<>(CACHE_SHARDS, CACHE_SIZE, CACHE_TTL, CACHE_TICK_MILLIS);
+    private final ExpiringCache<Long, SlotTemplate> slotTemplates = new ExpiringCache<>(SLOT_TEMPLATE_CACHE_SIZE, CACHE_TTL);
+    private final ConcurrentMap<String, SlotHold> holds = new ConcurrentHashMap<>();
+    private final Object holdLock = new Object();
+    private volatile long nextHoldExpiry = Long.MAX_VALUE;
+
+    private final AppointmentRepository appointmentRepository;
+
+    @Autowired
+    public AvailabilityIndex(AppointmentRepository appointmentRepository) {
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    /**
+     * First unit, in the given order, that is free for the whole interval, without booking it.
+     *
+     * @return the unit, empty if none is free
+     */
+    public Optional<BusinessUnit> freeUnit(List<BusinessUnit> units, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        expireHolds();
+        DaySchedule[] unitSchedules = schedules(units, Collections.singletonList(date))[0];
+        for (int i = 0; i < units.size(); i++) {
+            DaySchedule schedule = unitSchedules[i];
+            synchronized (schedule) {
+                if (schedule.isFree(startTime, endTime)) {
+                    return Optional.of(units.get(i));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Books the interval on the first unit, in the given order, that is free for the whole interval.
+     *
+     * @return the unit booked, empty if none is free
+     */
+    public Optional<BusinessUnit> bookFreeUnit(List<BusinessUnit> units, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        expireHolds();
+        DaySchedule[] unitSchedules = schedules(units, Collections.singletonList(date))[0];
+        for (int i = 0; i < units.size(); i++) {
+            DaySchedule schedule = unitSchedules[i];
+            synchronized (schedule) {
+                if (schedule.isFree(startTime, endTime)) {
+                    schedule.book(startTime, endTime);
+                    undoOnRollback(new UnitDate(units.get(i).getId(), date), schedule, startTime, endTime, true);
+                    return Optional.of(units.get(i));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Books the interval on the unit if it is free for the whole interval.
+     *
+     * @return false if the unit is not free
+     */
+    public boolean tryBook(BusinessUnit unit, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        return bookFreeUnit(Collections.singletonList(unit), date, startTime, endTime).isPresent();
+    }
+
+    /**
+     * Start times of the slots of the service that at least one of the units has free on the date, in order.
+     */
+    public List<LocalTime> freeSlots(List<BusinessUnit> units, LocalDate date, ServiceDetail serviceDetail) {
+        expireHolds();
+        SlotTemplate template = slotTemplate(serviceDetail);
+        long[] freeSlots = new long[DaySchedule.WORDS];
+        for (DaySchedule schedule : schedules(units, Collections.singletonList(date))[0]) {
+            synchronized (schedule) {
+                schedule.addFreeSlots(template, freeSlots);
+            }
+            if (Arrays.equals(freeSlots, template.slotStarts())) {
+                break;
+            }
+        }
+        return SlotTemplate.startTimes(freeSlots);
+    }
+
+    /**
+     * Free slots of the service on each of the dates, computed like {@link #freeSlots(List, LocalDate, ServiceDetail)}
+     * with the schedules missing from the cache loaded in one query for the whole range.
+     * Large ranges are split by unit on the fork join pool.
+     */
+    public Map<LocalDate, List<LocalTime>> freeSlots(List<BusinessUnit> units, List<LocalDate> dates, ServiceDetail serviceDetail) {
+        expireHolds();
+        SlotTemplate template = slotTemplate(serviceDetail);
+        DaySchedule[][] unitSchedules = schedules(units, dates);
+        FreeSlotsTask task = new FreeSlotsTask(template, unitSchedules, 0, units.size());
+        long[][] freeSlots = unitSchedules.length * units.size() > SCHEDULES_PER_TASK
+                ? ExecutorsProvider.getForkJoinPool().invoke(task)
+                : task.compute();
+
+        Map<LocalDate, List<LocalTime>> slotsByDate = new LinkedHashMap<>();
+        for (int day = 0; day < freeSlots.length; day++) {
+            slotsByDate.put(dates.get(day), SlotTemplate.startTimes(freeSlots[day]));
+        }
+        return slotsByDate;
+    }
+
+    /**
+     * Holds the interval on the first unit, in the given order, that is free for the whole interval,
+     * for SLOT_HOLD_TTL_SECONDS (120).
+     *
+     * @return the hold, empty if no unit is free
+     */
+    public Optional<SlotHold> hold(String owner, int businessServiceId, List<BusinessUnit> units,
+                                   LocalDate date, LocalTime startTime, LocalTime endTime) {
+        return bookFreeUnit(units, date, startTime, endTime).map(unit -> {
+            SlotHold hold = new SlotHold(UUID.randomUUID().toString(), owner, businessServiceId, unit.getId(), unit.getBusinessUnitCode(),
+                    date, startTime, endTime, System.currentTimeMillis() + HOLD_TTL);
+            holds.put(hold.getCode(), hold);
+            synchronized (holdLock) {
+                nextHoldExpiry = Math.min(nextHoldExpiry, hold.getExpiresAt());
+            }
+            return hold;
+        });
+    }
+
+    /**
+     * Unit of an unexpired hold.
+     *
+     * @return the id of the unit, empty if the hold is unknown or expired
+     */
+    public Optional<Integer> heldUnit(String code) {
+        SlotHold hold = holds.get(code);
+        if (hold == null || hold.getExpiresAt() <= System.currentTimeMillis()) {
+            return Optional.empty();
+        }
+        return Optional.of(hold.getUnitId());
+    }
+
+    /**
+     * Takes the hold for the appointment booking its interval: the interval stays booked on the unit, so the
+     * appointment needs no other availability check. The interval is released if the transaction rolls back.
+     *
+     * @return the hold, empty if it is unknown, expired, owned by someone else or for another interval
+     */
+    public Optional<SlotHold> claim(String code, String owner, int businessServiceId,
+                                    LocalDate date, LocalTime startTime, LocalTime endTime) {
+        SlotHold hold = holds.get(code);
+        if (hold == null || hold.getExpiresAt() <= System.currentTimeMillis() || !hold.getOwner().equals(owner)
+                || !hold.matches(businessServiceId, date, startTime, endTime) || !holds.remove(code, hold)) {
+            return Optional.empty();
+        }
+        UnitDate key = new UnitDate(hold.getUnitId(), hold.getDate());
+        DaySchedule schedule = schedules.get(key);
+        if (schedule != null) {
+            undoOnRollback(key, schedule, startTime, endTime, true);
+        }
+        return Optional.of(hold);
+    }
+
+    /**
+     * Books the interval of an accepted appointment, whether the unit is free or not.
+     */
+    public void book(Appointment appointment) {
+        UnitDate key = new UnitDate(appointment.getBusinessUnit().getId(), appointment.getDate());
+        DaySchedule schedule = schedules.get(key);
+        if (schedule == null) {
+            return;
+        }
+        synchronized (schedule) {
+            schedule.book(appointment.getStartTime(), appointment.getEndTime());
+        }
+        undoOnRollback(key, schedule, appointment.getStartTime(), appointment.getEndTime(), true);
+    }
+
+    /**
+     * Releases the interval of an accepted appointment, to be called before its date or time is changed.
+     */
+    public void release(Appointment appointment) {
+        UnitDate key = new UnitDate(appointment.getBusinessUnit().getId(), appointment.getDate());
+        DaySchedule schedule = schedules.get(key);
+        if (schedule == null) {
+            return;
+        }
+        synchronized (schedule) {
+            schedule.release(appointment.getStartTime(), appointment.getEndTime());
+        }
+        undoOnRollback(key, schedule, appointment.getStartTime(), appointment.getEndTime(), false);
+    }
+
+    /**
+     * Schedules of the units on the dates, indexed by date then unit in the given orders,
+     * loading the ones not cached in one query.
+     */
+    private DaySchedule[][] schedules(List<BusinessUnit> units, List<LocalDate> dates) {
+        DaySchedule[][] unitSchedules = new DaySchedule[dates.size()][units.size()];
+        Map<UnitDate, DaySchedule> loaded = new HashMap<>();
+        Map<Integer, BusinessUnit> missingUnits = new HashMap<>();
+        Set<LocalDate> missingDates = new HashSet<>();
+        for (int day = 0; day < unitSchedules.length; day++) {
+            for (int i = 0; i < units.size(); i++) {
+                BusinessUnit unit = units.get(i);
+                UnitDate key = new UnitDate(unit.getId(), dates.get(day));
+                unitSchedules[day][i] = schedules.get(key);
+                if (unitSchedules[day][i] == null) {
+                    loaded.put(key, new DaySchedule());
+                    missingUnits.put(unit.getId(), unit);
+                    missingDates.add(key.date);
+                }
+            }
+        }
+        if (loaded.isEmpty()) {
+            return unitSchedules;
+        }
+        // the query may return unit and date pairs that are cached, they are left out
+        appointmentRepository.findAllByBusinessUnitInAndDateInAndStatus(missingUnits.values(), missingDates, AppointmentStatus.ACCEPTED)
+                .forEach(appointment -> {
+                    DaySchedule schedule = loaded.get(new UnitDate(appointment.getBusinessUnit().getId(), appointment.getDate()));
+                    if (schedule != null) {
+                        schedule.book(appointment.getStartTime(), appointment.getEndTime());
+                    }
+                });
+        for (SlotHold hold : holds.values()) {
+            DaySchedule schedule = loaded.get(new UnitDate(hold.getUnitId(), hold.getDate()));
+            if (schedule != null) {
+                schedule.book(hold.getStartTime(), hold.getEndTime());
+            }
+        }
+        // a schedule loaded concurrently may already hold bookings, keep it;
+        // when the shard of the schedule is full it is used for this call only
+        for (int day = 0; day < unitSchedules.length; day++) {
+            for (int i = 0; i < units.size(); i++) {
+                if (unitSchedules[day][i] == null) {
+                    UnitDate key = new UnitDate(units.get(i).getId(), dates.get(day));
+                    DaySchedule schedule = loaded.get(key);
+                    if (!schedules.putIfAbsent(key, schedule)) {
+                        DaySchedule cached = schedules.get(key);
+                        if (cached != null) {
+                            schedule = cached;
+                        }
+                    }
+                    unitSchedules[day][i] = schedule;
+                }
+            }
+        }
+        return unitSchedules;
+    }
+
+    private SlotTemplate slotTemplate(ServiceDetail serviceDetail) {
+        long key = SlotTemplate.key(serviceDetail.getStartTime(), serviceDetail.getEndTime(), serviceDetail.getDuration());
+        SlotTemplate template = slotTemplates.get(key);
+        if (template == null) {
+            template = SlotTemplate.of(serviceDetail.getStartTime(), serviceDetail.getEndTime(), serviceDetail.getDuration());
+            slotTemplates.put(key, template);
+        }
+        return template;
+    }
+
+    /**
+     * Releases the holds that expired without being claimed, skipped until the earliest one expires.
+     */
+    private void expireHolds() {
+        long now = System.currentTimeMillis();
+        if (now < nextHoldExpiry) {
+            return;
+        }
+        synchronized (holdLock) {
+            long next = Long.MAX_VALUE;
+            for (SlotHold hold : holds.values()) {
+                if (hold.getExpiresAt() > now) {
+                    next = Math.min(next, hold.getExpiresAt());
+                } else if (holds.remove(hold.getCode(), hold)) {
+                    DaySchedule schedule = schedules.get(new UnitDate(hold.getUnitId(), hold.getDate()));
+                    if (schedule != null) {
+                        synchronized (schedule) {
+                            schedule.release(hold.getStartTime(), hold.getEndTime());
+                        }
+                    }
+                }
+            }
+            nextHoldExpiry = next;
+        }
+    }
+
+    /**
+     * Releases the interval booked, or books again the interval released, if the transaction rolls back.
+     * Only the interval of the transaction is undone: other lanes may have uncommitted bookings in the schedule,
+     * a schedule reloaded from the database would lose them.
+     */
+    private void undoOnRollback(UnitDate key, DaySchedule schedule, LocalTime startTime, LocalTime endTime, boolean booked) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                // a schedule loaded since then never had the change
+                if (status == STATUS_COMMITTED || schedules.get(key) != schedule) {
+                    return;
+                }
+                synchronized (schedule) {
+                    if (booked) {
+                        schedule.release(startTime, endTime);
+                    } else {
+                        schedule.book(startTime, endTime);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Free slots of a range of units, for every date, as one bitmap per date.
+     */
+    private static final class FreeSlotsTask extends RecursiveTask<long[][]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient SlotTemplate template;
+        private final transient DaySchedule[][] unitSchedules;
+        private final int fromUnit;
+        private final int toUnit;
+
+        private FreeSlotsTask(SlotTemplate template, DaySchedule[][] unitSchedules, int fromUnit, int toUnit) {
+            this.template = template;
+            this.unitSchedules = unitSchedules;
+            this.fromUnit = fromUnit;
+            this.toUnit = toUnit;
+        }
+
+        @Override
+        protected long[][] compute() {
+            int units = toUnit - fromUnit;
+            if (units > 1 && units * unitSchedules.length > SCHEDULES_PER_TASK) {
+                int middle = fromUnit + units / 2;
+                FreeSlotsTask first = new FreeSlotsTask(template, unitSchedules, fromUnit, middle);
+                first.fork();
+                long[][] freeSlots = new FreeSlotsTask(template, unitSchedules, middle, toUnit).compute();
+                long[][] firstFreeSlots = first.join();
+                for (int day = 0; day < freeSlots.length; day++) {
+                    for (int word = 0; word < DaySchedule.WORDS; word++) {
+                        freeSlots[day][word] |= firstFreeSlots[day][word];
+                    }
+                }
+                return freeSlots;
+            }
+            long[][] freeSlots = new long[unitSchedules.length][DaySchedule.WORDS];
+            for (int day = 0; day < unitSchedules.length; day++) {
+                for (int unit = fromUnit; unit < toUnit; unit++) {
+                    DaySchedule schedule = unitSchedules[day][unit];
+                    synchronized (schedule) {
+                        schedule.addFreeSlots(template, freeSlots[day]);
+                    }
+                }
+            }
+            return freeSlots;
+        }
+    }
+
+    private static final class UnitDate {
+        private final int unitId;
+        private final LocalDate date;
+
+        private UnitDate(int unitId, LocalDate date) {
+            this.unitId = unitId;
+            this.date = date;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof UnitDate)) {
+                return false;
+            }
+            UnitDate other = (UnitDate) o;
+            return unitId == other.unitId && Objects.equals(date, other.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(unitId, date);
+        }
+    }
+}
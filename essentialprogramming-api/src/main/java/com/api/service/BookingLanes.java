@@ -0,0 +1,82 @@
+package com.api.service;
+
+import com.util.async.SerialLanes;
+import com.util.cloud.DeploymentConfiguration;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Single writer lane per business unit for the commands that book time on the unit.
+ * <p/>
+ * The availability check and the insert of a booking, up to its commit, run in the lane of the unit, so two
+ * bookings of a unit never interleave while bookings of different units run in parallel.
+ * A unit picked by the server is picked before the booking is queued, and the booking runs in the lane of that unit.
+ * Lanes run on their own BOOKING_LANE_THREADS (8) threads, never on the request executor, so a request waiting
+ * for its lane never holds a thread the lane needs.
+ */
+@Component
+public class BookingLanes {
+
+    private static final int THREADS = DeploymentConfiguration.getProperty("BOOKING_LANE_THREADS", 8);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    private final SerialLanes<Lane> lanes = new SerialLanes<>(executor);
+
+    /**
+     * Lane of the bookings of a unit.
+     */
+    public static Lane unit(int businessUnitId) {
+        return new Lane(businessUnitId);
+    }
+
+    /**
+     * Runs the command in the lane and waits for it, rethrowing what the command threw.
+     */
+    public <T> T execute(Lane lane, Callable<T> command) throws Exception {
+        try {
+            return lanes.submit(lane, command).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdown();
+    }
+
+    public static final class Lane {
+        private final int businessUnitId;
+
+        private Lane(int businessUnitId) {
+            this.businessUnitId = businessUnitId;
+        }
+
+        public int getBusinessUnitId() {
+            return businessUnitId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Lane && ((Lane) o).businessUnitId == businessUnitId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Integer.hashCode(businessUnitId);
+        }
+    }
+}
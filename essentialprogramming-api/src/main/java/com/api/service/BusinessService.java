@@ -10,11 +10,11 @@ import com.api.mapper.CountryMapper;
 import com.api.mapper.StateMapper;
 import com.api.output.BusinessJSON;
 import com.api.repository.*;
-import com.crypto.Crypt;
 import com.email.EmailTemplateService;
 import com.email.Template;
 import com.internationalization.EmailMessages;
 import com.internationalization.Messages;
+import com.util.code.EntityCode;
 import com.util.enums.HTTPCustomStatus;
 import com.util.enums.Language;
 import com.util.exceptions.ApiException;
@@ -30,8 +30,6 @@ import java.security.GeneralSecurityException;
 import java.time.LocalDateTime;
 import java.util.*;
 
-import static com.resources.AppResources.ENCRYPTION_KEY;
-
 @Service
 public class BusinessService {
 
@@ -44,6 +42,7 @@ public class BusinessService {
     private final BusinessUsersRepository businessUsersRepository;
     private final CountryRepository countryRepository;
     private final StateRepository stateRepository;
+    private final CodeResolver codeResolver;
 
     @Autowired
     public BusinessService(UserRepository userRepository, AddressRepository addressRepository,
@@ -51,7 +50,8 @@ public class BusinessService {
                            BusinessHistoryRepository businessHistoryRepository,
                            EmailTemplateService emailTemplateService, BusinessUsersRepository businessUsersRepository,
                            CountryRepository countryRepository,
-                           StateRepository stateRepository) {
+                           StateRepository stateRepository,
+                           CodeResolver codeResolver) {
         this.userRepository = userRepository;
         this.addressRepository = addressRepository;
         this.addressHistoryRepository = addressHistoryRepository;
@@ -61,6 +61,7 @@ public class BusinessService {
         this.businessUsersRepository = businessUsersRepository;
         this.countryRepository = countryRepository;
         this.stateRepository = stateRepository;
+        this.codeResolver = codeResolver;
     }
 
     @Transactional
@@ -103,7 +104,7 @@ public class BusinessService {
         business.setCreatedDate(now);
         business.setAddress(address);
         business.setValidated(true);
-        business.setBusinessCode(getComplexUUID());
+        business.setBusinessCode(EntityCode.generate());
 
         //save business
         BusinessHistory businessHistory = BusinessMapper.businessToHistory(business);
@@ -126,10 +127,6 @@ public class BusinessService {
         return business;
     }
 
-    private String getComplexUUID() {
-        return UUID.randomUUID().toString() + UUID.randomUUID().toString();
-    }
-
     @Transactional
     public void update(String email, BusinessInput businessInput, Language language) throws ApiException {
         User user = userRepository.findByEmail(email).orElseThrow(
@@ -231,15 +228,16 @@ public class BusinessService {
 
     @Transactional
     public Serializable loadDetails(final String code, Language language, int version) throws ApiException, GeneralSecurityException {
-        final String businessCode;
         final boolean encrypted = (version == 0);
 
         if (StringUtils.isEmpty(code)) {
             throw new ApiException(Messages.get("MISSING_BUSINESS_CODE", Language.ENGLISH), HTTPCustomStatus.INVALID_REQUEST);
         }
 
-        businessCode = encrypted ? Crypt.decrypt(code, ENCRYPTION_KEY.value()) : code;
-        Business business = businessRepository.findByBusinessCodeAndDeleted(businessCode, false).orElseThrow(
+        Optional<Business> found = encrypted
+                ? codeResolver.findBusiness(code).filter(business -> !business.isDeleted())
+                : businessRepository.findByBusinessCodeAndDeleted(EntityCode.parse(code), false);
+        Business business = found.orElseThrow(
                 () -> new ApiException(Messages.get("BUSINESS.NOT.FOUND", language), HTTPCustomStatus.BUSINESS_EXCEPTION)
         );
 
@@ -2,18 +2,21 @@ package com.api.service;
 
 import com.api.entities.*;
 import com.api.entities.BusinessService;
+import com.api.entities.enums.Day;
 import com.api.input.*;
 import com.api.mapper.*;
 import com.api.output.BusinessServiceJSON;
 import com.api.output.UserJSON;
 import com.api.repository.*;
-import com.crypto.Crypt;
 import com.crypto.PasswordHash;
+import com.crypto.PublicCode;
 import com.email.EmailTemplateService;
 import com.email.Template;
 import com.internationalization.EmailMessages;
 import com.internationalization.Messages;
 import com.resources.AppResources;
+import com.util.cloud.DeploymentConfiguration;
+import com.util.code.EntityCode;
 import com.util.enums.HTTPCustomStatus;
 import com.util.enums.Language;
 import com.util.exceptions.ApiException;
@@ -28,6 +31,8 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -42,7 +47,10 @@ public class BusinessServiceService {
     private BusinessServiceRepository businessServiceRepository;
     private BusinessUsersRepository businessUsersRepository;
     private BusinessUnitRepository businessUnitRepository;
+    private CodeResolver codeResolver;
+    private AvailabilityIndex availabilityIndex;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final int SCHEDULE_RANGE_MAXIMUM_DAYS = DeploymentConfiguration.getProperty("SCHEDULE_RANGE_MAXIMUM_DAYS", 62);
 
     private static final Logger LOG = LoggerFactory.getLogger(BusinessServiceService.class);
     private final EmailTemplateService emailTemplateService;
@@ -55,7 +63,8 @@ public class BusinessServiceService {
                                   ServiceDetailRepository serviceDetailRepository,
                                   BusinessServiceRepository businessServiceRepository,
                                   BusinessUsersRepository businessUsersRepository,
-                                  BusinessUnitRepository businessUnitRepository, EmailTemplateService emailTemplateService) {
+                                  BusinessUnitRepository businessUnitRepository, EmailTemplateService emailTemplateService,
+                                  CodeResolver codeResolver, AvailabilityIndex availabilityIndex) {
         this.businessRepository = businessRepository;
         this.userRepository = userRepository;
         this.serviceDetailRepository = serviceDetailRepository;
@@ -63,15 +72,14 @@ public class BusinessServiceService {
         this.businessUsersRepository = businessUsersRepository;
         this.businessUnitRepository = businessUnitRepository;
         this.emailTemplateService = emailTemplateService;
+        this.codeResolver = codeResolver;
+        this.availabilityIndex = availabilityIndex;
     }
 
     @Transactional
     public void save(String email, BusinessServiceInput businessServiceInput, Language language) throws GeneralSecurityException {
 
-        String businessCode = businessServiceInput.getBusinessCode();
-        businessCode = Crypt.decrypt(businessCode, ENCRYPTION_KEY.value());
-
-        Business business = businessRepository.findByBusinessCode(businessCode).orElseThrow(
+        Business business = codeResolver.findBusiness(businessServiceInput.getBusinessCode()).orElseThrow(
                 () -> new ApiException(Messages.get("BUSINESS.SERVICE.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
         );
 
@@ -82,20 +90,14 @@ public class BusinessServiceService {
         BusinessService businessService = BusinessServiceMapper.inputToBusinessService(businessServiceInput);
         businessService.setBusiness(business);
         businessService.setServiceDetail(serviceDetail);
-        businessService.setBusinessServiceCode(getComplexUUID());
+        businessService.setBusinessServiceCode(EntityCode.generate());
 
         businessServiceRepository.save(businessService);
     }
 
-    private String getComplexUUID() {
-        return UUID.randomUUID().toString() + UUID.randomUUID().toString();
-    }
-
     @Transactional
     public void update(String code, BusinessServiceUpdateInput businessServiceInput, Language language) throws GeneralSecurityException {
-        code = Crypt.decrypt(code, ENCRYPTION_KEY.value());
-
-        BusinessService businessService = businessServiceRepository.findByBusinessServiceCode(code).orElseThrow(
+        BusinessService businessService = codeResolver.findBusinessService(code).orElseThrow(
                 () -> new ApiException(Messages.get("BUSINESS.SERVICE.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
         );
 
@@ -120,9 +122,7 @@ public class BusinessServiceService {
 
     @Transactional
     public List<BusinessServiceJSON> load(String code, Language language) throws GeneralSecurityException {
-        code = Crypt.decrypt(code, ENCRYPTION_KEY.value());
-
-        Business business = businessRepository.findByBusinessCode(code).orElseThrow(
+        Business business = codeResolver.findBusiness(code).orElseThrow(
                 () -> new ApiException(Messages.get("BUSINESS.SERVICE.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
         );
 
@@ -144,18 +144,17 @@ public class BusinessServiceService {
     @Transactional
     public void delete(String businessServiceCode, Language language) throws GeneralSecurityException {
 
-        businessServiceCode = Crypt.decrypt(businessServiceCode, ENCRYPTION_KEY.value());
-
-        businessServiceRepository.deleteByBusinessServiceCode(businessServiceCode);
+        codeResolver.findBusinessService(businessServiceCode).ifPresent(businessService -> {
+            businessServiceRepository.delete(businessService);
+            codeResolver.evictBusinessService(businessServiceCode);
+        });
     }
 
 
     @Transactional
     public Set<LocalTime> getSchedule(BusinessServiceScheduleInput businessServiceInput, Language language) throws GeneralSecurityException {
 
-        String businessServiceCode = Crypt.decrypt(businessServiceInput.getBusinessCode(), ENCRYPTION_KEY.value());
-
-        BusinessService businessService = businessServiceRepository.findByBusinessServiceCode(businessServiceCode).orElseThrow(() -> new ApiException(Messages.get("BUSINESS.SERVICE.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED));
+        BusinessService businessService = codeResolver.findBusinessService(businessServiceInput.getBusinessCode()).orElseThrow(() -> new ApiException(Messages.get("BUSINESS.SERVICE.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED));
 
         ServiceDetail serviceDetail = businessService.getServiceDetail();
 
@@ -163,49 +162,50 @@ public class BusinessServiceService {
 
         List<BusinessUnit> businessUnits = businessService.getUnitsPerformingService();
 
-        Set<LocalTime> availableTime = new HashSet<>();
-
-        for (BusinessUnit businessUnit : businessUnits) {
-            availableTime.addAll(getScheduleForBusinessUnit(businessUnit, serviceDetail, date));
-        }
-
-        return availableTime.stream().sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+        return new LinkedHashSet<>(availabilityIndex.freeSlots(businessUnits, date, serviceDetail));
     }
 
+    /**
+     * Free slots of the service on every date of the range, both ends included.
+     * Dates on which the service is not offered are returned with no slot.
+     */
+    @Transactional
+    public Map<LocalDate, List<LocalTime>> getScheduleRange(BusinessServiceScheduleRangeInput scheduleInput, Language language) throws GeneralSecurityException {
 
-    private List<LocalTime> getScheduleForBusinessUnit(BusinessUnit businessUnit, ServiceDetail serviceDetail, LocalDate date) {
-        List<Appointment> appointments = businessUnit.getAppointments();
-        appointments = appointments.stream()
-                .filter(appointment -> date.equals(appointment.getDate()))
-                .collect(Collectors.toList());
+        BusinessService businessService = codeResolver.findBusinessService(scheduleInput.getBusinessServiceCode()).orElseThrow(() -> new ApiException(Messages.get("BUSINESS.SERVICE.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED));
 
-        List<LocalTime> times = new ArrayList<>();
+        ServiceDetail serviceDetail = businessService.getServiceDetail();
 
-        LocalTime currentTime = serviceDetail.getStartTime();
-        LocalTime endTime = serviceDetail.getEndTime();
-        while (currentTime.isBefore(endTime)) {
-            times.add(currentTime);
-            currentTime = currentTime.plusMinutes(serviceDetail.getDuration());
+        if (scheduleInput.getFrom() == null || scheduleInput.getTo() == null) {
+            throw invalidScheduleRange(language);
+        }
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = LocalDate.parse(scheduleInput.getFrom(), DATE_FORMATTER);
+            to = LocalDate.parse(scheduleInput.getTo(), DATE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw invalidScheduleRange(language);
+        }
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= SCHEDULE_RANGE_MAXIMUM_DAYS) {
+            throw invalidScheduleRange(language);
         }
 
-        Set<LocalTime> timeSet = new HashSet<>();
-
-        for (Appointment appointment : appointments) {
-            LocalTime startTime = appointment.getStartTime();
-            endTime = appointment.getEndTime();
-            for (LocalTime time : times) {
-                if ((time.isAfter(startTime) || time.equals(startTime)) && time.isBefore(endTime)) {
-                    timeSet.add(time);
-                }
-                LocalTime time1 = time.plusMinutes(serviceDetail.getDuration());
-                if ((time1.isAfter(startTime) || time1.equals(startTime)) && time1.isBefore(endTime)) {
-                    timeSet.add(time);
-                }
+        Map<LocalDate, List<LocalTime>> schedule = new LinkedHashMap<>();
+        List<LocalDate> offeredDates = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            schedule.put(date, Collections.emptyList());
+            if (serviceDetail.getDay().contains(Day.values()[date.getDayOfWeek().getValue() - 1])) {
+                offeredDates.add(date);
             }
         }
 
-        times.removeAll(timeSet);
-        return times;
+        schedule.putAll(availabilityIndex.freeSlots(businessService.getUnitsPerformingService(), offeredDates, serviceDetail));
+        return schedule;
+    }
+
+    private static ApiException invalidScheduleRange(Language language) {
+        return new ApiException(Messages.get("SCHEDULE.RANGE.INVALID", language), HTTPCustomStatus.BUSINESS_VALIDATION_ERROR);
     }
 
     @Transactional
@@ -219,7 +219,7 @@ public class BusinessServiceService {
 
         businessUsers.getBusiness().addBusinessUnit(businessUnit);
         for (String businessServiceCode : employeeInput.getBusinessServiceCodes()) {
-            Optional<BusinessService> foundBusinessService = businessServiceRepository.findByBusinessServiceCode(businessServiceCode);
+            Optional<BusinessService> foundBusinessService = businessServiceRepository.findByBusinessServiceCode(EntityCode.parse(businessServiceCode));
             foundBusinessService.ifPresent(businessService -> businessService.addBusinessUnit(businessUnit));
         }
 
@@ -232,7 +232,7 @@ public class BusinessServiceService {
             businessUnit.setName(employeeInput.getFirstName() + " " + employeeInput.getLastName());
             businessUnit.setBusiness(business);
             businessUnit.setBusinessOwnerEmail(email);
-            businessUnit.setBusinessUnitCode(getComplexUUID());
+            businessUnit.setBusinessUnitCode(EntityCode.generate());
             businessUnit.setUser(user);
             businessUnitRepository.save(businessUnit);
         }
@@ -261,7 +261,7 @@ public class BusinessServiceService {
             // send email for user to set password
             try {
                 Map<String, Object> templateKeysAndValues = new HashMap<>();
-                String url = AppResources.ACCOUNT_PASSWORD_URL.value() + "?key=" + Crypt.encrypt(user.getUserKey(), ENCRYPTION_KEY.value());
+                String url = AppResources.ACCOUNT_PASSWORD_URL.value() + "?key=" + PublicCode.encode(user.getUserKey(), ENCRYPTION_KEY.value());
                 templateKeysAndValues.put("fullName", user.getFullName());
                 templateKeysAndValues.put("confirmationLink", url);
                 emailTemplateService.send(templateKeysAndValues, user.getEmail(), EmailMessages.get("create.account.subject", language.getLocale()), Template.CREATE_ACCOUNT, language.getLocale());
@@ -277,7 +277,7 @@ public class BusinessServiceService {
 
     @Transactional
     public void updateEmployeePassword(String userKey, String password, Language language) throws GeneralSecurityException {
-        userKey  = Crypt.decrypt(userKey, ENCRYPTION_KEY.value());
+        userKey  = PublicCode.decode(userKey, ENCRYPTION_KEY.value());
 
         User user = userRepository.findByUserKey(userKey).orElseThrow(
                 () -> new ApiException(Messages.get("USER.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
@@ -306,14 +306,10 @@ public class BusinessServiceService {
     @Transactional
     public void addBusinessUnit(BusinessUnitServiceInput businessServiceInput, Language language) throws GeneralSecurityException {
 
-        String businessServiceCode = Crypt.decrypt(businessServiceInput.getBusinessServiceCode(), ENCRYPTION_KEY.value());
-        String businessUnitCode = Crypt.decrypt(businessServiceInput.getBusinessUnitCode(), ENCRYPTION_KEY.value());
-
-
-        BusinessService businessService = this.businessServiceRepository.findByBusinessServiceCode(businessServiceCode)
+        BusinessService businessService = this.codeResolver.findBusinessService(businessServiceInput.getBusinessServiceCode())
                 .orElseThrow(() -> new ApiException(Messages.get("BUSINESS.SERVICE.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
                 );
-        BusinessUnit businessUnit = this.businessUnitRepository.findByBusinessUnitCode(businessUnitCode)
+        BusinessUnit businessUnit = this.codeResolver.findBusinessUnit(businessServiceInput.getBusinessUnitCode())
                 .orElseThrow(() -> new ApiException(Messages.get("BUSINESS.UNIT.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED));
 
 
@@ -11,8 +11,8 @@ import com.api.output.BusinessServiceJSON;
 import com.api.output.BusinessUnitJSON;
 import com.api.repository.BusinessRepository;
 import com.api.repository.BusinessUnitRepository;
-import com.crypto.Crypt;
 import com.internationalization.Messages;
+import com.util.code.EntityCode;
 import com.util.enums.HTTPCustomStatus;
 import com.util.enums.Language;
 import com.util.exceptions.ApiException;
@@ -23,38 +23,34 @@ import org.springframework.transaction.annotation.Transactional;
 import java.security.GeneralSecurityException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
-
-import static com.resources.AppResources.ENCRYPTION_KEY;
+import java.util.Optional;
 
 @Service
 public class BusinessUnitService {
 
     private BusinessUnitRepository unitRepository;
     private BusinessRepository businessRepository;
+    private CodeResolver codeResolver;
 
 
     @Autowired
     public BusinessUnitService(BusinessUnitRepository initRepo,
-                               BusinessRepository initBusinessRepo
+                               BusinessRepository initBusinessRepo,
+                               CodeResolver initCodeResolver
     ){
         unitRepository = initRepo;
         businessRepository = initBusinessRepo;
+        codeResolver = initCodeResolver;
 
     }
 
-    private String getComplexUUID() {
-        return UUID.randomUUID().toString() + UUID.randomUUID().toString();
-    }
-
     @Transactional
     public void save(String email, BusinessUnitInput businessUnitInput, Language language, int version) throws GeneralSecurityException {
         final boolean encrypted = (version == 0);
 
         String businessCode =businessUnitInput.getBusinessCode();
-        businessCode  = encrypted ? Crypt.decrypt(businessCode, ENCRYPTION_KEY.value()) : businessCode;
 
-        Business business = businessRepository.findByBusinessCode(businessCode).orElseThrow(
+        Business business = findBusiness(businessCode, encrypted).orElseThrow(
                 () -> new ApiException(Messages.get("BUSINESS.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
         );
 
@@ -63,7 +59,7 @@ public class BusinessUnitService {
         BusinessUnit businessUnit = BusinessUnitMapper.inputToBusinessUnit(businessUnitInput);
         businessUnit.setBusiness(business);
         businessUnit.setBusinessOwnerEmail(email);
-        businessUnit.setBusinessUnitCode(getComplexUUID());
+        businessUnit.setBusinessUnitCode(EntityCode.generate());
 
         unitRepository.save(businessUnit);
     }
@@ -72,9 +68,7 @@ public class BusinessUnitService {
     public void update(String code, BusinessUnitInput businessUnitInput, Language language, int version) throws GeneralSecurityException {
         final boolean encrypted = (version == 0);
 
-        code  = encrypted ? Crypt.decrypt(code, ENCRYPTION_KEY.value()) : code;
-
-        BusinessUnit businessUnit = unitRepository.findByBusinessUnitCode(code).orElseThrow(
+        BusinessUnit businessUnit = findBusinessUnit(code, encrypted).orElseThrow(
                 () -> new ApiException(Messages.get("BUSINESSUNIT.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
         );
 
@@ -87,9 +81,7 @@ public class BusinessUnitService {
     public List<BusinessUnitJSON> load(String code, Language language, int version) throws GeneralSecurityException {
         final boolean encrypted = (version == 0);
 
-        code  = encrypted ? Crypt.decrypt(code, ENCRYPTION_KEY.value()) : code;
-
-        Business business = businessRepository.findByBusinessCode(code).orElseThrow(
+        Business business = findBusiness(code, encrypted).orElseThrow(
                 () -> new ApiException(Messages.get("BUSINESS.NOT.EXIST", language), HTTPCustomStatus.UNAUTHORIZED)
         );
 
@@ -108,9 +100,20 @@ public class BusinessUnitService {
 
         final boolean encrypted = (version == 0);
 
-        businessUnitCode  = encrypted ? Crypt.decrypt(businessUnitCode, ENCRYPTION_KEY.value()) : businessUnitCode;
+        findBusinessUnit(businessUnitCode, encrypted).ifPresent(businessUnit -> {
+            unitRepository.delete(businessUnit);
+            if (encrypted) {
+                codeResolver.evictBusinessUnit(businessUnitCode);
+            }
+        });
+    }
+
+    private Optional<Business> findBusiness(String code, boolean encrypted) throws GeneralSecurityException {
+        return encrypted ? codeResolver.findBusiness(code) : businessRepository.findByBusinessCode(EntityCode.parse(code));
+    }
 
-        unitRepository.deleteByBusinessUnitCode(businessUnitCode);
+    private Optional<BusinessUnit> findBusinessUnit(String code, boolean encrypted) throws GeneralSecurityException {
+        return encrypted ? codeResolver.findBusinessUnit(code) : unitRepository.findByBusinessUnitCode(EntityCode.parse(code));
     }
 
 }
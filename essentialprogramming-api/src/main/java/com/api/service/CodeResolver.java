@@ -0,0 +1,111 @@
+package com.api.service;
+
+import com.api.entities.Appointment;
+import com.api.entities.Business;
+import com.api.entities.BusinessService;
+import com.api.entities.BusinessUnit;
+import com.api.repository.AppointmentRepository;
+import com.api.repository.BusinessRepository;
+import com.api.repository.BusinessServiceRepository;
+import com.api.repository.BusinessUnitRepository;
+import com.crypto.PublicCode;
+import com.util.cache.ExpiringCache;
+import com.util.cloud.DeploymentConfiguration;
+import com.util.code.EntityCode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+
+import java.security.GeneralSecurityException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import static com.resources.AppResources.ENCRYPTION_KEY;
+
+/**
+ * Resolves public codes received from clients to entities.
+ * <p/>
+ * Resolved codes are cached as public code -> primary key, so repeated requests for the same entity skip
+ * the code decryption and the code column query and load the entity by id.
+ * A code always designates the same row and ids are never reused, so a stale entry can only point to a deleted row:
+ * it is dropped when the lookup by id comes back empty. Services evict the code they delete by, so the entry
+ * does not outlive the row until its next lookup.
+ */
+@Service
+public class CodeResolver {
+
+    private static final int CACHE_SIZE = DeploymentConfiguration.getProperty("CODE_CACHE_SIZE", 10_000);
+    private static final long CACHE_TTL = DeploymentConfiguration.getProperty("CODE_CACHE_TTL_SECONDS", 300) * 1000L;
+
+    private final ExpiringCache<String, Integer> businesses = new ExpiringCache<>(CACHE_SIZE, CACHE_TTL);
+    private final ExpiringCache<String, Integer> businessUnits = new ExpiringCache<>(CACHE_SIZE, CACHE_TTL);
+    private final ExpiringCache<String, Integer> businessServices = new ExpiringCache<>(CACHE_SIZE, CACHE_TTL);
+    private final ExpiringCache<String, Integer> appointments = new ExpiringCache<>(CACHE_SIZE, CACHE_TTL);
+
+    private final BusinessRepository businessRepository;
+    private final BusinessUnitRepository businessUnitRepository;
+    private final BusinessServiceRepository businessServiceRepository;
+    private final AppointmentRepository appointmentRepository;
+
+    @Autowired
+    public CodeResolver(BusinessRepository businessRepository,
+                        BusinessUnitRepository businessUnitRepository,
+                        BusinessServiceRepository businessServiceRepository,
+                        AppointmentRepository appointmentRepository) {
+        this.businessRepository = businessRepository;
+        this.businessUnitRepository = businessUnitRepository;
+        this.businessServiceRepository = businessServiceRepository;
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    public Optional<Business> findBusiness(String publicCode) throws GeneralSecurityException {
+        return find(publicCode, businesses, businessRepository, Business::getId, businessRepository::findByBusinessCode);
+    }
+
+    public Optional<BusinessUnit> findBusinessUnit(String publicCode) throws GeneralSecurityException {
+        return find(publicCode, businessUnits, businessUnitRepository, BusinessUnit::getId, businessUnitRepository::findByBusinessUnitCode);
+    }
+
+    public Optional<BusinessService> findBusinessService(String publicCode) throws GeneralSecurityException {
+        return find(publicCode, businessServices, businessServiceRepository, BusinessService::getId, businessServiceRepository::findByBusinessServiceCode);
+    }
+
+    public Optional<Appointment> findAppointment(String publicCode) throws GeneralSecurityException {
+        return find(publicCode, appointments, appointmentRepository, Appointment::getId, appointmentRepository::findByAppointmentCode);
+    }
+
+    public void evictBusinessUnit(String publicCode) {
+        businessUnits.remove(publicCode);
+    }
+
+    public void evictBusinessService(String publicCode) {
+        businessServices.remove(publicCode);
+    }
+
+    public void evictAppointment(String publicCode) {
+        appointments.remove(publicCode);
+    }
+
+    private static <T> Optional<T> find(String publicCode,
+                                        ExpiringCache<String, Integer> cache,
+                                        JpaRepository<T, Integer> repository,
+                                        ToIntFunction<T> id,
+                                        Function<UUID, Optional<T>> findByCode) throws GeneralSecurityException {
+        Integer cachedId = cache.get(publicCode);
+        if (cachedId != null) {
+            Optional<T> entity = repository.findById(cachedId);
+            if (entity.isPresent()) {
+                return entity;
+            }
+            cache.remove(publicCode);
+        }
+
+        String code = PublicCode.decode(publicCode, ENCRYPTION_KEY.value());
+        Optional<T> entity = findByCode.apply(EntityCode.parse(code));
+        entity.ifPresent(found -> cache.put(publicCode, id.applyAsInt(found)));
+
+        return entity;
+    }
+}
@@ -0,0 +1,129 @@
+package com.api.service;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Booked time of one business unit on one date, kept as a bitmap with one bit per minute of the day.
+ * <p/>
+ * Checking or booking an interval touches at most 23 words whatever the number of appointments of the day.
+ * Intervals are half open, an appointment ending at 10:00 does not overlap one starting at 10:00.
+ * The booked intervals are kept as well, so that releasing one of two overlapping bookings keeps the other.
+ * Not thread safe, callers lock the schedule.
+ */
+final class DaySchedule {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+    static final int WORDS = (MINUTES_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+
+    private final long[] bookedMinutes = new long[WORDS];
+    private final List<int[]> bookings = new ArrayList<>();
+
+    static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    boolean isFree(LocalTime startTime, LocalTime endTime) {
+        int start = minuteOfDay(startTime);
+        int end = minuteOfDay(endTime);
+        for (int word = start >>> 6; start < end; word++) {
+            int wordEnd = Math.min(end, (word + 1) << 6);
+            if ((bookedMinutes[word] & mask(start, wordEnd)) != 0) {
+                return false;
+            }
+            start = wordEnd;
+        }
+        return true;
+    }
+
+    /**
+     * Books the interval whether it is free or not, an overlapping booking is released on its own.
+     */
+    void book(LocalTime startTime, LocalTime endTime) {
+        int start = minuteOfDay(startTime);
+        int end = minuteOfDay(endTime);
+        bookings.add(new int[]{start, end});
+        set(start, end);
+    }
+
+    /**
+     * Releases one booking of exactly this interval.
+     *
+     * @return false if the interval was not booked
+     */
+    boolean release(LocalTime startTime, LocalTime endTime) {
+        int start = minuteOfDay(startTime);
+        int end = minuteOfDay(endTime);
+        for (int i = 0; i < bookings.size(); i++) {
+            int[] booking = bookings.get(i);
+            if (booking[0] == start && booking[1] == end) {
+                bookings.remove(i);
+                Arrays.fill(bookedMinutes, 0L);
+                for (int[] remaining : bookings) {
+                    set(remaining[0], remaining[1]);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds to freeSlots the slots of the template that do not overlap any booking.
+     * <p/>
+     * A slot starting at minute t is taken when a minute of [t, t + duration) is booked, so the booked minutes are
+     * spread over the duration, each step doubling the spread, and the result is masked out of the template.
+     */
+    void addFreeSlots(SlotTemplate template, long[] freeSlots) {
+        long[] takenStarts = bookedMinutes.clone();
+        int spread = 1;
+        int duration = template.duration();
+        while (spread < duration) {
+            int shift = Math.min(spread, duration - spread);
+            orShiftedDown(takenStarts, shift);
+            spread += shift;
+        }
+        long[] slotStarts = template.slotStarts();
+        for (int word = 0; word < WORDS; word++) {
+            freeSlots[word] |= slotStarts[word] & ~takenStarts[word];
+        }
+    }
+
+    /**
+     * bits[t] |= bits[t + shift] for every minute t, done in place from the lowest word up.
+     */
+    private static void orShiftedDown(long[] bits, int shift) {
+        int wordShift = shift >>> 6;
+        int bitShift = shift & 63;
+        for (int word = 0; word < bits.length; word++) {
+            int from = word + wordShift;
+            if (from >= bits.length) {
+                break;
+            }
+            long shifted = bits[from] >>> bitShift;
+            if (bitShift != 0 && from + 1 < bits.length) {
+                shifted |= bits[from + 1] << (Long.SIZE - bitShift);
+            }
+            bits[word] |= shifted;
+        }
+    }
+
+    private void set(int start, int end) {
+        for (int word = start >>> 6; start < end; word++) {
+            int wordEnd = Math.min(end, (word + 1) << 6);
+            bookedMinutes[word] |= mask(start, wordEnd);
+            start = wordEnd;
+        }
+    }
+
+    /**
+     * Bits of the minutes [start, end) inside the word holding start, end being at most the end of that word.
+     */
+    private static long mask(int start, int end) {
+        int length = end - start;
+        long bits = length == Long.SIZE ? -1L : (1L << length) - 1;
+        return bits << (start & 63);
+    }
+}
@@ -0,0 +1,78 @@
+package com.api.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/**
+ * Interval of a unit reserved for a user between picking a slot and creating the appointment.
+ * The interval is booked in the {@link AvailabilityIndex} until the hold is claimed or expires.
+ */
+public final class SlotHold {
+
+    private final String code;
+    private final String owner;
+    private final int businessServiceId;
+    private final int unitId;
+    private final UUID unitCode;
+    private final LocalDate date;
+    private final LocalTime startTime;
+    private final LocalTime endTime;
+    private final long expiresAt;
+
+    SlotHold(String code, String owner, int businessServiceId, int unitId, UUID unitCode,
+             LocalDate date, LocalTime startTime, LocalTime endTime, long expiresAt) {
+        this.code = code;
+        this.owner = owner;
+        this.businessServiceId = businessServiceId;
+        this.unitId = unitId;
+        this.unitCode = unitCode;
+        this.date = date;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @return true if the hold reserves this interval of the service
+     */
+    boolean matches(int businessServiceId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        return this.businessServiceId == businessServiceId && this.date.equals(date)
+                && this.startTime.equals(startTime) && this.endTime.equals(endTime);
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public int getUnitId() {
+        return unitId;
+    }
+
+    public UUID getUnitCode() {
+        return unitCode;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * @return the expiry time, in milliseconds since the epoch
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+}
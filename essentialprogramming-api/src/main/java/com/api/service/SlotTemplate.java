@@ -0,0 +1,67 @@
+package com.api.service;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Start minutes of the slots of a service, as a bitmap over the minutes of the day: one slot every duration
+ * minutes from the start time, for as long as the slot starts before the end time.
+ * <p/>
+ * The same template serves every unit and every date, see {@link DaySchedule#addFreeSlots}.
+ */
+final class SlotTemplate {
+
+    private final long[] slotStarts = new long[DaySchedule.WORDS];
+    private final int duration;
+
+    private SlotTemplate(int start, int end, int duration) {
+        this.duration = duration;
+        for (int minute = start; minute < end && duration > 0; minute += duration) {
+            slotStarts[minute >>> 6] |= 1L << minute;
+        }
+    }
+
+    static SlotTemplate of(LocalTime startTime, LocalTime endTime, long duration) {
+        return new SlotTemplate(DaySchedule.minuteOfDay(startTime), DaySchedule.minuteOfDay(endTime), boundedDuration(duration));
+    }
+
+    /**
+     * @return a key identifying the template of these slots, templates are shared by the services with the same slots
+     */
+    static long key(LocalTime startTime, LocalTime endTime, long duration) {
+        long minutes = DaySchedule.MINUTES_PER_DAY + 1;
+        return (DaySchedule.minuteOfDay(startTime) * minutes + DaySchedule.minuteOfDay(endTime)) * minutes + boundedDuration(duration);
+    }
+
+    /**
+     * A slot longer than the day only needs the rest of the day to be free, a duration that is not positive gives no slot.
+     */
+    private static int boundedDuration(long duration) {
+        return (int) Math.max(0, Math.min(duration, DaySchedule.MINUTES_PER_DAY));
+    }
+
+    long[] slotStarts() {
+        return slotStarts;
+    }
+
+    int duration() {
+        return duration;
+    }
+
+    /**
+     * @return the start times of the slots set in the bitmap, in order
+     */
+    static List<LocalTime> startTimes(long[] slotStarts) {
+        List<LocalTime> times = new ArrayList<>();
+        for (int word = 0; word < slotStarts.length; word++) {
+            long bits = slotStarts[word];
+            while (bits != 0) {
+                int minute = (word << 6) + Long.numberOfTrailingZeros(bits);
+                times.add(LocalTime.of(minute / 60, minute % 60));
+                bits &= bits - 1;
+            }
+        }
+        return times;
+    }
+}
@@ -6,8 +6,8 @@ import com.api.mapper.UserMapper;
 import com.api.input.*;
 import com.api.output.UserJSON;
 import com.api.repository.*;
-import com.crypto.Crypt;
 import com.crypto.PasswordHash;
+import com.crypto.PublicCode;
 import com.internationalization.EmailMessages;
 import com.internationalization.Messages;
 import com.email.EmailTemplateService;
@@ -52,8 +52,9 @@ public class UserService {
             User result = saveUser(user, input, language);
             user.setCreatedBy(result.getId());
 
-            String validationKey = Crypt.encrypt(result.getUserKey(), Crypt.encrypt(result.getUserKey(), result.getUserKey()));
-            String encryptedUserKey = Crypt.encrypt(user.getUserKey(), AppResources.ENCRYPTION_KEY.value());
+            // the validation key is never decoded, it only keeps the link from being guessed from the user key
+            String validationKey = PublicCode.encode(UUID.randomUUID().toString(), AppResources.ENCRYPTION_KEY.value());
+            String encryptedUserKey = PublicCode.encode(user.getUserKey(), AppResources.ENCRYPTION_KEY.value());
 
 
             String url = AppResources.ACCOUNT_CONFIRMATION_URL.value() + "/" + validationKey + "/" + encryptedUserKey;
@@ -109,7 +110,6 @@ public class UserService {
     private User saveUser(User user, UserInput input, com.util.enums.Language language) throws GeneralSecurityException {
 
         String uuid = String.valueOf(UUID.randomUUID());
-        String validationKey = Crypt.encrypt(uuid, Crypt.encrypt(uuid, uuid));  //activationKey
         LocalDateTime now = LocalDateTime.now();
 
         user.setUserKey(uuid);
@@ -0,0 +1,24 @@
+-- Entity codes are stored as native uuid columns (16 bytes instead of 72 characters).
+-- Codes issued before this migration (two concatenated UUID strings) become md5(code)::uuid,
+-- the same mapping EntityCode.parse applies to legacy codes received from clients.
+
+ALTER TABLE business
+    ALTER COLUMN businesscode TYPE uuid
+    USING CASE WHEN length(businesscode) = 36 THEN businesscode::uuid ELSE md5(businesscode)::uuid END;
+
+ALTER TABLE businessunit
+    ALTER COLUMN businessunitcode TYPE uuid
+    USING CASE WHEN length(businessunitcode) = 36 THEN businessunitcode::uuid ELSE md5(businessunitcode)::uuid END;
+
+ALTER TABLE businessservice
+    ALTER COLUMN businessservicecode TYPE uuid
+    USING CASE WHEN length(businessservicecode) = 36 THEN businessservicecode::uuid ELSE md5(businessservicecode)::uuid END;
+
+ALTER TABLE appointment
+    ALTER COLUMN appointmentcode TYPE uuid
+    USING CASE WHEN length(appointmentcode) = 36 THEN appointmentcode::uuid ELSE md5(appointmentcode)::uuid END;
+
+CREATE UNIQUE INDEX IF NOT EXISTS business_businesscode_idx ON business (businesscode);
+CREATE UNIQUE INDEX IF NOT EXISTS businessunit_businessunitcode_idx ON businessunit (businessunitcode);
+CREATE UNIQUE INDEX IF NOT EXISTS businessservice_businessservicecode_idx ON businessservice (businessservicecode);
+CREATE UNIQUE INDEX IF NOT EXISTS appointment_appointmentcode_idx ON appointment (appointmentcode);
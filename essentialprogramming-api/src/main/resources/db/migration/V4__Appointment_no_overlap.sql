@@ -0,0 +1,31 @@
+-- Accepted appointments of a business unit may not overlap, whichever node books them.
+-- The booking lanes and the availability index only see the bookings of their own node,
+-- this constraint is the check shared by all of them (SQLSTATE 23P01 when violated).
+-- Pending appointments (status 1) wait for an accepted one and are left out.
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- accepted appointments overlapping an older accepted one go back to pending,
+-- so that the constraint can be added over existing data
+UPDATE appointment a
+SET status = 1
+WHERE a.status = 2
+  AND a.date IS NOT NULL
+  AND a.starttime::time < a.endtime::time
+  AND EXISTS(SELECT 1
+             FROM appointment b
+             WHERE b.status = 2
+               AND b.appointmentid < a.appointmentid
+               AND b.businessunitid = a.businessunitid
+               AND b.date = a.date
+               AND b.starttime::time < b.endtime::time
+               AND b.starttime::time < a.endtime::time
+               AND a.starttime::time < b.endtime::time);
+
+ALTER TABLE appointment
+    ADD CONSTRAINT appointment_unit_no_overlap
+    EXCLUDE USING gist (
+        businessunitid WITH =,
+        tsrange(date + starttime::time, date + endtime::time) WITH &&
+    )
+    WHERE (status = 2 AND date IS NOT NULL AND starttime::time < endtime::time);
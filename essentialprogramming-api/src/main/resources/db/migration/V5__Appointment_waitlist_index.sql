@@ -0,0 +1,6 @@
+-- Pending appointments of a slot form its waitlist, in the order they were made.
+-- Promoting the head of the waitlist when an accepted appointment is deleted is one index descent.
+-- The status is part of the key rather than a partial index predicate, it is bound as a parameter.
+
+CREATE INDEX IF NOT EXISTS appointment_waitlist_idx
+    ON appointment (businessunitid, date, starttime, endtime, status, appointmentid);
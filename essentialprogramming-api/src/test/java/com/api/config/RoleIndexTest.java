@@ -0,0 +1,39 @@
+package com.api.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RoleIndexTest {
+
+    private final RoleIndex roleIndex = new RoleIndex();
+
+    @Test
+    void roles_share_their_bit_between_methods() {
+        long adminOnly = roleIndex.register("ADMIN");
+        long adminOrOwner = roleIndex.register("OWNER", "ADMIN");
+
+        Assertions.assertEquals(1L, adminOnly);
+        Assertions.assertEquals(3L, adminOrOwner);
+    }
+
+    @Test
+    void token_roles_are_read_like_the_principal_roles() {
+        long admin = roleIndex.register("ADMIN");
+        long owner = roleIndex.register("OWNER");
+
+        Assertions.assertEquals(admin | owner, roleIndex.mask(" OWNER ,ADMIN"));
+        Assertions.assertEquals(owner, roleIndex.mask("USER,OWNER,,"));
+        Assertions.assertEquals(0, roleIndex.mask("ADMINISTRATOR,OWNERS"));
+        Assertions.assertEquals(0, roleIndex.mask(""));
+        Assertions.assertEquals(0, roleIndex.mask(null));
+    }
+
+    @Test
+    void at_most_64_roles() {
+        for (int i = 0; i < 64; i++) {
+            roleIndex.register("ROLE_" + i);
+        }
+        Assertions.assertEquals(1L << 63, roleIndex.mask("ROLE_63"));
+        Assertions.assertThrows(IllegalStateException.class, () -> roleIndex.register("ROLE_64"));
+    }
+}
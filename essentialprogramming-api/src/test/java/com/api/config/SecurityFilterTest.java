@@ -0,0 +1,59 @@
+package com.api.config;
+
+import com.token.validation.keys.KeyRing;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.lang.reflect.Proxy;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SecurityFilterTest {
+
+    private static final KeyPair keyPair = VerifiedTokenCacheTest.generateKeyPair();
+    private static final KeyRing keyRing = keyId -> keyPair.getPublic();
+
+    private final SecurityFilter securityFilter = new SecurityFilter(keyRing, new VerifiedTokenCache(), null);
+
+    @Test
+    void access_token_is_let_through() throws GeneralSecurityException {
+        String token = VerifiedTokenCacheTest.sign(keyPair.getPrivate(), System.currentTimeMillis() / 1000 + 60);
+
+        Assertions.assertNull(filter("Bearer " + token));
+    }
+
+    @Test
+    void refresh_token_is_unauthorized() throws GeneralSecurityException {
+        String token = VerifiedTokenCacheTest.sign(keyPair.getPrivate(), "{\"sub\":\"user\",\"roles\":\"USER\",\"token_use\":\"refresh\",\"exp\":"
+                + (System.currentTimeMillis() / 1000 + 60) + "}");
+
+        Response response = filter("Bearer " + token);
+
+        Assertions.assertNotNull(response);
+        Assertions.assertEquals(Response.Status.UNAUTHORIZED.getStatusCode(), response.getStatus());
+    }
+
+    /**
+     * @return the response the request was aborted with, null when it was let through
+     */
+    private Response filter(String authorization) {
+        AtomicReference<Response> aborted = new AtomicReference<>();
+        ContainerRequestContext requestContext = (ContainerRequestContext) Proxy.newProxyInstance(
+                ContainerRequestContext.class.getClassLoader(), new Class<?>[]{ContainerRequestContext.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getHeaderString") && HttpHeaders.AUTHORIZATION.equals(args[0])) {
+                        return authorization;
+                    }
+                    if (method.getName().equals("abortWith")) {
+                        aborted.set((Response) args[0]);
+                    }
+                    return null;
+                });
+        securityFilter.filter(requestContext);
+        return aborted.get();
+    }
+}
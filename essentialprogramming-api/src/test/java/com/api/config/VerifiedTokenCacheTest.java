@@ -0,0 +1,126 @@
+package com.api.config;
+
+import com.token.validation.keys.KeyRing;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class VerifiedTokenCacheTest {
+
+    private static final KeyPair keyPair = generateKeyPair();
+    private static final KeyRing keyRing = keyId -> keyPair.getPublic();
+
+    private final AtomicLong now = new AtomicLong(System.currentTimeMillis());
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(10, 300_000, now::get);
+
+    @Test
+    void repeated_token_is_answered_from_cache() throws GeneralSecurityException {
+        String token = sign(keyPair.getPrivate(), now.get() / 1000 + 60);
+
+        VerifiedTokenCache.VerifiedToken first = cache.verify(token, keyRing);
+        VerifiedTokenCache.VerifiedToken second = cache.verify(token, keyRing);
+
+        Assertions.assertNotNull(first);
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, cache.getHitCount());
+        Assertions.assertEquals(1, cache.getMissCount());
+        Assertions.assertEquals(0.5, cache.getHitRatio());
+    }
+
+    @Test
+    void principal_and_roles_are_read_once_per_token() throws GeneralSecurityException {
+        long userRole = cache.getRoleIndex().register("USER");
+        long adminRole = cache.getRoleIndex().register("ADMIN");
+        String token = sign(keyPair.getPrivate(), now.get() / 1000 + 60);
+
+        VerifiedTokenCache.VerifiedToken verified = cache.verify(token, keyRing);
+
+        Assertions.assertEquals(userRole, verified.getRoleMask());
+        Assertions.assertEquals(0, verified.getRoleMask() & adminRole);
+        Assertions.assertTrue(verified.getPrincipal().getRoles().contains("USER"));
+        Assertions.assertSame(verified.getPrincipal(), cache.verify(token, keyRing).getPrincipal());
+    }
+
+    @Test
+    void cached_token_expires_with_the_token() throws GeneralSecurityException {
+        long expiration = now.get() / 1000 + 60;
+        String token = sign(keyPair.getPrivate(), expiration);
+        cache.verify(token, keyRing);
+
+        now.set(expiration * 1000);
+        cache.verify(token, keyRing);
+
+        Assertions.assertEquals(0, cache.getHitCount());
+        Assertions.assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void rotated_key_verifies_again() throws GeneralSecurityException {
+        String token = sign(keyPair.getPrivate(), now.get() / 1000 + 60);
+        cache.verify(token, keyRing);
+
+        KeyPair rotated = generateKeyPair();
+        Assertions.assertNull(cache.verify(token, keyId -> rotated.getPublic()));
+        Assertions.assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    void unknown_key_is_not_verified() throws GeneralSecurityException {
+        String token = sign(keyPair.getPrivate(), now.get() / 1000 + 60);
+
+        Assertions.assertNull(cache.verify(token, keyId -> null));
+        Assertions.assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void refresh_token_is_not_verified() throws GeneralSecurityException {
+        String token = sign(keyPair.getPrivate(), "{\"sub\":\"user\",\"roles\":\"USER\",\"token_use\":\"refresh\",\"exp\":"
+                + (now.get() / 1000 + 60) + "}");
+
+        Assertions.assertNull(cache.verify(token, keyRing));
+        Assertions.assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void invalid_token_is_not_cached() throws GeneralSecurityException {
+        String token = sign(keyPair.getPrivate(), now.get() / 1000 - 1);
+
+        Assertions.assertNull(cache.verify(token, keyRing));
+        Assertions.assertNull(cache.verify(token, keyRing));
+        Assertions.assertEquals(0, cache.getSize());
+        Assertions.assertEquals(0, cache.getHitRatio());
+    }
+
+    static String sign(PrivateKey privateKey, long expiration) throws GeneralSecurityException {
+        return sign(privateKey, "{\"sub\":\"user\",\"roles\":\"USER\",\"exp\":" + expiration + "}");
+    }
+
+    static String sign(PrivateKey privateKey, String payload) throws GeneralSecurityException {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"alg\":\"RS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+        String claims = encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(privateKey);
+        signature.update((header + '.' + claims).getBytes(StandardCharsets.UTF_8));
+        return header + '.' + claims + '.' + encoder.encodeToString(signature.sign());
+    }
+
+    static KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+            keyPairGenerator.initialize(2048);
+            return keyPairGenerator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
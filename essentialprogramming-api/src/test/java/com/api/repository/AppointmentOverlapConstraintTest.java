@@ -0,0 +1,161 @@
+package com.api.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs against the Postgres database given by POSTGRES_TEST_URL
+ * (e.g. jdbc:postgresql://localhost:5432/kalendarium?user=postgres&password=postgres), skipped when it is not set.
+ * Every test works in a schema of its own, dropped afterwards.
+ */
+public class AppointmentOverlapConstraintTest {
+
+    private static final String URL = System.getenv("POSTGRES_TEST_URL");
+
+    private final String schema = "overlap_test_" + System.nanoTime();
+
+    @BeforeEach
+    void create_schema() throws Exception {
+        Assumptions.assumeTrue(URL != null, "POSTGRES_TEST_URL is not set");
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA " + schema);
+            statement.execute("SET search_path TO " + schema + ", public");
+            statement.execute("CREATE TABLE appointment(" +
+                    "appointmentid integer NOT NULL GENERATED ALWAYS AS IDENTITY PRIMARY KEY, " +
+                    "businessunitid smallint, status smallint, starttime time, endtime time, date date)");
+            for (String migration : migration("/db/migration/V4__Appointment_no_overlap.sql").split(";")) {
+                if (!migration.trim().isEmpty()) {
+                    statement.execute(migration);
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    void drop_schema() throws Exception {
+        if (URL == null) {
+            return;
+        }
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        }
+    }
+
+    @Test
+    void concurrent_accepted_appointments_never_overlap_on_a_unit() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+        int rejected = 0;
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> workers = new ArrayList<>();
+            for (int client = 0; client < 16; client++) {
+                workers.add(clients.submit(() -> {
+                    int clientRejected = 0;
+                    try (Connection connection = connect()) {
+                        start.await();
+                        for (int i = 0; i < 50; i++) {
+                            ThreadLocalRandom random = ThreadLocalRandom.current();
+                            int startMinute = 8 * 60 + random.nextInt(8 * 60);
+                            try {
+                                insert(connection, random.nextInt(4), 2, startMinute, startMinute + 15 + random.nextInt(60));
+                            } catch (SQLException e) {
+                                Assertions.assertEquals("23P01", e.getSQLState(), e.getMessage());
+                                clientRejected++;
+                            }
+                        }
+                    }
+                    return clientRejected;
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> worker : workers) {
+                rejected += worker.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+
+        List<int[]> accepted = new ArrayList<>();
+        try (Connection connection = connect(); Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT businessunitid, " +
+                     "extract(epoch FROM starttime)::int / 60, extract(epoch FROM endtime)::int / 60 FROM appointment")) {
+            while (rows.next()) {
+                accepted.add(new int[]{rows.getInt(1), rows.getInt(2), rows.getInt(3)});
+            }
+        }
+        Assertions.assertTrue(rejected > 0);
+        Assertions.assertEquals(16 * 50 - rejected, accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            for (int j = i + 1; j < accepted.size(); j++) {
+                int[] first = accepted.get(i);
+                int[] second = accepted.get(j);
+                Assertions.assertFalse(first[0] == second[0] && first[1] < second[2] && second[1] < first[2],
+                        "overlapping appointments on unit " + first[0]);
+            }
+        }
+    }
+
+    @Test
+    void pending_appointments_wait_on_an_accepted_slot() throws Exception {
+        try (Connection connection = connect()) {
+            insert(connection, 1, 2, 600, 660);
+            insert(connection, 1, 1, 600, 660);
+            insert(connection, 1, 1, 600, 660);
+            // touching intervals and other units are free
+            insert(connection, 1, 2, 660, 720);
+            insert(connection, 2, 2, 600, 660);
+
+            SQLException e = Assertions.assertThrows(SQLException.class, () -> insert(connection, 1, 2, 630, 690));
+            Assertions.assertEquals("23P01", e.getSQLState());
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        Connection connection = DriverManager.getConnection(URL);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + schema + ", public");
+        }
+        return connection;
+    }
+
+    private static void insert(Connection connection, int unit, int status, int startMinute, int endMinute) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO appointment(businessunitid, status, starttime, endtime, date) " +
+                "VALUES (?, ?, time '00:00' + ? * interval '1 minute', time '00:00' + ? * interval '1 minute', date '2026-03-02')")) {
+            statement.setInt(1, unit);
+            statement.setInt(2, status);
+            statement.setInt(3, startMinute);
+            statement.setInt(4, endMinute);
+            statement.executeUpdate();
+        }
+    }
+
+    private static String migration(String resource) {
+        try (InputStream in = AppointmentOverlapConstraintTest.class.getResourceAsStream(resource);
+             Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name()).useDelimiter("\\A")) {
+            return scanner.next();
+        } catch (Exception e) {
+            throw new IllegalStateException("cannot read " + resource, e);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.api.service;
+
+import com.api.entities.Appointment;
+import com.api.entities.Business;
+import com.api.entities.BusinessService;
+import com.api.entities.BusinessUnit;
+import com.api.entities.ServiceDetail;
+import com.api.entities.User;
+import com.api.entities.enums.AppointmentStatus;
+import com.api.entities.enums.Day;
+import com.api.input.AppointmentInput;
+import com.api.output.AppointmentJSON;
+import com.api.repository.AppointmentRepository;
+import com.api.repository.BusinessRepository;
+import com.api.repository.BusinessServiceRepository;
+import com.api.repository.BusinessUnitRepository;
+import com.api.repository.UserRepository;
+import com.crypto.PublicCode;
+import com.email.EmailService;
+import com.email.EmailTemplateService;
+import com.email.TemplateService;
+import com.util.enums.Language;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Proxy;
+import java.security.GeneralSecurityException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.resources.AppResources.ENCRYPTION_KEY;
+
+public class AppointmentServiceTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2026, 3, 2);
+    private static final LocalTime TEN = LocalTime.of(10, 0);
+    private static final LocalTime ELEVEN = LocalTime.of(11, 0);
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("h:mm a", Locale.ENGLISH);
+
+    private final Business business = Business.builder().id(1).businessCode(UUID.randomUUID()).build();
+    private final BusinessUnit unit = unit(1);
+    private final List<BusinessUnit> units = Arrays.asList(unit, unit(2), unit(3));
+    private final BusinessService businessService = BusinessService.builder().id(1).businessServiceCode(UUID.randomUUID())
+            .business(business).name("Haircut").unitsPerformingService(units)
+            .serviceDetail(ServiceDetail.builder().day(Collections.singletonList(Day.MONDAY)).build()).build();
+    private final User user = User.builder().firstName("Ana").lastName("Pop").email("ana@mail.com").userKey("ana").build();
+
+    // appointments stored by the fake repository, in insertion order
+    private final List<Appointment> stored = new ArrayList<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final AtomicInteger mailsSent = new AtomicInteger();
+    private final AtomicInteger overlappingBookings = new AtomicInteger();
+
+    private final AppointmentRepository appointmentRepository = appointmentRepository();
+    private final AppointmentService appointmentService = new AppointmentService(appointmentRepository,
+            repository(BusinessRepository.class, business), repository(BusinessUnitRepository.class, unit),
+            repository(BusinessServiceRepository.class, businessService), repository(UserRepository.class, user),
+            new EmailTemplateService(emailService(), templateService()),
+            new CodeResolver(repository(BusinessRepository.class, business), repository(BusinessUnitRepository.class, unit),
+                    repository(BusinessServiceRepository.class, businessService), appointmentRepository),
+            new AvailabilityIndex(appointmentRepository));
+
+    @AfterEach
+    void clear_synchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void appointment_for_a_slot_accepted_on_the_same_date_waits_for_it() throws GeneralSecurityException {
+        store(AppointmentStatus.ACCEPTED, MONDAY);
+
+        AppointmentInput input = input(MONDAY, TEN, encode(unit.getBusinessUnitCode()));
+        AppointmentJSON appointment = appointmentService.save(user.getEmail(), input,
+                appointmentService.bookingLane(input, Language.ENGLISH), Language.ENGLISH).get();
+
+        Assertions.assertEquals(AppointmentStatus.PENDING, appointment.getStatus());
+        Assertions.assertEquals(2, stored.size());
+    }
+
+    @Test
+    void concurrent_bookings_never_overlap_on_a_unit() throws Exception {
+        BookingLanes bookingLanes = new BookingLanes();
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+        List<Future<AppointmentJSON>> picked = new ArrayList<>();
+        List<Future<AppointmentJSON>> chosen = new ArrayList<>();
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            for (int week = 0; week < 5; week++) {
+                for (int hour = 10; hour < 14; hour++) {
+                    LocalDate date = MONDAY.plusWeeks(week);
+                    LocalTime startTime = LocalTime.of(hour, 0);
+                    // one unit less is picked by the server than there are units, so a picked booking always finds a unit
+                    for (int i = 0; i < units.size() - 1; i++) {
+                        picked.add(clients.submit(() -> book(bookingLanes, start, input(date, startTime, ""))));
+                    }
+                    for (int i = 0; i < 4; i++) {
+                        chosen.add(clients.submit(() -> book(bookingLanes, start, input(date, startTime, encode(unit.getBusinessUnitCode())))));
+                    }
+                }
+            }
+            start.countDown();
+            for (Future<AppointmentJSON> booking : picked) {
+                Assertions.assertEquals(AppointmentStatus.ACCEPTED, booking.get(30, TimeUnit.SECONDS).getStatus());
+            }
+            for (Future<AppointmentJSON> booking : chosen) {
+                booking.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            clients.shutdownNow();
+            bookingLanes.close();
+        }
+
+        Assertions.assertEquals(picked.size() + chosen.size(), stored.size());
+        Assertions.assertEquals(0, overlappingBookings.get());
+    }
+
+    @Test
+    void deleting_an_accepted_appointment_promotes_the_first_pending_one_after_commit() throws GeneralSecurityException {
+        Appointment accepted = store(AppointmentStatus.ACCEPTED, MONDAY);
+        Appointment first = store(AppointmentStatus.PENDING, MONDAY);
+        Appointment second = store(AppointmentStatus.PENDING, MONDAY);
+
+        TransactionSynchronizationManager.initSynchronization();
+        appointmentService.delete(PublicCode.encode(accepted.getAppointmentCode().toString(), ENCRYPTION_KEY.value()), Language.ENGLISH);
+
+        Assertions.assertFalse(stored.contains(accepted));
+        Assertions.assertEquals(AppointmentStatus.ACCEPTED, first.getStatus());
+        Assertions.assertEquals(AppointmentStatus.PENDING, second.getStatus());
+        // the confirmation waits for the commit
+        Assertions.assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+        Assertions.assertEquals(0, mailsSent.get());
+    }
+
+    @Test
+    void moving_an_accepted_appointment_promotes_the_first_pending_one_after_commit() throws GeneralSecurityException {
+        Appointment accepted = store(AppointmentStatus.ACCEPTED, MONDAY);
+        Appointment first = store(AppointmentStatus.PENDING, MONDAY);
+        Appointment second = store(AppointmentStatus.PENDING, MONDAY);
+
+        TransactionSynchronizationManager.initSynchronization();
+        appointmentService.update(encode(accepted.getAppointmentCode()), input(MONDAY.plusWeeks(1), TEN, ""), Language.ENGLISH);
+
+        Assertions.assertEquals(MONDAY.plusWeeks(1), accepted.getDate());
+        Assertions.assertEquals(AppointmentStatus.ACCEPTED, accepted.getStatus());
+        Assertions.assertEquals(AppointmentStatus.ACCEPTED, first.getStatus());
+        Assertions.assertEquals(AppointmentStatus.PENDING, second.getStatus());
+        Assertions.assertEquals(0, mailsSent.get());
+    }
+
+    @Test
+    void moving_an_accepted_appointment_within_its_slot_promotes_nobody() throws GeneralSecurityException {
+        Appointment accepted = store(AppointmentStatus.ACCEPTED, MONDAY);
+        Appointment pending = store(AppointmentStatus.PENDING, MONDAY);
+
+        appointmentService.update(encode(accepted.getAppointmentCode()), input(MONDAY, LocalTime.of(10, 30), ""), Language.ENGLISH);
+
+        Assertions.assertEquals(LocalTime.of(10, 30), accepted.getStartTime());
+        Assertions.assertEquals(AppointmentStatus.PENDING, pending.getStatus());
+    }
+
+    @Test
+    void task_runs_only_once_the_transaction_commits() {
+        List<String> ran = new ArrayList<>();
+
+        TransactionSynchronizationManager.initSynchronization();
+        AppointmentService.executeAfterCommit(() -> ran.add("committed"), Runnable::run);
+        AppointmentService.executeAfterCommit(() -> ran.add("rolled back"), Runnable::run);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+        Assertions.assertTrue(ran.isEmpty());
+        synchronizations.get(0).afterCommit();
+        synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        Assertions.assertEquals(Collections.singletonList("committed"), ran);
+
+        TransactionSynchronizationManager.clearSynchronization();
+        AppointmentService.executeAfterCommit(() -> ran.add("no transaction"), Runnable::run);
+        Assertions.assertEquals(2, ran.size());
+    }
+
+    /**
+     * Books like the appointment controller: in the lane of the unit, picking another unit if the picked one was taken.
+     */
+    private AppointmentJSON book(BookingLanes bookingLanes, CountDownLatch start, AppointmentInput input) throws Exception {
+        start.await();
+        Optional<AppointmentJSON> appointment;
+        do {
+            BookingLanes.Lane lane = appointmentService.bookingLane(input, Language.ENGLISH);
+            appointment = bookingLanes.execute(lane, () -> appointmentService.save(user.getEmail(), input, lane, Language.ENGLISH));
+        } while (!appointment.isPresent());
+        return appointment.get();
+    }
+
+    private AppointmentInput input(LocalDate date, LocalTime startTime, String businessUnitCode) throws GeneralSecurityException {
+        return AppointmentInput.builder()
+                .businessCode(encode(business.getBusinessCode()))
+                .businessUnitCode(businessUnitCode)
+                .businessServiceCode(encode(businessService.getBusinessServiceCode()))
+                .userKey(user.getUserKey())
+                .startTime(startTime.format(TIME_FORMATTER))
+                .endTime(startTime.plusHours(1).format(TIME_FORMATTER))
+                .date(String.format("%02d-%02d-%d", date.getDayOfMonth(), date.getMonthValue(), date.getYear()))
+                .day(Day.MONDAY)
+                .build();
+    }
+
+    private Appointment store(AppointmentStatus status, LocalDate date) {
+        Appointment appointment = Appointment.builder().appointmentCode(UUID.randomUUID()).status(status)
+                .business(business).businessUnit(unit).businessService(businessService).user(user)
+                .date(date).day(Day.MONDAY).startTime(TEN).endTime(ELEVEN).build();
+        return save(appointment);
+    }
+
+    private synchronized Appointment save(Appointment appointment) {
+        if (appointment.getId() == 0) {
+            if (appointment.getStatus() == AppointmentStatus.ACCEPTED && stored.stream().anyMatch(other ->
+                    other.getStatus() == AppointmentStatus.ACCEPTED
+                            && other.getBusinessUnit().getId() == appointment.getBusinessUnit().getId()
+                            && other.getDate().equals(appointment.getDate())
+                            && other.getStartTime().isBefore(appointment.getEndTime())
+                            && appointment.getStartTime().isBefore(other.getEndTime()))) {
+                overlappingBookings.incrementAndGet();
+            }
+            appointment.setId(nextId.getAndIncrement());
+            stored.add(appointment);
+        }
+        return appointment;
+    }
+
+    private BusinessUnit unit(int id) {
+        return BusinessUnit.builder().id(id).businessUnitCode(UUID.randomUUID()).business(business).build();
+    }
+
+    private static String encode(UUID code) throws GeneralSecurityException {
+        return PublicCode.encode(code.toString(), ENCRYPTION_KEY.value());
+    }
+
+    /**
+     * Answers the derived queries the appointment service and the availability index use from {@link #stored}.
+     */
+    @SuppressWarnings("unchecked")
+    private AppointmentRepository appointmentRepository() {
+        return (AppointmentRepository) Proxy.newProxyInstance(AppointmentRepository.class.getClassLoader(),
+                new Class<?>[]{AppointmentRepository.class}, (proxy, method, args) -> {
+                    synchronized (this) {
+                        switch (method.getName()) {
+                            case "saveAndFlush":
+                            case "save":
+                                return save((Appointment) args[0]);
+                            case "delete":
+                                stored.remove(args[0]);
+                                return null;
+                            case "findById":
+                                return stored.stream().filter(a -> args[0].equals(a.getId())).findFirst();
+                            case "findByAppointmentCode":
+                                return stored.stream().filter(a -> args[0].equals(a.getAppointmentCode())).findFirst();
+                            case "findFirstByBusinessUnitAndDateAndStartTimeAndEndTimeAndStatusOrderByIdAsc":
+                                return stored.stream()
+                                        .filter(a -> a.getBusinessUnit().getId() == ((BusinessUnit) args[0]).getId()
+                                                && a.getDate().equals(args[1]) && a.getStartTime().equals(args[2])
+                                                && a.getEndTime().equals(args[3]) && a.getStatus() == args[4])
+                                        .min(Comparator.comparingInt(Appointment::getId));
+                            case "findAllByBusinessUnitInAndDateInAndStatus":
+                                List<Appointment> found = new ArrayList<>();
+                                for (Appointment a : stored) {
+                                    boolean unitMatches = ((Collection<BusinessUnit>) args[0]).stream().anyMatch(u -> u.getId() == a.getBusinessUnit().getId());
+                                    if (unitMatches && ((Collection<LocalDate>) args[1]).contains(a.getDate()) && a.getStatus() == args[2]) {
+                                        found.add(a);
+                                    }
+                                }
+                                return found;
+                            default:
+                                return method.getReturnType() == Optional.class ? Optional.empty() : null;
+                        }
+                    }
+                });
+    }
+
+    /**
+     * A repository finding its single entity by id or by code.
+     */
+    private static <T> T repository(Class<T> type, Object entity) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> method.getReturnType() == Optional.class ? Optional.of(entity) : null));
+    }
+
+    private EmailService emailService() {
+        return (EmailService) Proxy.newProxyInstance(EmailService.class.getClassLoader(), new Class<?>[]{EmailService.class},
+                (proxy, method, args) -> {
+                    mailsSent.incrementAndGet();
+                    return null;
+                });
+    }
+
+    private static TemplateService templateService() {
+        return (TemplateService) Proxy.newProxyInstance(TemplateService.class.getClassLoader(), new Class<?>[]{TemplateService.class},
+                (proxy, method, args) -> "");
+    }
+}
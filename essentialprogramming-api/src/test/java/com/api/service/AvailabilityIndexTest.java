@@ -0,0 +1,99 @@
+package com.api.service;
+
+import com.api.entities.BusinessUnit;
+import com.api.entities.ServiceDetail;
+import com.api.repository.AppointmentRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+public class AvailabilityIndexTest {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 3, 2);
+    private static final LocalTime TEN = LocalTime.of(10, 0);
+    private static final LocalTime ELEVEN = LocalTime.of(11, 0);
+
+    // no appointment is stored, the units are only booked by the tests
+    private final AppointmentRepository appointmentRepository = (AppointmentRepository) Proxy.newProxyInstance(
+            AppointmentRepository.class.getClassLoader(), new Class<?>[]{AppointmentRepository.class},
+            (proxy, method, args) -> Collections.emptyList());
+
+    private final AvailabilityIndex availabilityIndex = new AvailabilityIndex(appointmentRepository);
+    private final BusinessUnit first = unit(1);
+    private final BusinessUnit second = unit(2);
+
+    @Test
+    void held_interval_is_busy_for_other_bookings() {
+        SlotHold hold = availabilityIndex.hold("ana@mail.com", 7, Arrays.asList(first, second), DATE, TEN, ELEVEN).get();
+
+        Assertions.assertEquals(first.getId(), hold.getUnitId());
+        Assertions.assertEquals(first.getBusinessUnitCode(), hold.getUnitCode());
+        Assertions.assertFalse(availabilityIndex.tryBook(first, DATE, LocalTime.of(10, 30), LocalTime.of(11, 30)));
+        Assertions.assertTrue(availabilityIndex.tryBook(first, DATE, ELEVEN, LocalTime.of(12, 0)));
+        Assertions.assertEquals(second, availabilityIndex.bookFreeUnit(Arrays.asList(first, second), DATE, TEN, ELEVEN).get());
+        Assertions.assertFalse(availabilityIndex.hold("ion@mail.com", 7, Arrays.asList(first, second), DATE, TEN, ELEVEN).isPresent());
+    }
+
+    @Test
+    void hold_is_claimed_once_by_its_owner_for_its_interval() {
+        String code = availabilityIndex.hold("ana@mail.com", 7, Collections.singletonList(first), DATE, TEN, ELEVEN).get().getCode();
+
+        Assertions.assertFalse(availabilityIndex.claim(code, "ion@mail.com", 7, DATE, TEN, ELEVEN).isPresent());
+        Assertions.assertFalse(availabilityIndex.claim(code, "ana@mail.com", 8, DATE, TEN, ELEVEN).isPresent());
+        Assertions.assertFalse(availabilityIndex.claim(code, "ana@mail.com", 7, DATE, TEN, LocalTime.of(10, 30)).isPresent());
+        Assertions.assertFalse(availabilityIndex.claim(UUID.randomUUID().toString(), "ana@mail.com", 7, DATE, TEN, ELEVEN).isPresent());
+
+        Assertions.assertTrue(availabilityIndex.claim(code, "ana@mail.com", 7, DATE, TEN, ELEVEN).isPresent());
+        Assertions.assertFalse(availabilityIndex.claim(code, "ana@mail.com", 7, DATE, TEN, ELEVEN).isPresent());
+        // the claimed interval stays booked for the appointment
+        Assertions.assertFalse(availabilityIndex.tryBook(first, DATE, TEN, ELEVEN));
+    }
+
+    @Test
+    void free_slots_leave_out_held_intervals() {
+        ServiceDetail serviceDetail = ServiceDetail.builder().startTime(LocalTime.of(9, 0)).endTime(LocalTime.of(12, 0)).duration(60).build();
+        availabilityIndex.hold("ana@mail.com", 7, Collections.singletonList(first), DATE, TEN, ELEVEN);
+
+        Assertions.assertEquals(Arrays.asList(LocalTime.of(9, 0), ELEVEN),
+                availabilityIndex.freeSlots(Collections.singletonList(first), DATE, serviceDetail));
+        Assertions.assertEquals(Arrays.asList(LocalTime.of(9, 0), TEN, ELEVEN),
+                availabilityIndex.freeSlots(Arrays.asList(first, second), DATE, serviceDetail));
+    }
+
+    @Test
+    void rollback_releases_only_the_interval_of_its_transaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            Assertions.assertTrue(availabilityIndex.tryBook(first, DATE, TEN, ELEVEN));
+            TransactionSynchronization rolledBack = TransactionSynchronizationManager.getSynchronizations().get(0);
+            // booked by another lane whose transaction is still running
+            Assertions.assertTrue(availabilityIndex.tryBook(first, DATE, ELEVEN, LocalTime.of(12, 0)));
+
+            rolledBack.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+            Assertions.assertFalse(availabilityIndex.tryBook(first, DATE, ELEVEN, LocalTime.of(12, 0)));
+            Assertions.assertTrue(availabilityIndex.tryBook(first, DATE, TEN, ELEVEN));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void free_unit_is_found_without_booking_it() {
+        Assertions.assertEquals(first, availabilityIndex.freeUnit(Arrays.asList(first, second), DATE, TEN, ELEVEN).get());
+        Assertions.assertTrue(availabilityIndex.tryBook(first, DATE, TEN, ELEVEN));
+        Assertions.assertEquals(second, availabilityIndex.freeUnit(Arrays.asList(first, second), DATE, TEN, ELEVEN).get());
+    }
+
+    private static BusinessUnit unit(int id) {
+        return BusinessUnit.builder().id(id).businessUnitCode(UUID.randomUUID()).build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.api.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+public class BookingLanesTest {
+
+    @Test
+    void concurrent_bookings_never_overlap_on_a_unit() throws Exception {
+        BookingLanes bookingLanes = new BookingLanes();
+        ExecutorService clients = Executors.newFixedThreadPool(32);
+        // stands for the appointment table: a booking checks the unit then inserts, like AppointmentService.save
+        List<List<int[]>> accepted = new ArrayList<>();
+        for (int unit = 0; unit < 4; unit++) {
+            accepted.add(new ArrayList<>());
+        }
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> bookings = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                bookings.add(clients.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    int unit = random.nextInt(accepted.size());
+                    int startMinute = 8 * 60 + random.nextInt(8 * 60);
+                    int endMinute = startMinute + 15 + random.nextInt(60);
+                    start.await();
+                    return bookingLanes.execute(BookingLanes.unit(unit), () -> {
+                        List<int[]> unitBookings = accepted.get(unit);
+                        boolean free = unitBookings.stream().noneMatch(booking -> booking[0] < endMinute && startMinute < booking[1]);
+                        Thread.yield();
+                        if (free) {
+                            unitBookings.add(new int[]{startMinute, endMinute});
+                        }
+                        return free;
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> booking : bookings) {
+                booking.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            clients.shutdownNow();
+            bookingLanes.close();
+        }
+
+        for (List<int[]> unitBookings : accepted) {
+            Assertions.assertFalse(unitBookings.isEmpty());
+            for (int i = 0; i < unitBookings.size(); i++) {
+                for (int j = i + 1; j < unitBookings.size(); j++) {
+                    int[] first = unitBookings.get(i);
+                    int[] second = unitBookings.get(j);
+                    Assertions.assertFalse(first[0] < second[1] && second[0] < first[1],
+                            "overlapping bookings " + first[0] + "-" + first[1] + " and " + second[0] + "-" + second[1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void lanes_of_a_unit_are_equal() {
+        Assertions.assertEquals(BookingLanes.unit(1), BookingLanes.unit(1));
+        Assertions.assertNotEquals(BookingLanes.unit(1), BookingLanes.unit(2));
+        Assertions.assertEquals(1, BookingLanes.unit(1).getBusinessUnitId());
+    }
+
+    @Test
+    void command_failure_reaches_the_caller() {
+        BookingLanes bookingLanes = new BookingLanes();
+        try {
+            IllegalStateException e = Assertions.assertThrows(IllegalStateException.class,
+                    () -> bookingLanes.execute(BookingLanes.unit(1), () -> {
+                        throw new IllegalStateException("slot taken");
+                    }));
+            Assertions.assertEquals("slot taken", e.getMessage());
+        } finally {
+            bookingLanes.close();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.api.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class DayScheduleTest {
+
+    private final DaySchedule schedule = new DaySchedule();
+
+    @Test
+    void touching_intervals_do_not_overlap() {
+        schedule.book(LocalTime.of(10, 0), LocalTime.of(11, 0));
+
+        Assertions.assertTrue(schedule.isFree(LocalTime.of(9, 0), LocalTime.of(10, 0)));
+        Assertions.assertTrue(schedule.isFree(LocalTime.of(11, 0), LocalTime.of(12, 0)));
+        Assertions.assertFalse(schedule.isFree(LocalTime.of(9, 0), LocalTime.of(10, 1)));
+        Assertions.assertFalse(schedule.isFree(LocalTime.of(10, 59), LocalTime.of(11, 30)));
+        Assertions.assertFalse(schedule.isFree(LocalTime.of(10, 15), LocalTime.of(10, 30)));
+        Assertions.assertFalse(schedule.isFree(LocalTime.of(8, 0), LocalTime.of(12, 0)));
+    }
+
+    @Test
+    void intervals_spanning_several_words_are_checked_in_full() {
+        schedule.book(LocalTime.of(23, 58), LocalTime.of(23, 59));
+
+        Assertions.assertTrue(schedule.isFree(LocalTime.of(0, 0), LocalTime.of(23, 58)));
+        Assertions.assertFalse(schedule.isFree(LocalTime.of(0, 0), LocalTime.of(23, 59)));
+        Assertions.assertTrue(schedule.isFree(LocalTime.of(1, 4), LocalTime.of(2, 8)));
+    }
+
+    @Test
+    void releasing_a_booking_keeps_the_overlapping_ones() {
+        schedule.book(LocalTime.of(10, 0), LocalTime.of(11, 0));
+        schedule.book(LocalTime.of(10, 30), LocalTime.of(11, 30));
+
+        Assertions.assertTrue(schedule.release(LocalTime.of(10, 0), LocalTime.of(11, 0)));
+        Assertions.assertFalse(schedule.release(LocalTime.of(10, 0), LocalTime.of(11, 0)));
+
+        Assertions.assertTrue(schedule.isFree(LocalTime.of(10, 0), LocalTime.of(10, 30)));
+        Assertions.assertFalse(schedule.isFree(LocalTime.of(10, 0), LocalTime.of(10, 31)));
+    }
+
+    @Test
+    void slots_overlapping_a_booking_are_taken() {
+        schedule.book(LocalTime.of(10, 0), LocalTime.of(10, 45));
+        SlotTemplate template = SlotTemplate.of(LocalTime.of(9, 0), LocalTime.of(12, 0), 30);
+
+        Assertions.assertEquals(
+                Arrays.asList(LocalTime.of(9, 0), LocalTime.of(9, 30), LocalTime.of(11, 0), LocalTime.of(11, 30)),
+                freeSlots(template, schedule));
+    }
+
+    @Test
+    void free_slots_of_several_units_are_merged() {
+        DaySchedule other = new DaySchedule();
+        schedule.book(LocalTime.of(9, 0), LocalTime.of(10, 0));
+        other.book(LocalTime.of(9, 30), LocalTime.of(11, 0));
+        SlotTemplate template = SlotTemplate.of(LocalTime.of(9, 0), LocalTime.of(11, 0), 30);
+
+        Assertions.assertEquals(Arrays.asList(LocalTime.of(10, 0), LocalTime.of(10, 30)), freeSlots(template, schedule));
+        Assertions.assertEquals(Arrays.asList(LocalTime.of(9, 0), LocalTime.of(10, 0), LocalTime.of(10, 30)), freeSlots(template, schedule, other));
+    }
+
+    @Test
+    void free_slots_match_a_slot_by_slot_check() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            DaySchedule day = new DaySchedule();
+            for (int booking = random.nextInt(8); booking > 0; booking--) {
+                int start = random.nextInt(DaySchedule.MINUTES_PER_DAY - 1);
+                int end = start + 1 + random.nextInt(Math.min(240, DaySchedule.MINUTES_PER_DAY - 1 - start));
+                day.book(time(start), time(end));
+            }
+            int start = random.nextInt(DaySchedule.MINUTES_PER_DAY - 1);
+            int end = start + 1 + random.nextInt(DaySchedule.MINUTES_PER_DAY - 1 - start);
+            int duration = 1 + random.nextInt(200);
+
+            List<LocalTime> expected = new ArrayList<>();
+            for (int slot = start; slot < end; slot += duration) {
+                // bookings end at 23:59 at the latest
+                int slotEnd = Math.min(slot + duration, DaySchedule.MINUTES_PER_DAY - 1);
+                if (day.isFree(time(slot), time(slotEnd))) {
+                    expected.add(time(slot));
+                }
+            }
+
+            Assertions.assertEquals(expected, freeSlots(SlotTemplate.of(time(start), time(end), duration), day));
+        }
+    }
+
+    private static List<LocalTime> freeSlots(SlotTemplate template, DaySchedule... schedules) {
+        long[] freeSlots = new long[DaySchedule.WORDS];
+        for (DaySchedule day : schedules) {
+            day.addFreeSlots(template, freeSlots);
+        }
+        return SlotTemplate.startTimes(freeSlots);
+    }
+
+    private static LocalTime time(int minute) {
+        return LocalTime.of(minute / 60, minute % 60);
+    }
+}
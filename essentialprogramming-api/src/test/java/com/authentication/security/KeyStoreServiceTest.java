@@ -3,8 +3,16 @@ package com.authentication.security;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.util.Base64;
 
 public class KeyStoreServiceTest {
 
@@ -26,4 +34,135 @@ public class KeyStoreServiceTest {
         Assertions.assertNotNull(privateKey);
         Assertions.assertEquals("RSA", privateKey.getAlgorithm());
     }
+
+    @Test
+    void keys_are_parsed_once() {
+        Assertions.assertSame(keyStoreService.getPublicKey(), keyStoreService.getPublicKey());
+        Assertions.assertSame(keyStoreService.getPrivateKey(), keyStoreService.getPrivateKey());
+    }
+
+    @Test
+    void reload_swaps_rotated_keys() throws IOException, NoSuchAlgorithmException {
+        Path directory = Files.createTempDirectory("keys");
+        Path publicKeyFile = directory.resolve("public-key.pem");
+        Path privateKeyFile = directory.resolve("private-key.pem");
+
+        KeyPair first = generateKeyPair();
+        writeKeyPair(first, publicKeyFile, privateKeyFile);
+
+        KeyStoreService rotatingKeyStore = keyStore(publicKeyFile, privateKeyFile);
+
+        try {
+            Assertions.assertEquals(first.getPublic(), rotatingKeyStore.getPublicKey());
+
+            KeyPair second = generateKeyPair();
+            writeKeyPair(second, publicKeyFile, privateKeyFile);
+            rotatingKeyStore.reload();
+
+            Assertions.assertEquals(second.getPublic(), rotatingKeyStore.getPublicKey());
+            Assertions.assertArrayEquals(second.getPrivate().getEncoded(), rotatingKeyStore.getPrivateKey().getEncoded());
+
+            // a half written file keeps the current key
+            Files.write(publicKeyFile, "-----BEGIN RSA PUBLIC KEY-----\nMIIB".getBytes(StandardCharsets.US_ASCII));
+            rotatingKeyStore.reload();
+
+            Assertions.assertEquals(second.getPublic(), rotatingKeyStore.getPublicKey());
+        } finally {
+            rotatingKeyStore.close();
+        }
+    }
+
+    @Test
+    void reload_waits_for_both_files_of_a_rotation() throws IOException, NoSuchAlgorithmException {
+        Path directory = Files.createTempDirectory("keys");
+        Path publicKeyFile = directory.resolve("public-key.pem");
+        Path privateKeyFile = directory.resolve("private-key.pem");
+
+        KeyPair first = generateKeyPair();
+        writeKeyPair(first, publicKeyFile, privateKeyFile);
+        KeyStoreService rotatingKeyStore = keyStore(publicKeyFile, privateKeyFile);
+
+        try {
+            KeyStoreService.SigningKeys firstKeys = rotatingKeyStore.getSigningKeys();
+
+            // only the public key of the new pair is written yet
+            KeyPair second = generateKeyPair();
+            Files.write(publicKeyFile, pem("RSA PUBLIC KEY", second.getPublic().getEncoded()));
+            rotatingKeyStore.reload();
+
+            Assertions.assertSame(firstKeys, rotatingKeyStore.getSigningKeys());
+
+            Files.write(privateKeyFile, pem("RSA PRIVATE KEY", second.getPrivate().getEncoded()));
+            rotatingKeyStore.reload();
+
+            KeyStoreService.SigningKeys secondKeys = rotatingKeyStore.getSigningKeys();
+            Assertions.assertEquals(second.getPublic(), secondKeys.getPublicKey());
+            Assertions.assertArrayEquals(second.getPrivate().getEncoded(), secondKeys.getPrivateKey().getEncoded());
+            Assertions.assertEquals(KeyStoreService.keyId(second.getPublic()), secondKeys.getKeyId());
+        } finally {
+            rotatingKeyStore.close();
+        }
+    }
+
+    @Test
+    void key_ring_keeps_the_previous_key_after_a_rotation()throws IOException, NoSuchAlgorithmException {
+        Path directory = Files.createTempDirectory("keys");
+        Path publicKeyFile = directory.resolve("public-key.pem");
+        Path privateKeyFile = directory.resolve("private-key.pem");
+
+        KeyPair first = generateKeyPair();
+        writeKeyPair(first, publicKeyFile, privateKeyFile);
+        KeyStoreService rotatingKeyStore = keyStore(publicKeyFile, privateKeyFile);
+
+        try {
+            String firstKeyId = KeyStoreService.keyId(first.getPublic());
+            Assertions.assertEquals(first.getPublic(), rotatingKeyStore.getKey(firstKeyId));
+            Assertions.assertEquals(first.getPublic(), rotatingKeyStore.getKey(null));
+            Assertions.assertNull(rotatingKeyStore.getKey("unknown"));
+
+            KeyPair second = generateKeyPair();
+            writeKeyPair(second, publicKeyFile, privateKeyFile);
+            rotatingKeyStore.reload();
+            rotatingKeyStore.reload();
+
+            String secondKeyId = KeyStoreService.keyId(second.getPublic());
+            Assertions.assertEquals(second.getPublic(), rotatingKeyStore.getKey(secondKeyId));
+            Assertions.assertEquals(first.getPublic(), rotatingKeyStore.getKey(firstKeyId));
+
+            String jwks = rotatingKeyStore.getJwks();
+            Assertions.assertTrue(jwks.contains(secondKeyId));
+            Assertions.assertTrue(jwks.contains(firstKeyId));
+        } finally {
+            rotatingKeyStore.close();
+        }
+    }
+
+    private static KeyStoreService keyStore(Path publicKeyFile, Path privateKeyFile) {
+        System.setProperty("PUBLIC_KEY_FILE_PATH", publicKeyFile.toString());
+        System.setProperty("PRIVATE_KEY_FILE_PATH", privateKeyFile.toString());
+        try {
+            return new KeyStoreService();
+        } finally {
+            System.clearProperty("PUBLIC_KEY_FILE_PATH");
+            System.clearProperty("PRIVATE_KEY_FILE_PATH");
+        }
+    }
+
+    private static KeyPair generateKeyPair() throws NoSuchAlgorithmException {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    private static void writeKeyPair(KeyPair keyPair, Path publicKeyFile, Path privateKeyFile) throws IOException {
+        Files.write(publicKeyFile, pem("RSA PUBLIC KEY", keyPair.getPublic().getEncoded()));
+        Files.write(privateKeyFile, pem("RSA PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+    }
+
+    private static byte[] pem(String type, byte[] encoded) {
+        String pem = "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder().encodeToString(encoded)
+                + "\n-----END " + type + "-----\n";
+        return pem.getBytes(StandardCharsets.US_ASCII);
+    }
 }
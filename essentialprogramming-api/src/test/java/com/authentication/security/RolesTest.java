@@ -1,6 +1,6 @@
 package com.authentication.security;
 
-import com.api.config.SecurityFilter;
+import com.token.validation.auth.UserPrincipal;
 import com.token.validation.jwt.JwtClaims;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -17,6 +17,6 @@ public class RolesTest {
         JwtClaims claims = new JwtClaims();
         claims.setRoles("admin, visitor");
 
-        Assertions.assertTrue(SecurityFilter.isUserAllowed(claims, roles));
+        Assertions.assertTrue(UserPrincipal.fromClaims(claims).hasAnyRole(roles));
     }
 }
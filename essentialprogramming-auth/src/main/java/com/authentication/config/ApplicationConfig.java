@@ -4,6 +4,7 @@ package com.authentication.config;
 import com.authentication.config.CorsFilter;
 import com.authentication.config.LanguageContextProvider;
 import com.authentication.controller.AuthenticationController;
+import com.authentication.controller.KeySetController;
 import com.fasterxml.jackson.jaxrs.json.JacksonJaxbJsonProvider;
 import com.util.enums.Language;
 import io.swagger.v3.jaxrs2.integration.resources.AcceptHeaderOpenApiResource;
@@ -29,6 +30,7 @@ public class ApplicationConfig extends ResourceConfig {
 
         register(CorsFilter.class);
         register(AuthenticationController.class);
+        register(KeySetController.class);
         register(JacksonJaxbJsonProvider.class);
 
         register(new AbstractBinder(){
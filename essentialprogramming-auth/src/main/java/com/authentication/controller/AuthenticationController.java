@@ -3,6 +3,7 @@ package com.authentication.controller;
 import com.authentication.channel.AccessChannel;
 import com.identityprovider.model.PasswordInput;
 import com.authentication.request.AuthRequest;
+import com.authentication.request.RefreshTokenRequest;
 import com.authentication.response.AccessToken;
 import com.authentication.service.AuthenticationService;
 import com.config.spring.ExecutorsProvider;
@@ -10,8 +11,10 @@ import com.exceptions.ExceptionHandler;
 import com.exceptions.PasswordException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.util.async.Computation;
+import com.util.cloud.DeploymentConfiguration;
 import com.util.enums.Language;
 import com.util.exceptions.ApiException;
+import com.util.web.ClientAddressResolver;
 import com.web.json.JsonResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -34,6 +37,13 @@ import java.util.concurrent.ExecutorService;
 @Path("/")
 public class AuthenticationController {
 
+    /**
+     * Reverse proxies (TRUSTED_PROXIES, comma separated addresses) whose X-Forwarded-For header names the client
+     * that login attempts are throttled by.
+     */
+    private static final ClientAddressResolver CLIENT_ADDRESS_RESOLVER =
+            ClientAddressResolver.of(DeploymentConfiguration.getProperty("TRUSTED_PROXIES", ""));
+
     @Context
     private HttpServletRequest httpRequest;
 
@@ -61,18 +71,53 @@ public class AuthenticationController {
                     @ApiResponse(responseCode = "401", description = "Unauthorized",
                             content = @Content(mediaType = "application/json",
                                     schema = @Schema(implementation = JsonResponse.class))),
+                    @ApiResponse(responseCode = "429", description = "Too many login attempts, retry after the Retry-After header delay",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = JsonResponse.class))),
             })
     public void authenticate(AuthRequest tokenRequest, @Suspended AsyncResponse asyncResponse) {
 
+        String clientAddress = clientAddress();
+        ExecutorService executorService = ExecutorsProvider.getExecutorService();
+        Computation.computeAsync(() -> authenticate(tokenRequest, clientAddress), executorService)
+                .thenApplyAsync(json -> asyncResponse.resume(Response.ok(json).build()), executorService)
+                .exceptionally(error -> asyncResponse.resume(ExceptionHandler.handleException((CompletionException) error)));
+
+    }
+
+    private String clientAddress() {
+        return CLIENT_ADDRESS_RESOLVER.resolve(httpRequest.getRemoteAddr(), httpRequest.getHeader(ClientAddressResolver.FORWARDED_FOR));
+    }
+
+    private AccessToken authenticate(AuthRequest authRequest, String clientAddress) throws GeneralSecurityException, JsonProcessingException, ApiException {
+        return authenticationService.authenticate(authRequest, AccessChannel.PASSWORD, clientAddress, language);
+    }
+
+
+    @POST
+    @Path("token/refresh")
+    @Consumes("application/json")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Exchange a refresh token for a new JWT token and a new refresh token.", tags = {"Authorization",},
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Returns JWT token if the refresh token is valid and was not used before",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = AccessToken.class))),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = JsonResponse.class))),
+            })
+    public void refresh(RefreshTokenRequest refreshTokenRequest, @Suspended AsyncResponse asyncResponse) {
+
         ExecutorService executorService = ExecutorsProvider.getExecutorService();
-        Computation.computeAsync(() -> authenticate(tokenRequest), executorService)
+        Computation.computeAsync(() -> refresh(refreshTokenRequest), executorService)
                 .thenApplyAsync(json -> asyncResponse.resume(Response.ok(json).build()), executorService)
                 .exceptionally(error -> asyncResponse.resume(ExceptionHandler.handleException((CompletionException) error)));
 
     }
 
-    private AccessToken authenticate(AuthRequest authRequest) throws GeneralSecurityException, JsonProcessingException, ApiException {
-        return authenticationService.authenticate(authRequest, AccessChannel.PASSWORD, language);
+    private AccessToken refresh(RefreshTokenRequest refreshTokenRequest) throws GeneralSecurityException, JsonProcessingException, ApiException {
+        return authenticationService.authenticate(refreshTokenRequest, AccessChannel.REFRESH_TOKEN, null, language);
     }
 
 
@@ -116,15 +161,16 @@ public class AuthenticationController {
             })
     public void otpLogin(AuthRequest tokenRequest, @Suspended AsyncResponse asyncResponse) {
 
+        String clientAddress = clientAddress();
         ExecutorService executorService = ExecutorsProvider.getExecutorService();
-        Computation.computeAsync(() -> otpLogin(tokenRequest), executorService)
+        Computation.computeAsync(() -> otpLogin(tokenRequest, clientAddress), executorService)
                 .thenApplyAsync(json -> asyncResponse.resume(Response.ok(json).build()), executorService)
                 .exceptionally(error -> asyncResponse.resume(ExceptionHandler.handleException((CompletionException) error)));
 
     }
 
-    private AccessToken otpLogin(AuthRequest authRequest) throws GeneralSecurityException, JsonProcessingException, ApiException {
-        return authenticationService.authenticate(authRequest, AccessChannel.OTP, language);
+    private AccessToken otpLogin(AuthRequest authRequest, String clientAddress) throws GeneralSecurityException, JsonProcessingException, ApiException {
+        return authenticationService.authenticate(authRequest, AccessChannel.OTP, clientAddress, language);
     }
 
     @POST
@@ -0,0 +1,59 @@
+package com.authentication.controller;
+
+import com.authentication.security.KeyStoreService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+
+import static com.util.cloud.DeploymentConfiguration.getProperty;
+
+/**
+ * Publishes the keys verifying the tokens, so services deployed on their own can verify tokens without the PEM files.
+ */
+@Path("/")
+public class KeySetController {
+
+    private static final int JWKS_MAX_AGE_SECONDS = getProperty("JWKS_MAX_AGE_SECONDS", 300);
+
+    @Context
+    private Request request;
+
+    private final KeyStoreService keyStoreService;
+
+
+    @Autowired
+    public KeySetController(KeyStoreService keyStoreService) {
+        this.keyStoreService = keyStoreService;
+    }
+
+
+    @GET
+    @Path(".well-known/jwks.json")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Public keys verifying the tokens, as a JSON Web Key Set.", tags = {"Authorization",},
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Returns the current and the previous public key"),
+                    @ApiResponse(responseCode = "304", description = "The keys did not change since the ETag sent"),
+            })
+    public Response getKeySet() {
+        String jwks = keyStoreService.getJwks();
+        EntityTag entityTag = new EntityTag(Integer.toHexString(jwks.hashCode()));
+
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setMaxAge(JWKS_MAX_AGE_SECONDS);
+
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+        Response.ResponseBuilder response = notModified != null ? notModified : Response.ok(jwks);
+        return response.tag(entityTag).cacheControl(cacheControl).build();
+    }
+}
@@ -9,6 +9,7 @@ public class AuthRequest implements TokenRequest {
 
     private String username;
     private String password;
+    private String otp;
 
     public String getUsername() {
         return username;
@@ -24,6 +25,13 @@ public class AuthRequest implements TokenRequest {
         this.password = password;
     }
 
+    public String getOtp() {
+        return otp;
+    }
+    public void setOtp(String otp) {
+        this.otp = otp;
+    }
+
 
 }
 
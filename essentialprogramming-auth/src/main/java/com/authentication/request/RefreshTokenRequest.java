@@ -0,0 +1,20 @@
+package com.authentication.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "RefreshToken", description = "A refresh token obtained from a previous authentication.")
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RefreshTokenRequest implements TokenRequest {
+
+    private String refreshToken;
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+
+}
@@ -1,18 +1,47 @@
 package com.authentication.security;
 
 import com.exceptions.codes.ErrorCode;
+import com.token.validation.keys.JsonWebKeys;
+import com.token.validation.keys.KeyRing;
+import com.token.validation.signature.SignatureAlgorithm;
 import com.util.cloud.DeploymentConfiguration;
 import com.util.cloud.DeploymentStrategy;
 import com.util.cloud.SystemProperty;
 import com.util.exceptions.ServiceException;
+import com.util.io.InputResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.*;
 import java.security.*;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Holds the key pair used to sign and verify tokens.
+ * <p/>
+ * The keys match the signing algorithm set with TOKEN_SIGNING_ALGORITHM: RS256 (default), ES256 or EdDSA (Ed25519,
+ * needs Java 15+). Public keys are read as X.509 and private keys as PKCS#8 PEM files.
+ * <p/>
+ * Keys are parsed once and kept in memory. When the PEM files live on the file system they are watched,
+ * and the keys are swapped in together once both files parse and hold the same key pair, so keys can be rotated
+ * without a restart. A file that cannot be parsed (e.g. still being written) leaves the current keys in place.
+ * <p/>
+ * As a {@link KeyRing} it resolves the kid of a token to the current public key or to the one it replaced,
+ * so tokens signed just before a rotation stay valid until they expire. Both keys are published as a JWKS document.
+ */
 @Service
-public class KeyStoreService {
+public class KeyStoreService implements KeyRing {
 
     private static final Logger LOG = LoggerFactory.getLogger(KeyStoreService.class);
 
@@ -21,8 +50,16 @@ public class KeyStoreService {
     private static final String DEFAULT_PUBLIC_KEY_FILE_PATH = "classpath:pem/public-key.pem";
     private static final String DEFAULT_PRIVATE_KEY_FILE_PATH = "classpath:pem/private-key.pem";
     private static final String DEPLOYMENT_STRATEGY = "DEPLOYMENT_STRATEGY";
+    private static final String KEY_STORE_WATCH = "KEY_STORE_WATCH";
+    private static final String TOKEN_SIGNING_ALGORITHM = "TOKEN_SIGNING_ALGORITHM";
+    private static final int KEY_ID_LENGTH = 12;
     private final String publicKeyFilePath;
     private final String privateKeyFilePath;
+    private final SignatureAlgorithm signingAlgorithm;
+
+    private volatile SigningKeys signingKeys;
+
+    private WatchService watchService;
 
     public KeyStoreService() {
         DeploymentStrategy deploymentStrategy = DeploymentStrategy.valueOf(DeploymentConfiguration.getProperty(DEPLOYMENT_STRATEGY, "STANDALONE"));
@@ -33,26 +70,259 @@ public class KeyStoreService {
         final SystemProperty privateKeyConfig = new SystemProperty(PRIVATE_KEY_FILE_PATH, deploymentStrategy);
         privateKeyFilePath = privateKeyConfig.getValue(DEFAULT_PRIVATE_KEY_FILE_PATH);
 
+        signingAlgorithm = SignatureAlgorithm.forValue(DeploymentConfiguration.getProperty(TOKEN_SIGNING_ALGORITHM, "RS256"));
+        if (!signingAlgorithm.isRsa() && !signingAlgorithm.isEcdsa() && !signingAlgorithm.isEdDsa()) {
+            throw new IllegalArgumentException("Tokens must be signed with a private key, " + signingAlgorithm.getValue() + " is not supported");
+        }
 
+        if (DeploymentConfiguration.getProperty(KEY_STORE_WATCH, Boolean.TRUE)) {
+            watchKeyFiles();
+        }
+    }
+
+    /**
+     * The current key pair with its kid and the public keys tokens are verified with, all from the same rotation.
+     * Callers signing a token should take the keys and the kid from one snapshot.
+     */
+    public SigningKeys getSigningKeys() {
+        SigningKeys keys = signingKeys;
+        if (keys == null) {
+            synchronized (this) {
+                if (signingKeys == null) {
+                    publish(loadPublicKey(), loadPrivateKey());
+                }
+                keys = signingKeys;
+            }
+        }
+        return keys;
     }
 
     public PublicKey getPublicKey() {
+        return getSigningKeys().publicKey;
+    }
+
+    public PrivateKey getPrivateKey() {
+        return getSigningKeys().privateKey;
+    }
+
+    /**
+     * @param keyId the kid of a token, null for tokens issued before tokens carried a kid
+     * @return the current public key or the previous one, null for an unknown kid
+     */
+    @Override
+    public Key getKey(String keyId) {
+        SigningKeys keys = getSigningKeys();
+        if (keyId == null) {
+            return keys.publicKey;
+        }
+        return keys.verificationKeys.get(keyId);
+    }
+
+    /**
+     * The current and previous public keys as a JSON Web Key Set, built once per rotation.
+     */
+    public String getJwks() {
+        return getSigningKeys().jwks;
+    }
+
+    public SignatureAlgorithm getSigningAlgorithm() {
+        return signingAlgorithm;
+    }
+
+    /**
+     * Identifies the current key pair in the kid header of the tokens, derived from the public key
+     * so that it changes when the keys are rotated.
+     */
+    public String getKeyId() {
+        return getSigningKeys().keyId;
+    }
+
+    public static String keyId(PublicKey publicKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(publicKey.getEncoded());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, KEY_ID_LENGTH));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Re-reads both PEM files, keeping the current keys when either file cannot be parsed
+     * or the two files do not hold the same key pair yet.
+     */
+    public void reload() {
+        try {
+            publish(loadPublicKey(), loadPrivateKey());
+            LOG.info("Keys reloaded from {} and {}", publicKeyFilePath, privateKeyFilePath);
+        } catch (ServiceException e) {
+            LOG.warn("Keys not reloaded, keeping the current ones", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                LOG.warn("Unable to close key file watcher", e);
+            }
+        }
+    }
+
+    /**
+     * Swaps in the key pair once it is known to match, keeping the public key it replaces for the tokens it signed.
+     */
+    private synchronized void publish(PublicKey publicKey, PrivateKey privateKey) {
+        checkKeyPair(publicKey, privateKey);
+        String keyId = keyId(publicKey);
+        SigningKeys current = signingKeys;
+        if (current != null && keyId.equals(current.keyId)) {
+            // the files were written again with the same keys
+            return;
+        }
+        Map<String, PublicKey> keys = new LinkedHashMap<>();
+        keys.put(keyId, publicKey);
+        if (current != null) {
+            keys.put(current.keyId, current.publicKey);
+        }
+        signingKeys = new SigningKeys(privateKey, publicKey, keyId, Collections.unmodifiableMap(keys), JsonWebKeys.toJson(keys));
+    }
+
+    /**
+     * Signs a probe with the private key and verifies it with the public key, so that a rotation caught
+     * between writing the two files is not published.
+     */
+    private void checkKeyPair(PublicKey publicKey, PrivateKey privateKey) {
         try {
-            String pemEncodedRSAPublicKey = PemUtils.readKeyAsString(publicKeyFilePath);
-            return PemUtils.getPublicKeyFromPEM(pemEncodedRSAPublicKey);
+            byte[] probe = new byte[32];
+            new SecureRandom().nextBytes(probe);
+
+            Signature signer = Signature.getInstance(signingAlgorithm.getJcaName());
+            signer.initSign(privateKey);
+            signer.update(probe);
+            byte[] signature = signer.sign();
+
+            Signature verifier = Signature.getInstance(signingAlgorithm.getJcaName());
+            verifier.initVerify(publicKey);
+            verifier.update(probe);
+            if (!verifier.verify(signature)) {
+                throw new ServiceException(ErrorCode.KEY_PAIR_MISMATCH);
+            }
+        } catch (GeneralSecurityException e) {
+            throw new ServiceException(ErrorCode.KEY_PAIR_MISMATCH, e);
+        }
+    }
+
+    private PublicKey loadPublicKey() {
+        try {
+            String pemEncodedPublicKey = PemUtils.readKeyAsString(publicKeyFilePath);
+            return PemUtils.getPublicKeyFromPEM(pemEncodedPublicKey, signingAlgorithm.getFamilyName());
         } catch (Exception e) {
             LOG.error(ErrorCode.UNABLE_TO_GET_PUBLIC_KEY.getDescription());
             throw new ServiceException(ErrorCode.UNABLE_TO_GET_PUBLIC_KEY, e);
         }
     }
 
-    public PrivateKey getPrivateKey() {
+    private PrivateKey loadPrivateKey() {
         try {
-            String pemEncodedRSAPrivateKey = PemUtils.readKeyAsString(privateKeyFilePath);
-            return PemUtils.getPrivateKeyFromPEM(pemEncodedRSAPrivateKey);
+            String pemEncodedPrivateKey = PemUtils.readKeyAsString(privateKeyFilePath);
+            return PemUtils.getPrivateKeyFromPEM(pemEncodedPrivateKey, signingAlgorithm.getFamilyName());
         } catch (Exception e) {
             LOG.error(ErrorCode.UNABLE_TO_GET_PRIVATE_KEY.getDescription());
             throw new ServiceException(ErrorCode.UNABLE_TO_GET_PRIVATE_KEY, e);
         }
     }
+
+    /**
+     * Watches the directories of the key files, only possible for keys stored on the file system
+     * (keys packaged inside the application jar cannot change).
+     */
+    private void watchKeyFiles() {
+        Set<Path> keyFiles = new HashSet<>();
+        addIfOnFileSystem(keyFiles, publicKeyFilePath);
+        addIfOnFileSystem(keyFiles, privateKeyFilePath);
+        if (keyFiles.isEmpty()) {
+            return;
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            for (Path keyFile : keyFiles) {
+                keyFile.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to watch key files, keys will not be reloaded", e);
+            return;
+        }
+
+        Thread watcher = new Thread(() -> watch(keyFiles), "key-store-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watch(Set<Path> keyFiles) {
+        try {
+            while (true) {
+                WatchKey watchKey = watchService.take();
+                Path directory = (Path) watchKey.watchable();
+                boolean keyFileChanged = false;
+                for (WatchEvent<?> event : watchKey.pollEvents()) {
+                    if (event.context() instanceof Path && keyFiles.contains(directory.resolve((Path) event.context()))) {
+                        keyFileChanged = true;
+                    }
+                }
+                watchKey.reset();
+                if (keyFileChanged) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            LOG.debug("Key file watcher closed");
+        }
+    }
+
+    private static void addIfOnFileSystem(Set<Path> keyFiles, String keyLocation) {
+        try {
+            URL url = InputResource.getURL(keyLocation);
+            if ("file".equals(url.getProtocol())) {
+                keyFiles.add(Paths.get(url.toURI()).toAbsolutePath());
+            }
+        } catch (IOException | URISyntaxException e) {
+            LOG.debug("Key file {} is not watched", keyLocation, e);
+        }
+    }
+
+    /**
+     * A key pair as published by one rotation, never modified.
+     */
+    public static final class SigningKeys {
+        private final PrivateKey privateKey;
+        private final PublicKey publicKey;
+        private final String keyId;
+        private final Map<String, PublicKey> verificationKeys;
+        private final String jwks;
+
+        SigningKeys(PrivateKey privateKey, PublicKey publicKey, String keyId, Map<String, PublicKey> verificationKeys, String jwks) {
+            this.privateKey = privateKey;
+            this.publicKey = publicKey;
+            this.keyId = keyId;
+            this.verificationKeys = verificationKeys;
+            this.jwks = jwks;
+        }
+
+        public PrivateKey getPrivateKey() {
+            return privateKey;
+        }
+
+        public PublicKey getPublicKey() {
+            return publicKey;
+        }
+
+        public String getKeyId() {
+            return keyId;
+        }
+    }
 }
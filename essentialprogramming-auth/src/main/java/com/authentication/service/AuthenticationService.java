@@ -9,11 +9,14 @@ import com.exceptions.codes.ErrorCode;
 import com.identityprovider.model.ResetPasswordInput;
 import com.identityprovider.repository.AccountRepository;
 import com.identityprovider.service.AccountService;
+import com.identityprovider.service.OtpStore;
 import com.identityprovider.model.PasswordInput;
 import com.oauth2.OAuth2Constants;
+import com.authentication.request.RefreshTokenRequest;
 import com.authentication.request.TokenRequest;
 import com.exceptions.PasswordException;
 import com.internationalization.Messages;
+import com.token.validation.jwt.JwtClaims;
 import com.util.enums.HTTPCustomStatus;
 import com.util.enums.Language;
 import com.util.exceptions.ApiException;
@@ -40,17 +43,37 @@ public class AuthenticationService {
     private final AuthenticationProvider accountService;
     private final TokenService tokenService;
     private final AccountRepository accountRepository;
+    private final LoginThrottle loginThrottle;
+    private final OtpStore otpStore;
+    private final RefreshTokenRevocations refreshTokenRevocations;
 
     @Autowired
     public AuthenticationService(AccountService accountService, TokenService tokenService,
-                                 AccountRepository accountRepository) {
+                                 AccountRepository accountRepository, LoginThrottle loginThrottle,
+                                 OtpStore otpStore, RefreshTokenRevocations refreshTokenRevocations) {
         this.accountService = accountService;
         this.tokenService = tokenService;
         this.accountRepository = accountRepository;
+        this.loginThrottle = loginThrottle;
+        this.otpStore = otpStore;
+        this.refreshTokenRevocations = refreshTokenRevocations;
     }
 
+    /**
+     * Authenticates through the access channel. Attempts with credentials are throttled per account and per
+     * client address before any credential is checked, a refresh only costs a signature check and is not throttled.
+     *
+     * @param clientAddress address of the client, or null when unknown
+     */
     @Transactional
-    public AccessToken authenticate(TokenRequest authRequest, AccessChannel accessChannel, Language language) throws ApiException {
+    public AccessToken authenticate(TokenRequest authRequest, AccessChannel accessChannel, String clientAddress, Language language) throws ApiException {
+        if (accessChannel == AccessChannel.REFRESH_TOKEN) {
+            return refresh((RefreshTokenRequest) authRequest, language);
+        }
+
+        String username = authRequest instanceof AuthRequest ? ((AuthRequest) authRequest).getUsername() : null;
+        loginThrottle.acquire(username, clientAddress, language);
+
         AccessToken accessTokenResponse;
         switch (accessChannel) {
             case PASSWORD:
@@ -63,6 +86,7 @@ public class AuthenticationService {
                 throw new ServiceException(ErrorCode.UNDEFINED_ACCESS_CHANNEL);
         }
 
+        loginThrottle.succeeded(username);
         return accessTokenResponse;
     }
 
@@ -77,7 +101,46 @@ public class AuthenticationService {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime expirationTime = now.plus(1, ChronoUnit.DAYS);
 
-        return getAccessToken(now, expirationTime, privateClaimMap, account.getId(), account.isActive(), account.getEmail());
+        return getAccessToken(now, expirationTime, privateClaimMap, account.getId(), account.isActive(), account.getEmail(), null);
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a rotated refresh token of the same family.
+     * A refresh token is accepted once; presenting it again revokes its family, so a stolen copy stops working
+     * for the thief and for the owner, who has to log in again.
+     */
+    private AccessToken refresh(RefreshTokenRequest refreshTokenRequest, Language language) throws ApiException {
+
+        JwtClaims claims = tokenService.verifyRefreshToken(refreshTokenRequest.getRefreshToken());
+        if (claims == null) {
+            throw invalidRefreshToken(language);
+        }
+
+        String familyId = (String) claims.get(TokenService.FAMILY_CLAIM);
+        if (refreshTokenRevocations.isRevoked(familyId)) {
+            throw invalidRefreshToken(language);
+        }
+        if (!refreshTokenRevocations.markUsed(claims.getID())) {
+            refreshTokenRevocations.revokeFamily(familyId);
+            throw invalidRefreshToken(language);
+        }
+
+        Account account = accountRepository.findByEmail((String) claims.get("email"))
+                .filter(found -> !found.isDeleted())
+                .orElseThrow(() -> invalidRefreshToken(language));
+
+
+        Map<String, String> privateClaimMap =
+                privateClaims(account.getEmail(), account.isActive(), account.getRoles());
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expirationTime = now.plus(1, ChronoUnit.DAYS);
+
+        return getAccessToken(now, expirationTime, privateClaimMap, account.getId(), account.isActive(), account.getEmail(), familyId);
+    }
+
+    private static ApiException invalidRefreshToken(Language language) {
+        return new ApiException(Messages.get("USER.REFRESH.TOKEN.INVALID", language), HTTPCustomStatus.UNAUTHORIZED);
     }
 
 
@@ -97,12 +160,12 @@ public class AuthenticationService {
         return privateClaimMap;
     }
 
-    private AccessToken getAccessToken(LocalDateTime now, LocalDateTime expirationTime, Map<String, String> privateClaimMap, int id, boolean active, String email) {
+    private AccessToken getAccessToken(LocalDateTime now, LocalDateTime expirationTime, Map<String, String> privateClaimMap, int id, boolean active, String email, String refreshTokenFamily) {
         return new AccessToken()
                 .accessToken(tokenService.generateJwtToken(String.valueOf(id), privateClaimMap, null))
                 .tokenType(OAuth2Constants.BEARER_TYPE)
                 .active(active)
-                .refreshToken(tokenService.getRefreshToken(email))
+                .refreshToken(tokenService.getRefreshToken(String.valueOf(id), email, refreshTokenFamily))
                 .expiresAt(java.sql.Date.valueOf(expirationTime.toLocalDate()))
                 .expiresIn(Period.between(now.toLocalDate(), expirationTime.toLocalDate()).getDays())
                 .expiresIn(ChronoUnit.SECONDS.between(now, expirationTime));
@@ -122,6 +185,10 @@ public class AuthenticationService {
 
     private AccessToken otpLogin(AuthRequest authRequest, Language language) throws ApiException {
 
+        if (!otpStore.verify(authRequest.getUsername(), authRequest.getOtp())) {
+            throw new ApiException(Messages.get("USER.OTP.INVALID", language), HTTPCustomStatus.UNAUTHORIZED);
+        }
+
         Account account = accountRepository.findByEmail(authRequest.getUsername()).orElseThrow(() ->
                 new ApiException(Messages.get("USER.NOT.EXIST", language), HTTPCustomStatus.BUSINESS_VALIDATION_ERROR)
         );
@@ -133,7 +200,7 @@ public class AuthenticationService {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime expirationTime = now.plus(1, ChronoUnit.DAYS);
 
-        return getAccessToken(now, expirationTime, privateClaimMap, account.getId(), account.isActive(), account.getEmail());
+        return getAccessToken(now, expirationTime, privateClaimMap, account.getId(), account.isActive(), account.getEmail(), null);
     }
 
     @Transactional
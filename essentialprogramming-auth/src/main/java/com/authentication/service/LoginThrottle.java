@@ -0,0 +1,68 @@
+package com.authentication.service;
+
+import com.internationalization.Messages;
+import com.util.enums.Language;
+import com.util.exceptions.TooManyRequestsException;
+import com.util.throttle.TokenBucketLimiter;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+import static com.util.cloud.DeploymentConfiguration.getProperty;
+
+/**
+ * Limits login attempts per account and per client address, before any password hashing is done.
+ * <p/>
+ * An account gets LOGIN_THROTTLE_USER_BURST attempts (5 by default), then one more every
+ * LOGIN_THROTTLE_USER_REFILL_SECONDS (60). A client address gets LOGIN_THROTTLE_ADDRESS_BURST attempts (20),
+ * then one more every LOGIN_THROTTLE_ADDRESS_REFILL_SECONDS (6). A successful login refills the account bucket.
+ * Each limiter tracks at most LOGIN_THROTTLE_MAX_KEYS keys.
+ * <p/>
+ * Client addresses behind a reverse proxy are only told apart when the proxy is listed in TRUSTED_PROXIES.
+ * Otherwise all its clients would share one bucket, the address limit can then be turned off with
+ * LOGIN_THROTTLE_ADDRESS_ENABLED=false.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final int MAX_KEYS = getProperty("LOGIN_THROTTLE_MAX_KEYS", 65536);
+    private static final int USER_BURST = getProperty("LOGIN_THROTTLE_USER_BURST", 5);
+    private static final int USER_REFILL_SECONDS = getProperty("LOGIN_THROTTLE_USER_REFILL_SECONDS", 60);
+    private static final int ADDRESS_BURST = getProperty("LOGIN_THROTTLE_ADDRESS_BURST", 20);
+    private static final int ADDRESS_REFILL_SECONDS = getProperty("LOGIN_THROTTLE_ADDRESS_REFILL_SECONDS", 6);
+    private static final boolean ADDRESS_ENABLED = getProperty("LOGIN_THROTTLE_ADDRESS_ENABLED", Boolean.TRUE);
+
+    private final TokenBucketLimiter users = new TokenBucketLimiter(MAX_KEYS, USER_BURST, USER_REFILL_SECONDS * 1000L);
+    private final TokenBucketLimiter addresses = new TokenBucketLimiter(MAX_KEYS, ADDRESS_BURST, ADDRESS_REFILL_SECONDS * 1000L);
+
+    /**
+     * Takes one attempt from the client address and from the account.
+     *
+     * @throws TooManyRequestsException when either has no attempt left
+     */
+    public void acquire(String username, String clientAddress, Language language) {
+        if (ADDRESS_ENABLED && clientAddress != null) {
+            reject(addresses.tryAcquire(clientAddress), language);
+        }
+        if (username != null) {
+            reject(users.tryAcquire(normalize(username)), language);
+        }
+    }
+
+    public void succeeded(String username) {
+        if (username != null) {
+            users.reset(normalize(username));
+        }
+    }
+
+    private static void reject(long retryAfterMillis, Language language) {
+        if (retryAfterMillis > 0) {
+            long retryAfterSeconds = (retryAfterMillis + 999) / 1000;
+            throw new TooManyRequestsException(Messages.get("LOGIN.TOO.MANY.ATTEMPTS", language), retryAfterSeconds);
+        }
+    }
+
+    private static String normalize(String username) {
+        return username.trim().toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -0,0 +1,74 @@
+package com.authentication.service;
+
+import com.util.cache.ShardedExpiringMap;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+import static com.util.cloud.DeploymentConfiguration.getProperty;
+
+/**
+ * Refresh tokens that can no longer be used, remembered until they would have expired anyway.
+ * <p/>
+ * Refresh tokens are rotated: every refresh token is used once and replaced by a new token of the same family.
+ * Presenting a token that was already used means one of the copies leaked, so its whole family is revoked.
+ * Tokens and families are identified by their random UUID, kept as a 64 bit fingerprint, and each set holds
+ * at most REFRESH_TOKEN_REVOCATIONS_SIZE (200 000) entries.
+ * <p/>
+ * The sets live in memory, each instance of the service only knows the tokens it has seen.
+ */
+@Component
+public class RefreshTokenRevocations {
+
+    private static final int STORE_SIZE = getProperty("REFRESH_TOKEN_REVOCATIONS_SIZE", 200_000);
+    private static final int SHARDS = 16;
+    private static final long TICK_MILLIS = 60_000;
+
+    private final ShardedExpiringMap<Long, Boolean> usedTokens;
+    private final ShardedExpiringMap<Long, Boolean> revokedFamilies;
+
+    public RefreshTokenRevocations() {
+        this(TokenService.REFRESH_TOKEN_VALIDITY_MILLIS);
+    }
+
+    RefreshTokenRevocations(long refreshTokenValidityMillis) {
+        // a token is rejected by its expiration time once it leaves the sets
+        long timeToLive = refreshTokenValidityMillis + TICK_MILLIS;
+        this.usedTokens = new ShardedExpiringMap<>(SHARDS, STORE_SIZE, timeToLive, TICK_MILLIS);
+        this.revokedFamilies = new ShardedExpiringMap<>(SHARDS, STORE_SIZE, timeToLive, TICK_MILLIS);
+    }
+
+    /**
+     * Marks the token as used.
+     *
+     * @return false when the token was already used, or when it cannot be tracked and must be refused
+     */
+    public boolean markUsed(String tokenId) {
+        Long fingerprint = fingerprint(tokenId);
+        return fingerprint != null && usedTokens.putIfAbsent(fingerprint, Boolean.TRUE);
+    }
+
+    public void revokeFamily(String familyId) {
+        Long fingerprint = fingerprint(familyId);
+        if (fingerprint != null) {
+            revokedFamilies.put(fingerprint, Boolean.TRUE);
+        }
+    }
+
+    public boolean isRevoked(String familyId) {
+        Long fingerprint = fingerprint(familyId);
+        return fingerprint == null || revokedFamilies.get(fingerprint) != null;
+    }
+
+    private static Long fingerprint(String id) {
+        if (id == null) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
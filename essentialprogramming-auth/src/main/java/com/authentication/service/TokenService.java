@@ -2,6 +2,7 @@ package com.authentication.service;
 
 import com.exceptions.codes.ErrorCode;
 import com.exceptions.codes.LoginProperties;
+import com.authentication.security.EdDSASigner;
 import com.authentication.security.KeyStoreService;
 import com.authentication.security.PemUtils;
 import com.nimbusds.jose.jwk.JWK;
@@ -10,8 +11,14 @@ import com.nimbusds.jwt.SignedJWT;
 import com.util.exceptions.ServiceException;
 import com.nimbusds.jose.*;
 import com.nimbusds.jose.crypto.AESEncrypter;
+import com.nimbusds.jose.crypto.ECDSASigner;
 import com.nimbusds.jose.crypto.RSASSASigner;
 import com.nimbusds.jwt.JWTClaimsSet;
+import com.token.validation.jwt.JwtClaims;
+import com.token.validation.jwt.JwtUtil;
+import com.token.validation.jwt.exception.TokenValidationException;
+import com.token.validation.response.ValidationResponse;
+import com.token.validation.signature.SignatureAlgorithm;
 import com.util.cloud.Configuration;
 import com.util.cloud.ConfigurationManager;
 import org.slf4j.Logger;
@@ -20,23 +27,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.security.PrivateKey;
+import java.security.interfaces.ECPrivateKey;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class TokenService {
     private static final Logger LOG = LoggerFactory.getLogger(TokenService.class);
 
-    //Always RSA 256, but could be parametrized
-    private final JWSHeader jwsHeader = new JWSHeader.Builder(JWSAlgorithm.RS256)
-            .type(JOSEObjectType.JWT)
-            .build();
+    static final long REFRESH_TOKEN_VALIDITY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    public static final String TOKEN_USE_CLAIM = "token_use";
+    public static final String REFRESH_TOKEN_USE = "refresh";
+    static final String FAMILY_CLAIM = "fid";
 
     private final KeyStoreService keyStoreService;
 
+    private volatile SigningKey signingKey;
+
     private final Configuration configuration = ConfigurationManager.getConfiguration();
 
 
@@ -77,7 +88,7 @@ public class TokenService {
         // Create the JWT containing the payload
         // Sign the JWT to create the JWS token
         // Result: nested signed token containing the payload
-        String signedJws = createSignedToken(payload, keyStoreService.getPrivateKey());
+        String signedJws = createSignedToken(payload, keyStoreService.getSigningKeys());
 
         return signedJws;
 
@@ -123,24 +134,49 @@ public class TokenService {
         return configuration.getPropertyAsInteger(LoginProperties.TOKEN_VALID_PERIOD_HOURS);
     }
 
-    private String createSignedToken(Payload payload, PrivateKey privateSigningKey)
+    private String createSignedToken(Payload payload, KeyStoreService.SigningKeys signingKeys)
             throws ServiceException {
 
-        if (privateSigningKey == null) {
+        if (signingKeys.getPrivateKey() == null) {
             throw new ServiceException(ErrorCode.PRIVATE_KEY_IS_NULL);
         }
 
-        JWSObject jwsObject = new JWSObject(jwsHeader, payload);
-
         try {
-            JWSSigner signer = new RSASSASigner(privateSigningKey, false);
-            jwsObject.sign(signer);
+            SigningKey key = getSigningKey(signingKeys);
+            JWSObject jwsObject = new JWSObject(key.header, payload);
+            jwsObject.sign(key.signer);
+            return jwsObject.serialize();
         } catch (JOSEException e) {
             LOG.error(ErrorCode.UNABLE_TO_SIGN_TOKEN.getDescription());
             throw new ServiceException(ErrorCode.UNABLE_TO_SIGN_TOKEN, e);
         }
+    }
+
+    /**
+     * Signer and header (algorithm and kid) for one key pair snapshot, rebuilt only when the keys are rotated.
+     */
+    private SigningKey getSigningKey(KeyStoreService.SigningKeys keys) throws JOSEException {
+        SigningKey current = signingKey;
+        if (current == null || current.keys != keys) {
+            SignatureAlgorithm algorithm = keyStoreService.getSigningAlgorithm();
+            JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.parse(algorithm.getValue()))
+                    .type(JOSEObjectType.JWT)
+                    .keyID(keys.getKeyId())
+                    .build();
+            current = new SigningKey(keys, createSigner(algorithm, keys.getPrivateKey()), header);
+            signingKey = current;
+        }
+        return current;
+    }
 
-        return jwsObject.serialize();
+    private static JWSSigner createSigner(SignatureAlgorithm algorithm, PrivateKey privateKey) throws JOSEException {
+        if (algorithm.isEcdsa()) {
+            return new ECDSASigner((ECPrivateKey) privateKey);
+        }
+        if (algorithm.isEdDsa()) {
+            return new EdDSASigner(privateKey);
+        }
+        return new RSASSASigner(privateKey);
     }
 
     private String encryptToken(String nestedJwt,
@@ -195,24 +231,68 @@ public class TokenService {
         return new RSASSASigner(rsaKey.toRSAPrivateKey());
     }
 
-    protected String getRefreshToken(String email) {
-        JWSSigner jwsSigner = new RSASSASigner(keyStoreService.getPrivateKey(), true);
+    /**
+     * Signs a refresh token for the account. Every refresh token belongs to a family, started by a login with
+     * credentials and carried over by every rotation, so a leaked token can revoke all its successors.
+     *
+     * @param familyId family of the rotated token, or null to start a new family
+     */
+    protected String getRefreshToken(String userId, String email, String familyId) {
         Instant now = Instant.now();
+        String tokenId = UUID.randomUUID().toString();
 
         JWTClaimsSet refreshTokenClaims = new JWTClaimsSet.Builder()
                 .issuer("EssentialProgramming Auth Service")
+                .claim("user_id", userId)
                 .claim("email", email)
-                //refresh token for 1 day.
-                .expirationTime(Date.from(now.plus(1, ChronoUnit.DAYS)))
+                .claim(TOKEN_USE_CLAIM, REFRESH_TOKEN_USE)
+                .claim(FAMILY_CLAIM, familyId != null ? familyId : tokenId)
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plusMillis(REFRESH_TOKEN_VALIDITY_MILLIS)))
+                .jwtID(tokenId)
                 .build();
-        SignedJWT signedRefreshToken = new SignedJWT(jwsHeader, refreshTokenClaims);
         try {
-            signedRefreshToken.sign(jwsSigner);
+            SigningKey key = getSigningKey(keyStoreService.getSigningKeys());
+            SignedJWT signedRefreshToken = new SignedJWT(key.header, refreshTokenClaims);
+            signedRefreshToken.sign(key.signer);
+            return signedRefreshToken.serialize();
         } catch (JOSEException e) {
             LOG.error(ErrorCode.UNABLE_TO_SIGN_TOKEN.getDescription());
             throw new ServiceException(ErrorCode.UNABLE_TO_SIGN_TOKEN, e);
         }
-        return signedRefreshToken.serialize();
+    }
+
+    /**
+     * Checks the signature and expiration time of a refresh token, signed with the current or the previous key.
+     *
+     * @return the claims of the refresh token, or null when it is not a valid refresh token
+     */
+    protected JwtClaims verifyRefreshToken(String refreshToken) {
+        if (refreshToken == null) {
+            return null;
+        }
+        try {
+            ValidationResponse response = JwtUtil.verifyJwt(refreshToken, keyStoreService);
+            JwtClaims claims = response.getClaims();
+            if (!response.isValid() || !REFRESH_TOKEN_USE.equals(claims.get(TOKEN_USE_CLAIM))) {
+                return null;
+            }
+            return claims;
+        } catch (TokenValidationException e) {
+            return null;
+        }
+    }
+
+    private static final class SigningKey {
+        private final KeyStoreService.SigningKeys keys;
+        private final JWSSigner signer;
+        private final JWSHeader header;
+
+        SigningKey(KeyStoreService.SigningKeys keys, JWSSigner signer, JWSHeader header) {
+            this.keys = keys;
+            this.signer = signer;
+            this.header = header;
+        }
     }
 
 
@@ -1,63 +1,147 @@
 package com.crypto;
 
+import com.util.cloud.DeploymentConfiguration;
 import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
 import org.bouncycastle.crypto.params.Argon2Parameters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.crypto.codec.Hex;
-
 
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Argon2id password hashes, written as $argon2id$v=19$m=MEMORY,t=ITERATIONS,p=PARALLELISM$SALT$HASH.
+ * <p/>
+ * The memory cost is set with PASSWORD_HASH_ARGON2_MEMORY_KB (64MB by default), the iterations are calibrated.
+ * Hashes in the former HASH:SALT:2 format are still accepted, and reported by {@link #upgradeEncoding(String)}
+ * so they get replaced on the next login.
+ */
 public class Argon2PasswordEncoder extends AbstractPasswordEncoder {
 
     final static Logger logger = LoggerFactory.getLogger(Argon2PasswordEncoder.class);
 
-    private static final int ARGON2_HASH_ALGORITHM = 2;
+    static final String ID = "argon2id";
+    private static final String VERSION = "v";
+    private static final String MEMORY = "m";
+    private static final String ITERATIONS = "t";
+    private static final String PARALLELISM = "p";
+
+    private static final int ARGON2_HASH_ALGORITHM = Argon2Parameters.ARGON2_id;
+    private static final int ARGON2_VERSION = Argon2Parameters.ARGON2_VERSION_13;
     private static final int ARGON2_SALT_LENGTH = 16;
     private static final int ARGON2_HASH_LENGTH = 32;
     private static final int ARGON2_PARALLELISM = 1;
-    private static final int ARGON2_MEMORY = 65536;
+    private static final int ARGON2_MEMORY = DeploymentConfiguration.getProperty("PASSWORD_HASH_ARGON2_MEMORY_KB", 65536);
     private static final int ARGON2_ITERATIONS = 2;
+    private static final int ARGON2_MAX_ITERATIONS = 64;
+
+    private static final int LEGACY_MEMORY = 65536;
+    private static final int LEGACY_ITERATIONS = 2;
+
+    private final int memory;
+    private final int iterations;
 
     private static final class Argon2PasswordEncoderHolder {
-        static final Argon2PasswordEncoder INSTANCE = new Argon2PasswordEncoder();
+        static final Argon2PasswordEncoder INSTANCE = new Argon2PasswordEncoder(ARGON2_MEMORY, ARGON2_ITERATIONS);
     }
 
     public static Argon2PasswordEncoder getInstance() {
         return Argon2PasswordEncoderHolder.INSTANCE;
     }
 
-    public String encode(CharSequence password) {
-        logger.debug("Encoding password");
-        String passwordLower = password.toString();
+    Argon2PasswordEncoder(int memory, int iterations) {
+        this.memory = memory;
+        this.iterations = iterations;
+    }
 
-        return createHash(passwordLower.toCharArray());
+    /**
+     * Returns an encoder using PASSWORD_HASH_ARGON2_ITERATIONS when set, or else the iteration count
+     * calibrated for the current hardware.
+     */
+    static Argon2PasswordEncoder calibrated() {
+        int configuredIterations = DeploymentConfiguration.getProperty("PASSWORD_HASH_ARGON2_ITERATIONS", 0);
+        if (configuredIterations > 0) {
+            return new Argon2PasswordEncoder(ARGON2_MEMORY, configuredIterations);
+        }
+        byte[] salt = EncodingUtils.getSalt(ARGON2_SALT_LENGTH);
+        char[] password = EncodingUtils.getRandomString(ARGON2_SALT_LENGTH).toCharArray();
+        return new Argon2PasswordEncoder(ARGON2_MEMORY, PasswordHashCalibration.calibrate("Argon2 iterations", ARGON2_ITERATIONS, ARGON2_MAX_ITERATIONS,
+                cost -> encodeWithSalt(salt, password, ARGON2_MEMORY, cost)));
     }
 
     /**
-     * Returns a salted hash of the password.
-     *
-     * @param password the password to hash
-     * @return a salted hash of the password in the form of HASH:SALT:ALGORITHM
+     * Memory allocated by a single hash computation, in bytes.
      */
-    private static String createHash(char[] password) {
-        logger.debug("create hash");
-        // Generate a random salt
-        String salt = EncodingUtils.getRandomString(ARGON2_SALT_LENGTH);
+    public static long getMemoryCost() {
+        return ARGON2_MEMORY * 1024L;
+    }
 
-        // Hash the password
-        byte[] hash = encodeWithSalt(salt.getBytes(), password);
+    public int getIterations() {
+        return iterations;
+    }
+
+    public String encode(CharSequence password) {
+        logger.debug("Encoding password");
+        return encode(password.toString(), new LinkedHashMap<>());
+    }
+
+    @Override
+    public String encodeIgnoringCase(CharSequence password) {
+        logger.debug("Encoding password ignoring case");
+        Map<String, Integer> parameters = new LinkedHashMap<>();
+        parameters.put(EncodedPassword.IGNORE_CASE, 1);
+        return encode(password.toString().toLowerCase(Locale.ENGLISH), parameters);
+    }
 
-        // Format hash:salt:algorithm
-        return String.valueOf(Hex.encode(hash)) + ":" + salt + ":" + "2";
+    private String encode(String password, Map<String, Integer> flags) {
+        byte[] salt = EncodingUtils.getSalt(ARGON2_SALT_LENGTH);
+        byte[] hash = encodeWithSalt(salt, password.toCharArray(), memory, iterations);
+
+        Map<String, Integer> parameters = new LinkedHashMap<>();
+        parameters.put(VERSION, ARGON2_VERSION);
+        parameters.put(MEMORY, memory);
+        parameters.put(ITERATIONS, iterations);
+        parameters.put(PARALLELISM, ARGON2_PARALLELISM);
+        parameters.putAll(flags);
+        return new EncodedPassword(ID, parameters, salt, hash).toString();
     }
 
-    private static byte[] encodeWithSalt(byte[] salt, char[] password) {
-        byte[] hash = new byte[ARGON2_HASH_LENGTH];
+    @Override
+    public boolean matches(CharSequence password, String encodedPassword) {
+        if (!EncodedPassword.isEncoded(encodedPassword)) {
+            return super.matches(password, encodedPassword);
+        }
+        EncodedPassword parsed = EncodedPassword.parse(encodedPassword);
+        if (parsed == null || !ID.equals(parsed.getAlgorithm()) || parsed.getParameter(VERSION) != ARGON2_VERSION
+                || parsed.getParameter(MEMORY) < 8 || parsed.getParameter(ITERATIONS) < 1
+                || parsed.getParameter(PARALLELISM) != ARGON2_PARALLELISM || parsed.getHash().length == 0) {
+            return false;
+        }
+        byte[] testHash = encodeWithSalt(parsed.getSalt(), parsed.normalize(password).toCharArray(),
+                parsed.getParameter(MEMORY), parsed.getParameter(ITERATIONS), parsed.getHash().length);
+        return EncodingUtils.slowEquals(parsed.getHash(), testHash);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        EncodedPassword parsed = EncodedPassword.parse(encodedPassword);
+        return parsed == null || !ID.equals(parsed.getAlgorithm())
+                || parsed.getParameter(MEMORY) < memory || parsed.getParameter(ITERATIONS) < iterations;
+    }
+
+    private static byte[] encodeWithSalt(byte[] salt, char[] password, int memory, int iterations) {
+        return encodeWithSalt(salt, password, memory, iterations, ARGON2_HASH_LENGTH);
+    }
+
+    private static byte[] encodeWithSalt(byte[] salt, char[] password, int memory, int iterations, int length) {
+        byte[] hash = new byte[length];
         Argon2Parameters params = (new Argon2Parameters.Builder(ARGON2_HASH_ALGORITHM))
+                .withVersion(ARGON2_VERSION)
                 .withSalt(salt)
                 .withParallelism(ARGON2_PARALLELISM)
-                .withMemoryAsKB(ARGON2_MEMORY)
-                .withIterations(ARGON2_ITERATIONS)
+                .withMemoryAsKB(memory)
+                .withIterations(iterations)
                 .build();
         Argon2BytesGenerator generator = new Argon2BytesGenerator();
         generator.init(params);
@@ -68,7 +152,7 @@ public class Argon2PasswordEncoder extends AbstractPasswordEncoder {
 
 
     /**
-     * Validates a password using a hash.
+     * Validates a password against a hash in the former HASH:SALT:2 format.
      *
      * @param password the password to check
      * @param hash hashed password
@@ -76,24 +160,10 @@ public class Argon2PasswordEncoder extends AbstractPasswordEncoder {
      * @return true if the password is correct, false if not
      */
      boolean matches(String password, byte[] hash, byte[] salt) {
-        return matches(password.toCharArray(), hash, salt);
-    }
-
-    /**
-     * Validates a password using a hash.
-     *
-     * @param password the password to check
-     * @param hash hashed password
-     * @param salt Salt used to hash password
-     * @return true if the password is correct, false if not
-     */
-    private static boolean matches(char[] password, byte[] hash, byte[] salt) {
-
         // Compute the hash of the provided password, using the same salt, iteration count and hash length
-        byte[] testHash = encodeWithSalt(salt, password);
+        byte[] testHash = encodeWithSalt(salt, password.toCharArray(), LEGACY_MEMORY, LEGACY_ITERATIONS);
         // Compare the hashes in constant time. The password is correct if both hashes match.
         return EncodingUtils.slowEquals(hash, testHash);
-
     }
 
 }
@@ -11,6 +11,8 @@ import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.security.spec.KeySpec;
 import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 
 public final class Crypt {
@@ -18,6 +20,34 @@ public final class Crypt {
     private static final String salt = "supercalifragilisticexpialidocious";
     private final static byte[] iv = { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
 
+    private static final String KEY_DERIVATION_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String CIPHER_TRANSFORMATION = "AES/CBC/PKCS5Padding";
+    private static final int KEY_DERIVATION_ITERATIONS = 65536;
+    private static final int KEY_LENGTH = 128;
+
+    /**
+     * Maximum number of derived keys kept in memory. The application only uses a handful of secrets
+     * (the ENCRYPTION_KEY and a few per-user keys), so a small bound is enough to keep the hot keys.
+     */
+    private static final int MAX_CACHED_KEYS = 256;
+
+    private static final Map<String, Key> derivedKeys = new LinkedHashMap<String, Key>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Key> eldest) {
+            return size() > MAX_CACHED_KEYS;
+        }
+    };
+
+    private static final ThreadLocal<Cipher> cipher = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(CIPHER_TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to create " + CIPHER_TRANSFORMATION + " cipher", e);
+        }
+    });
+
     private Crypt() {
         throw new IllegalAccessError("Instantiation prohibited");
     }
@@ -31,17 +61,7 @@ public final class Crypt {
     public static String encrypt(String value, String secretKey)
             throws GeneralSecurityException {
 
-        IvParameterSpec parameterSpec = new IvParameterSpec(iv);
-
-        SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
-        KeySpec spec = new PBEKeySpec(secretKey.toCharArray(), salt.getBytes(), 65536, 128);
-        SecretKey temporaryKey = factory.generateSecret(spec);
-
-        Key secretKeySpec = new SecretKeySpec(temporaryKey.getEncoded(), "AES");
-
-
-        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
-        cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec, parameterSpec);
+        Cipher cipher = initCipher(Cipher.ENCRYPT_MODE, secretKey);
 
         byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
         byte[] encrypted = cipher.doFinal(utf8);
@@ -58,17 +78,7 @@ public final class Crypt {
     public static String decrypt(String value, String secretKey)
             throws GeneralSecurityException {
 
-        IvParameterSpec parameterSpec = new IvParameterSpec(iv);
-
-        SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
-        KeySpec spec = new PBEKeySpec(secretKey.toCharArray(), salt.getBytes(), 65536, 128);
-        SecretKey temporaryKey = factory.generateSecret(spec);
-
-
-        Key aesKey = new SecretKeySpec(temporaryKey.getEncoded(), "AES");
-
-        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
-        cipher.init(Cipher.DECRYPT_MODE, aesKey, parameterSpec);
+        Cipher cipher = initCipher(Cipher.DECRYPT_MODE, secretKey);
 
         byte[] decoded = Base64.getUrlDecoder().decode(value);
         byte[] decrypted = cipher.doFinal(decoded);
@@ -77,5 +87,39 @@ public final class Crypt {
         return new String(decrypted, StandardCharsets.UTF_8);
     }
 
+    private static Cipher initCipher(int mode, String secretKey) throws GeneralSecurityException {
+        Cipher threadCipher = cipher.get();
+        threadCipher.init(mode, getKey(secretKey), new IvParameterSpec(iv));
+        return threadCipher;
+    }
+
+    /**
+     * Returns the AES key for the given secret, deriving it with PBKDF2 only the first time the secret is seen.
+     */
+    static Key getKey(String secretKey) throws GeneralSecurityException {
+        Key key;
+        synchronized (derivedKeys) {
+            key = derivedKeys.get(secretKey);
+        }
+        if (key != null) {
+            return key;
+        }
+
+        // Derive outside the lock, two threads racing on the same secret compute the same key anyway
+        key = deriveKey(secretKey);
+        synchronized (derivedKeys) {
+            derivedKeys.put(secretKey, key);
+        }
+        return key;
+    }
+
+    static Key deriveKey(String secretKey) throws GeneralSecurityException {
+        SecretKeyFactory factory = SecretKeyFactory.getInstance(KEY_DERIVATION_ALGORITHM);
+        KeySpec spec = new PBEKeySpec(secretKey.toCharArray(), salt.getBytes(), KEY_DERIVATION_ITERATIONS, KEY_LENGTH);
+        SecretKey temporaryKey = factory.generateSecret(spec);
+
+        return new SecretKeySpec(temporaryKey.getEncoded(), "AES");
+    }
+
 
 }
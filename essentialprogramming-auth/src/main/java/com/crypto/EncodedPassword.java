@@ -0,0 +1,113 @@
+package com.crypto;
+
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A password hash that carries its own parameters, in the PHC string format:
+ * <pre>$algorithm[$v=version]$param=value,...$salt$hash</pre>
+ * Salt and hash are base64 encoded without padding. Hashes written before this format was introduced
+ * (HASH:SALT:ALGORITHM) do not start with '$'.
+ * <p/>
+ * A ci=1 parameter marks a hash of the lower cased password, written when a hash of the former PBKDF2 format, which
+ * ignored the case of the password, is replaced.
+ */
+final class EncodedPassword {
+
+    private static final String SEPARATOR = "$";
+    private static final String VERSION = "v";
+    static final String IGNORE_CASE = "ci";
+
+    private final String algorithm;
+    private final Map<String, Integer> parameters;
+    private final byte[] salt;
+    private final byte[] hash;
+
+    EncodedPassword(String algorithm, Map<String, Integer> parameters, byte[] salt, byte[] hash) {
+        this.algorithm = algorithm;
+        this.parameters = parameters;
+        this.salt = salt;
+        this.hash = hash;
+    }
+
+    static boolean isEncoded(String encodedPassword) {
+        return encodedPassword.startsWith(SEPARATOR);
+    }
+
+    /**
+     * @return the parsed hash, or null when the string is not a well formed encoded password
+     */
+    static EncodedPassword parse(String encodedPassword) {
+        if (!isEncoded(encodedPassword)) {
+            return null;
+        }
+        String[] fields = encodedPassword.substring(1).split("\\$", -1);
+        if (fields.length < 4 || fields.length > 5) {
+            return null;
+        }
+        try {
+            Map<String, Integer> parameters = new LinkedHashMap<>();
+            for (int i = 1; i < fields.length - 2; i++) {
+                for (String parameter : fields[i].split(",")) {
+                    int separator = parameter.indexOf('=');
+                    if (separator < 1) {
+                        return null;
+                    }
+                    parameters.put(parameter.substring(0, separator), Integer.valueOf(parameter.substring(separator + 1)));
+                }
+            }
+            byte[] salt = Base64.getDecoder().decode(fields[fields.length - 2]);
+            byte[] hash = Base64.getDecoder().decode(fields[fields.length - 1]);
+            return new EncodedPassword(fields[0], parameters, salt, hash);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return the parameter value, or -1 when the parameter is missing
+     */
+    int getParameter(String name) {
+        return parameters.getOrDefault(name, -1);
+    }
+
+    /**
+     * @return the password as it was hashed, lower cased when the hash ignores the case
+     */
+    String normalize(CharSequence password) {
+        return getParameter(IGNORE_CASE) == 1 ? password.toString().toLowerCase(Locale.ENGLISH) : password.toString();
+    }
+
+    byte[] getSalt() {
+        return salt;
+    }
+
+    byte[] getHash() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        StringBuilder encoded = new StringBuilder(SEPARATOR).append(algorithm);
+        if (parameters.containsKey(VERSION)) {
+            encoded.append(SEPARATOR).append(VERSION).append('=').append(parameters.get(VERSION));
+        }
+        String separator = SEPARATOR;
+        for (Map.Entry<String, Integer> parameter : parameters.entrySet()) {
+            if (!VERSION.equals(parameter.getKey())) {
+                encoded.append(separator).append(parameter.getKey()).append('=').append(parameter.getValue());
+                separator = ",";
+            }
+        }
+        return encoded.append(SEPARATOR).append(encoder.encodeToString(salt))
+                .append(SEPARATOR).append(encoder.encodeToString(hash))
+                .toString();
+    }
+}
@@ -5,6 +5,20 @@ public interface PasswordEncoder {
 
     String encode(CharSequence password);
 
+    /**
+     * Encodes the lower cased password and marks the hash, so that {@link #matches(CharSequence, String)} lower cases
+     * the password checked against it too.
+     */
+    String encodeIgnoringCase(CharSequence password);
+
     boolean matches(CharSequence var1, String var2);
 
-}
\ No newline at end of file
+    /**
+     * Returns true if the encoded password should be encoded again, because it was hashed
+     * in an older format or with a lower cost than this encoder uses.
+     */
+    default boolean upgradeEncoding(String encodedPassword) {
+        return false;
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.crypto;
 
 
+import com.util.cloud.DeploymentConfiguration;
 import com.util.text.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,13 +17,17 @@ import java.util.Map;
  * <p/>
  * To authenticate a login, call getHash with the supplied password and the user's salt, and check that it matches the stored password hash.
  * <p/>
+ * Hashes carry their algorithm and cost, so the policy for new hashes can change without invalidating the stored ones:
+ * {@link #needsRehash(String)} tells which stored hashes fall below the current policy.
+ * <p/>
  * See https://howtodoinjava.com/security/how-to-generate-secure-password-hash-md5-sha-pbkdf2-bcrypt-examples/ for an explanation of why we do it this way.
  */
 public final class PasswordHash {
 
     private static final Logger logger = LoggerFactory.getLogger(PasswordHash.class);
 
-
+    private static final String ARGON2 = "ARGON2";
+    private static final String ALGORITHM = DeploymentConfiguration.getProperty("PASSWORD_HASH_ALGORITHM", "PBKDF2");
 
     private final static Map<Integer, PasswordEncoder> passwordEncoder = new HashMap<Integer, PasswordEncoder>() {
         {
@@ -31,7 +36,14 @@ public final class PasswordHash {
         }
     };
 
-
+    /**
+     * The encoder for new hashes: PASSWORD_HASH_ALGORITHM (PBKDF2 or ARGON2) with the cost calibrated on first use.
+     */
+    private static final class PolicyHolder {
+        static final PasswordEncoder POLICY = ARGON2.equalsIgnoreCase(ALGORITHM)
+                ? Argon2PasswordEncoder.calibrated()
+                : Pbkdf2PasswordEncoder.calibrated();
+    }
 
     private PasswordHash() {
     }
@@ -51,20 +63,47 @@ public final class PasswordHash {
             logger.warn("password hash is null");
             return false;
         }
-        final String[] params = hashedPasswordWithSalt.split(":");
-        final Integer alg = Integer.valueOf(params[2]);
-        return passwordEncoder.getOrDefault(alg, Pbkdf2PasswordEncoder.getInstance()).matches(password, hashedPasswordWithSalt);
+        return encoderFor(hashedPasswordWithSalt).matches(password, hashedPasswordWithSalt);
+    }
+
+    /**
+     * Returns true if the stored hash was created with another algorithm, in the former format or with a lower
+     * cost than the current policy, so it should be replaced by {@link #encode(String)} once the password is verified.
+     *
+     * @param hashedPasswordWithSalt the stored hashed password with salt
+     */
+    public static boolean needsRehash(String hashedPasswordWithSalt) {
+        if (StringUtils.isEmpty(hashedPasswordWithSalt)) {
+            return false;
+        }
+        PasswordEncoder policy = PolicyHolder.POLICY;
+        return encoderFor(hashedPasswordWithSalt).getClass() != policy.getClass() || policy.upgradeEncoding(hashedPasswordWithSalt);
     }
 
     /**
      * Returns a salted hash of the password.
      *
      * @param password the password to hash
-     * @return a salted PBKDF2 hash of the password
+     * @return a salted hash of the password, with the algorithm and cost of the current policy
      */
     public static String encode(String password) {
         logger.debug("Encoding password");
-        return Pbkdf2PasswordEncoder.getInstance().encode(password);
+        return PolicyHolder.POLICY.encode(password);
+    }
+
+    /**
+     * Returns a salted hash of the password to replace the stored hash reported by {@link #needsRehash(String)}.
+     * Hashes of the former PBKDF2 format ignored the case of the password, the new hash keeps ignoring it.
+     *
+     * @param password               the verified password
+     * @param hashedPasswordWithSalt the stored hashed password with salt
+     * @return a salted hash of the password, with the algorithm and cost of the current policy
+     */
+    public static String rehash(String password, String hashedPasswordWithSalt) {
+        logger.debug("Encoding password");
+        return ignoresCase(hashedPasswordWithSalt)
+                ? PolicyHolder.POLICY.encodeIgnoringCase(password)
+                : PolicyHolder.POLICY.encode(password);
     }
 
     public static String encode(String password, int algorithm) {
@@ -72,10 +111,31 @@ public final class PasswordHash {
         return passwordEncoder.getOrDefault(algorithm, Pbkdf2PasswordEncoder.getInstance()).encode(password);
     }
 
+    /**
+     * Memory allocated by a single hash with the current policy, in bytes (0 when negligible).
+     * Calibrates the policy if it was not used yet.
+     */
+    public static long getMemoryCost() {
+        return PolicyHolder.POLICY instanceof Argon2PasswordEncoder ? Argon2PasswordEncoder.getMemoryCost() : 0;
+    }
 
+    private static boolean ignoresCase(String hashedPasswordWithSalt) {
+        if (!EncodedPassword.isEncoded(hashedPasswordWithSalt)) {
+            return encoderFor(hashedPasswordWithSalt) instanceof Pbkdf2PasswordEncoder;
+        }
+        EncodedPassword parsed = EncodedPassword.parse(hashedPasswordWithSalt);
+        return parsed != null && parsed.getParameter(EncodedPassword.IGNORE_CASE) == 1;
+    }
 
-
-
-
+    /**
+     * Selects the encoder from the hash itself: the algorithm name of encoded passwords,
+     * or the trailing algorithm field (2 = Argon2, 3 = PBKDF2) of hashes in the former format.
+     */
+    private static PasswordEncoder encoderFor(String hashedPasswordWithSalt) {
+        boolean argon2 = EncodedPassword.isEncoded(hashedPasswordWithSalt)
+                ? hashedPasswordWithSalt.startsWith("$" + Argon2PasswordEncoder.ID + "$")
+                : hashedPasswordWithSalt.endsWith(":2");
+        return argon2 ? Argon2PasswordEncoder.getInstance() : Pbkdf2PasswordEncoder.getInstance();
+    }
 
 }
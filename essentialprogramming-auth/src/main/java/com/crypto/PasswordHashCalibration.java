@@ -0,0 +1,55 @@
+package com.crypto;
+
+import com.util.cloud.DeploymentConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Picks the password hashing cost for the current hardware.
+ * <p/>
+ * A hash is timed at the minimum cost and the cost is scaled so that one hash takes about PASSWORD_HASH_TARGET_MS
+ * (250ms by default), assuming the hashing time grows linearly with the cost. The cost never goes below the minimum,
+ * so slow hardware keeps the baseline strength. Setting PASSWORD_HASH_TARGET_MS to 0 disables the calibration.
+ */
+final class PasswordHashCalibration {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashCalibration.class);
+
+    private static final int TARGET_MILLIS = DeploymentConfiguration.getProperty("PASSWORD_HASH_TARGET_MS", 250);
+    private static final int SAMPLES = 3;
+
+    private PasswordHashCalibration() {
+        throw new IllegalAccessError("Instantiation prohibited");
+    }
+
+    /**
+     * @param name        name of the cost parameter, for the logs
+     * @param minimumCost the cost used when calibration is disabled, and the lowest cost ever picked
+     * @param maximumCost the highest cost ever picked
+     * @param hashing     computes one hash at the given cost
+     */
+    static int calibrate(String name, int minimumCost, int maximumCost, IntConsumer hashing) {
+        if (TARGET_MILLIS <= 0) {
+            return minimumCost;
+        }
+        // first run warms up the code paths, the fastest of the following runs is kept
+        hashing.accept(minimumCost);
+        long elapsed = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            hashing.accept(minimumCost);
+            elapsed = Math.min(elapsed, System.nanoTime() - start);
+        }
+
+        int cost = cost(minimumCost, maximumCost, TARGET_MILLIS * 1_000_000L, elapsed);
+        logger.info("Password hashing calibrated to {} = {}, {} ms per hash at {}", name, cost, elapsed / 1_000_000, minimumCost);
+        return cost;
+    }
+
+    static int cost(int minimumCost, int maximumCost, long targetNanos, long elapsedNanos) {
+        long cost = minimumCost * targetNanos / Math.max(elapsedNanos, 1);
+        return (int) Math.max(minimumCost, Math.min(maximumCost, cost));
+    }
+}
@@ -2,6 +2,7 @@ package com.crypto;
 
 
 import com.exceptions.codes.ErrorCode;
+import com.util.cloud.DeploymentConfiguration;
 import com.util.exceptions.ServiceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,67 +11,90 @@ import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
+import java.util.LinkedHashMap;
 import java.util.Locale;
-
+import java.util.Map;
+
+/**
+ * PBKDF2 password hashes, written as $pbkdf2-sha256$i=ITERATIONS$SALT$HASH.
+ * <p/>
+ * Hashes in the former HASH:SALT:3 format (PBKDF2 with HMAC-SHA1 over the lower cased password) are still
+ * accepted, and reported by {@link #upgradeEncoding(String)} so they get replaced on the next login.
+ */
 public class Pbkdf2PasswordEncoder implements PasswordEncoder {
 
     final static Logger logger = LoggerFactory.getLogger(Pbkdf2PasswordEncoder.class);
 
+    static final String ID = "pbkdf2-sha256";
+    private static final String ITERATIONS = "i";
+
     /**
      * Length of salt for PBKDF2 hashed password
      */
     private static final int PBKDF2_SALT_LENGTH = 16; // bytes
     private static final int PBKDF2_ITERATIONS = 200000;
-    private static final int PBKDF2_HASH_BYTE_SIZE = 64;
-    private static final String HASH_ALGORITHM = "PBKDF2WithHmacSHA1"; // can also be PBKDF2WithHmacSHA256, PBKDF2WithHmacMD5 etc.
+    private static final int PBKDF2_MAX_ITERATIONS = 5000000;
+    private static final int PBKDF2_HASH_BYTE_SIZE = 32; // a single HMAC-SHA256 block
+    private static final String HASH_ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    private static final int LEGACY_HASH_BYTE_SIZE = 64;
+    private static final String LEGACY_HASH_ALGORITHM = "PBKDF2WithHmacSHA1";
+
+    private final int iterations;
 
     private static class Pbkdf2PasswordEncoderHolder {
-        static final Pbkdf2PasswordEncoder INSTANCE = new Pbkdf2PasswordEncoder();
+        static final Pbkdf2PasswordEncoder INSTANCE = new Pbkdf2PasswordEncoder(PBKDF2_ITERATIONS);
     }
 
     public static Pbkdf2PasswordEncoder getInstance() {
         return Pbkdf2PasswordEncoderHolder.INSTANCE;
     }
 
-    public String encode(CharSequence password) {
-        logger.debug("Encoding password");
-        String passwordLower = password.toString().toLowerCase(Locale.ENGLISH);
-        try {
-            return createHash(passwordLower.toCharArray());
-        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
-            logger.error(ErrorCode.PASSWORD_HASH_CREATION_NOT_SUCCESFUL.getDescription(), e);
-            throw new ServiceException(ErrorCode.PASSWORD_HASH_CREATION_NOT_SUCCESFUL);
-        }
+    Pbkdf2PasswordEncoder(int iterations) {
+        this.iterations = iterations;
     }
 
     /**
-     * Returns a salted hash of the password.
-     *
-     * @param password the password to hash
-     * @return a salted hash of the password in the form of SALT:HASH
-     * @throws InvalidKeySpecException, NoSuchAlgorithmException
+     * Returns an encoder using PASSWORD_HASH_PBKDF2_ITERATIONS when set, or else the iteration count
+     * calibrated for the current hardware.
      */
-    private static String createHash(char[] password)
-            throws NoSuchAlgorithmException, InvalidKeySpecException {
-        logger.debug("create hash");
-        // Generate a random salt
+    static Pbkdf2PasswordEncoder calibrated() {
+        int configuredIterations = DeploymentConfiguration.getProperty("PASSWORD_HASH_PBKDF2_ITERATIONS", 0);
+        if (configuredIterations > 0) {
+            return new Pbkdf2PasswordEncoder(configuredIterations);
+        }
         byte[] salt = EncodingUtils.getSalt(PBKDF2_SALT_LENGTH);
+        char[] password = EncodingUtils.getRandomString(PBKDF2_SALT_LENGTH).toCharArray();
+        return new Pbkdf2PasswordEncoder(PasswordHashCalibration.calibrate("PBKDF2 iterations", PBKDF2_ITERATIONS, PBKDF2_MAX_ITERATIONS,
+                cost -> derive(HASH_ALGORITHM, password, salt, cost, PBKDF2_HASH_BYTE_SIZE)));
+    }
 
-        // Hash the password
-        byte[] hash = encodeWithSalt(salt, password);
-
-        // Format hash:salt
-        return EncodingUtils.toBase64(hash) + ":" + EncodingUtils.toBase64(salt)+ ":"+ "3";
+    public int getIterations() {
+        return iterations;
     }
 
-    private static byte[] encodeWithSalt(byte[] salt, char[] password) throws InvalidKeySpecException, NoSuchAlgorithmException {
-        logger.debug("Encode with salt");
-        PBEKeySpec keySpec = new PBEKeySpec(password, salt, PBKDF2_ITERATIONS, PBKDF2_HASH_BYTE_SIZE * 8);
-        SecretKeyFactory secretKeyFactory = SecretKeyFactory.getInstance(HASH_ALGORITHM);
+    public String encode(CharSequence password) {
+        logger.debug("Encoding password");
+        return encode(password.toString(), new LinkedHashMap<>());
+    }
 
-        return secretKeyFactory.generateSecret(keySpec).getEncoded();
+    @Override
+    public String encodeIgnoringCase(CharSequence password) {
+        logger.debug("Encoding password ignoring case");
+        Map<String, Integer> parameters = new LinkedHashMap<>();
+        parameters.put(EncodedPassword.IGNORE_CASE, 1);
+        return encode(password.toString().toLowerCase(Locale.ENGLISH), parameters);
     }
 
+    private String encode(String password, Map<String, Integer> flags) {
+        byte[] salt = EncodingUtils.getSalt(PBKDF2_SALT_LENGTH);
+        byte[] hash = derive(HASH_ALGORITHM, password.toCharArray(), salt, iterations, PBKDF2_HASH_BYTE_SIZE);
+
+        Map<String, Integer> parameters = new LinkedHashMap<>();
+        parameters.put(ITERATIONS, iterations);
+        parameters.putAll(flags);
+        return new EncodedPassword(ID, parameters, salt, hash).toString();
+    }
 
     /**
      * Validates a password using a hash.
@@ -84,6 +108,17 @@ public class Pbkdf2PasswordEncoder implements PasswordEncoder {
      */
     @Override
     public boolean matches(CharSequence password, String hashedPasswordWithSalt) {
+        if (EncodedPassword.isEncoded(hashedPasswordWithSalt)) {
+            EncodedPassword encodedPassword = EncodedPassword.parse(hashedPasswordWithSalt);
+            if (encodedPassword == null || !ID.equals(encodedPassword.getAlgorithm())
+                    || encodedPassword.getParameter(ITERATIONS) < 1 || encodedPassword.getHash().length == 0) {
+                return false;
+            }
+            byte[] testHash = derive(HASH_ALGORITHM, encodedPassword.normalize(password).toCharArray(), encodedPassword.getSalt(),
+                    encodedPassword.getParameter(ITERATIONS), encodedPassword.getHash().length);
+            return EncodingUtils.slowEquals(encodedPassword.getHash(), testHash);
+        }
+
         String passwordLower = password.toString().toLowerCase(Locale.ENGLISH);
         String[] parts = hashedPasswordWithSalt.split(":");
         if (parts.length < 2) {
@@ -93,45 +128,29 @@ public class Pbkdf2PasswordEncoder implements PasswordEncoder {
         byte[] hash = EncodingUtils.fromBase64(parts[0]);
         byte[] salt = EncodingUtils.fromBase64(parts[1]);
 
+        // Compute the hash of the provided password, using the same salt, iteration count and hash length
+        byte[] testHash = derive(LEGACY_HASH_ALGORITHM, passwordLower.toCharArray(), salt, PBKDF2_ITERATIONS, LEGACY_HASH_BYTE_SIZE);
 
-        return matches(passwordLower, hash, salt);
+        // Compare the hashes in constant time. The password is correct if both hashes match.
+        return EncodingUtils.slowEquals(hash, testHash);
     }
 
-    /**
-     * Validates a password using a hash.
-     *
-     * @param password the password to check
-     * @param hash hashed password
-     * @param salt Salt used to hash password
-     * @return true if the password is correct, false if not
-     */
-    private static boolean matches(String password, byte[] hash, byte[] salt) {
-        boolean result;
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        EncodedPassword parsed = EncodedPassword.parse(encodedPassword);
+        return parsed == null || !ID.equals(parsed.getAlgorithm()) || parsed.getParameter(ITERATIONS) < iterations;
+    }
+
+    private static byte[] derive(String algorithm, char[] password, byte[] salt, int iterations, int length) {
+        PBEKeySpec keySpec = new PBEKeySpec(password, salt, iterations, length * 8);
         try {
-            result = matches(password.toCharArray(), hash, salt);
-        } catch (InvalidKeySpecException | NoSuchAlgorithmException e) {
+            SecretKeyFactory secretKeyFactory = SecretKeyFactory.getInstance(algorithm);
+            return secretKeyFactory.generateSecret(keySpec).getEncoded();
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
             logger.error(ErrorCode.PASSWORD_HASH_CREATION_NOT_SUCCESFUL.getDescription(), e);
             throw new ServiceException(ErrorCode.PASSWORD_HASH_CREATION_NOT_SUCCESFUL);
+        } finally {
+            keySpec.clearPassword();
         }
-
-        return result;
-    }
-
-    /**
-     * Validates a password using a hash.
-     *
-     * @param password the password to check
-     * @param hash hashed password
-     * @param salt Salt used to hash password
-     * @return true if the password is correct, false if not
-     */
-    private static boolean matches(char[] password, byte[] hash, byte[] salt) throws InvalidKeySpecException, NoSuchAlgorithmException {
-
-        // Compute the hash of the provided password, using the same salt, iteration count and hash length
-        byte[] testHash = encodeWithSalt(salt, password);
-
-        // Compare the hashes in constant time. The password is correct if both hashes match.
-        return EncodingUtils.slowEquals(hash, testHash);
-
     }
 }
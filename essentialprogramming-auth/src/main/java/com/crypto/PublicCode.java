@@ -0,0 +1,225 @@
+package com.crypto;
+
+import com.util.cloud.DeploymentConfiguration;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns internal entity codes (business, unit, service and appointment codes) into short opaque public codes and back.
+ * <p/>
+ * A public code is a deterministic authenticated encryption of the internal code (SIV construction):
+ * the tag is a truncated HMAC-SHA256 of the payload, and the payload is encrypted with AES-CTR using the tag as IV.
+ * Codes made of UUIDs are packed as raw 16 byte values, so a 36 character UUID becomes a 39 character public code.
+ * Encoding and decoding cost one HMAC and one AES-CTR pass, instead of the PBKDF2 + AES-CBC round-trip of {@link Crypt}.
+ * <p/>
+ * While codes issued by {@link Crypt} are still in circulation, {@link #decode(String, String)} falls back to
+ * {@link Crypt#decrypt(String, String)} for values that are not public codes. Set PUBLIC_CODE_LEGACY_READ=false
+ * to disable the fallback once the migration is over.
+ */
+public final class PublicCode {
+
+    private static final boolean LEGACY_READ = DeploymentConfiguration.getProperty("PUBLIC_CODE_LEGACY_READ", Boolean.TRUE);
+
+    private static final byte UUID_FORMAT = 1;
+    private static final byte TEXT_FORMAT = 2;
+
+    private static final int UUID_LENGTH = 36;
+    private static final int UUID_BYTES = 16;
+    private static final int TAG_LENGTH = 12;
+    private static final int HEADER_LENGTH = 1 + TAG_LENGTH;
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final String CIPHER_TRANSFORMATION = "AES/CTR/NoPadding";
+
+    private static final Map<String, Keys> keys = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<Cipher> cipher = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(CIPHER_TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to create " + CIPHER_TRANSFORMATION + " cipher", e);
+        }
+    });
+
+    private PublicCode() {
+        throw new IllegalAccessError("Instantiation prohibited");
+    }
+
+    /**
+     * Encodes an internal code
+     *
+     * @param code internal code to encode
+     * @return public code in base64 format
+     */
+    public static String encode(String code, String secretKey) throws GeneralSecurityException {
+        Keys codeKeys = getKeys(secretKey);
+
+        byte format = isUUIDSequence(code) ? UUID_FORMAT : TEXT_FORMAT;
+        byte[] payload = format == UUID_FORMAT ? packUUIDs(code) : code.getBytes(StandardCharsets.UTF_8);
+
+        byte[] tag = tag(codeKeys, format, payload);
+
+        byte[] result = new byte[HEADER_LENGTH + payload.length];
+        result[0] = format;
+        System.arraycopy(tag, 0, result, 1, TAG_LENGTH);
+        crypt(codeKeys, tag, payload, 0, payload.length, result, HEADER_LENGTH);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(result);
+    }
+
+    /**
+     * Decodes a public code, or a code encrypted with {@link Crypt} while legacy reads are enabled
+     *
+     * @param publicCode public code to decode
+     * @return internal code
+     */
+    public static String decode(String publicCode, String secretKey) throws GeneralSecurityException {
+        String code = decodePublicCode(publicCode, secretKey);
+        if (code != null) {
+            return code;
+        }
+        if (LEGACY_READ) {
+            return Crypt.decrypt(publicCode, secretKey);
+        }
+        throw new GeneralSecurityException("Invalid public code");
+    }
+
+    /**
+     * Returns the internal code, or null if the value is not a valid public code for this secret.
+     */
+    static String decodePublicCode(String publicCode, String secretKey) throws GeneralSecurityException {
+        byte[] decoded;
+        try {
+            decoded = Base64.getUrlDecoder().decode(publicCode);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (decoded.length < HEADER_LENGTH) {
+            return null;
+        }
+
+        byte format = decoded[0];
+        int payloadLength = decoded.length - HEADER_LENGTH;
+        if (format == UUID_FORMAT && (payloadLength == 0 || payloadLength % UUID_BYTES != 0)) {
+            return null;
+        }
+        if (format != UUID_FORMAT && format != TEXT_FORMAT) {
+            return null;
+        }
+
+        Keys codeKeys = getKeys(secretKey);
+        byte[] tag = Arrays.copyOfRange(decoded, 1, HEADER_LENGTH);
+        byte[] payload = new byte[payloadLength];
+        crypt(codeKeys, tag, decoded, HEADER_LENGTH, payloadLength, payload, 0);
+
+        if (!MessageDigest.isEqual(tag, tag(codeKeys, format, payload))) {
+            return null;
+        }
+
+        return format == UUID_FORMAT ? unpackUUIDs(payload) : new String(payload, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] tag(Keys codeKeys, byte format, byte[] payload) {
+        Mac mac = codeKeys.mac.get();
+        mac.update(format);
+        mac.update(payload);
+        return Arrays.copyOf(mac.doFinal(), TAG_LENGTH);
+    }
+
+    private static void crypt(Keys codeKeys, byte[] tag, byte[] input, int inputOffset, int length,
+                              byte[] output, int outputOffset) throws GeneralSecurityException {
+        Cipher threadCipher = cipher.get();
+        threadCipher.init(Cipher.ENCRYPT_MODE, codeKeys.encryptionKey, new IvParameterSpec(Arrays.copyOf(tag, 16)));
+        threadCipher.doFinal(input, inputOffset, length, output, outputOffset);
+    }
+
+    private static boolean isUUIDSequence(String code) {
+        if (code.isEmpty() || code.length() % UUID_LENGTH != 0) {
+            return false;
+        }
+        for (int i = 0; i < code.length(); i += UUID_LENGTH) {
+            String part = code.substring(i, i + UUID_LENGTH);
+            try {
+                // UUID.fromString is lenient, only canonical lower case UUIDs survive the round trip
+                if (!UUID.fromString(part).toString().equals(part)) {
+                    return false;
+                }
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] packUUIDs(String code) {
+        ByteBuffer buffer = ByteBuffer.allocate(code.length() / UUID_LENGTH * UUID_BYTES);
+        for (int i = 0; i < code.length(); i += UUID_LENGTH) {
+            UUID uuid = UUID.fromString(code.substring(i, i + UUID_LENGTH));
+            buffer.putLong(uuid.getMostSignificantBits());
+            buffer.putLong(uuid.getLeastSignificantBits());
+        }
+        return buffer.array();
+    }
+
+    private static String unpackUUIDs(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        StringBuilder code = new StringBuilder(payload.length / UUID_BYTES * UUID_LENGTH);
+        while (buffer.hasRemaining()) {
+            code.append(new UUID(buffer.getLong(), buffer.getLong()));
+        }
+        return code.toString();
+    }
+
+    private static Keys getKeys(String secretKey) throws GeneralSecurityException {
+        Keys codeKeys = keys.get(secretKey);
+        if (codeKeys == null) {
+            codeKeys = new Keys(secretKey);
+            keys.putIfAbsent(secretKey, codeKeys);
+        }
+        return codeKeys;
+    }
+
+    /**
+     * MAC and encryption keys derived from one secret, with a MAC instance per thread already initialized with the key.
+     */
+    private static final class Keys {
+        private final SecretKeySpec encryptionKey;
+        private final ThreadLocal<Mac> mac;
+
+        Keys(String secretKey) throws GeneralSecurityException {
+            SecretKeySpec masterKey = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+            byte[] macKey = derive(masterKey, "public-code-mac");
+            byte[] encryptionKeyBytes = Arrays.copyOf(derive(masterKey, "public-code-encryption"), 16);
+
+            this.encryptionKey = new SecretKeySpec(encryptionKeyBytes, "AES");
+            final SecretKeySpec macKeySpec = new SecretKeySpec(macKey, MAC_ALGORITHM);
+            this.mac = ThreadLocal.withInitial(() -> {
+                try {
+                    Mac instance = Mac.getInstance(MAC_ALGORITHM);
+                    instance.init(macKeySpec);
+                    return instance;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("Unable to create " + MAC_ALGORITHM + " instance", e);
+                }
+            });
+        }
+
+        private static byte[] derive(SecretKeySpec masterKey, String purpose) throws GeneralSecurityException {
+            Mac instance = Mac.getInstance(MAC_ALGORITHM);
+            instance.init(masterKey);
+            return instance.doFinal(purpose.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
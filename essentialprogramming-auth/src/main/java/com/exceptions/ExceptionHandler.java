@@ -2,6 +2,7 @@ package com.exceptions;
 
 import com.util.enums.HTTPCustomStatus;
 import com.util.exceptions.ApiException;
+import com.util.exceptions.TooManyRequestsException;
 import com.web.json.JsonResponse;
 import org.springframework.web.client.HttpClientErrorException;
 
@@ -29,6 +30,19 @@ public class ExceptionHandler {
                 .build();
     };
 
+    private final static Strategy<TooManyRequestsException> tooManyRequestsStrategy = (exception) -> {
+        JsonResponse jsonResponse;
+        jsonResponse = new JsonResponse()
+                .with("message", exception.getMessage())
+                .with("code", exception.getHttpCode())
+                .done();
+        return Response
+                .status(exception.getHttpCode().value())
+                .header("Retry-After", exception.getRetryAfterSeconds())
+                .entity(jsonResponse)
+                .build();
+    };
+
     private final static Strategy<HttpClientErrorException> httpClientErrorException = (exception) -> {
         JsonResponse jsonResponse;
         jsonResponse = new JsonResponse()
@@ -58,6 +72,7 @@ public class ExceptionHandler {
     private final static Map<Class, Strategy> strategiesMap = new HashMap<Class, Strategy>() {
         {
             put(ApiException.class, apiExceptionStrategy);
+            put(TooManyRequestsException.class, tooManyRequestsStrategy);
             put(HttpClientErrorException.class, httpClientErrorException);
         }
     };
@@ -19,6 +19,7 @@ public enum ErrorCode implements ErrorCodes.ErrorCode {
     ALGORITHM_NOT_AVAILABLE(7, "Requested cryptographic algorithm is not available in the environment."),
     UNDEFINED_ACCESS_CHANNEL(8, "Undefined access channel"),
     SYMMETRIC_KEY_IS_NULL(9, "Symmetric Key must not be null"),
+    KEY_PAIR_MISMATCH(10, "Public and private keys do not form a key pair"),
 
 
     PASSWORD_HASH_CREATION_NOT_SUCCESFUL(40, "Password Hash creation not successful"),
@@ -6,8 +6,8 @@ import com.identityprovider.model.PasswordInput;
 import com.identityprovider.model.ResetPasswordInput;
 import com.authentication.request.AuthRequest;
 import com.aventrix.jnanoid.jnanoid.NanoIdUtils;
-import com.crypto.Crypt;
 import com.crypto.PasswordHash;
+import com.crypto.PublicCode;
 import com.exceptions.PasswordException;
 import com.identityprovider.entities.Account;
 import com.identityprovider.repository.AccountRepository;
@@ -27,6 +27,8 @@ import org.springframework.stereotype.Service;
 import java.io.Serializable;
 import java.security.GeneralSecurityException;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 import static com.resources.AppResources.OTP_LOGIN_URL;
 
@@ -36,12 +38,18 @@ public class AccountService implements AuthenticationProvider {
 
     private final AccountRepository accountRepository;
     private final EmailTemplateService emailTemplateService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final OtpStore otpStore;
 
     @Autowired
     public AccountService(AccountRepository accountRepository,
-                          EmailTemplateService emailTemplateService) {
+                          EmailTemplateService emailTemplateService,
+                          PasswordHashingExecutor passwordHashingExecutor,
+                          OtpStore otpStore) {
         this.accountRepository = accountRepository;
         this.emailTemplateService = emailTemplateService;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.otpStore = otpStore;
     }
 
     /**
@@ -60,23 +68,51 @@ public class AccountService implements AuthenticationProvider {
                 throw new ApiException(Messages.get("USER.ACCOUNT.DELETED", language), HTTPCustomStatus.BUSINESS_EXCEPTION);
             }
 
-            isValidPassword = PasswordHash.matches(authRequest.getPassword(), account.get().getPassword());
+            String hashedPassword = account.get().getPassword();
+            isValidPassword = hash(() -> PasswordHash.matches(authRequest.getPassword(), hashedPassword), language);
         } else {
             throw new ApiException(Messages.get("USER.NOT.EXIST", language), HTTPCustomStatus.BUSINESS_EXCEPTION);
         }
         if (isValidPassword) {
+            rehashIfNeeded(account.get(), authRequest.getPassword());
             return account.get();
         }
         throw new ApiException(Messages.get("USER.PASSWORD.INVALID", language), HTTPCustomStatus.BUSINESS_EXCEPTION);
     }
 
+    /**
+     * Runs the hashing on the bounded password hashing pool, answering 503 when the pool is saturated.
+     */
+    private <T> T hash(Supplier<T> hashing, Language language) throws ApiException {
+        try {
+            return passwordHashingExecutor.compute(hashing);
+        } catch (RejectedExecutionException e) {
+            throw new ApiException(Messages.get("PASSWORD.HASHING.BUSY", language), HTTPCustomStatus.SERVICE_UNAVAILABLE, e);
+        }
+    }
+
+    /**
+     * Replaces a stored hash that falls below the current hashing policy, while the plain password is at hand.
+     * Skipped when the hashing pool is saturated, the next login tries again.
+     */
+    private void rehashIfNeeded(Account account, String password) {
+        if (!PasswordHash.needsRehash(account.getPassword())) {
+            return;
+        }
+        try {
+            account.setPassword(passwordHashingExecutor.compute(() -> PasswordHash.rehash(password, account.getPassword())));
+        } catch (RejectedExecutionException e) {
+            // keep the current hash
+        }
+    }
+
     private Optional<Account> getAccount(String username) {
         return accountRepository.findByEmail(username);
     }
 
     public Serializable setPassword(PasswordInput passwordInput, Language language) throws GeneralSecurityException, ApiException, PasswordException {
 
-        String decryptedUserKey = Crypt.decrypt(passwordInput.getKey(), AppResources.ENCRYPTION_KEY.value());
+        String decryptedUserKey = PublicCode.decode(passwordInput.getKey(), AppResources.ENCRYPTION_KEY.value());
         Optional<Account> account = accountRepository.findByUserKey(decryptedUserKey);
 
         if (!account.isPresent()) {
@@ -96,7 +132,7 @@ public class AccountService implements AuthenticationProvider {
         if (!passwordStrength)
             throw new PasswordException(Messages.get("USER.PASSWORD.STRENGTH", language), PasswordStrength.get(passwordPower.getValue()));
 
-        account.ifPresent(user -> user.setPassword(PasswordHash.encode(passwordInput.getNewPassword())));
+        account.get().setPassword(hash(() -> PasswordHash.encode(passwordInput.getNewPassword()), language));
 
 
         return new JsonResponse()
@@ -111,6 +147,9 @@ public class AccountService implements AuthenticationProvider {
         Account account = accountRepository.findByEmail(email).orElseThrow(() ->
                 new ApiException(Messages.get("USER.NOT.FOUND", language), HTTPCustomStatus.BUSINESS_EXCEPTION));
 
+        if (!otpStore.store(account.getEmail(), otp)) {
+            throw new ApiException(Messages.get("OTP.UNAVAILABLE", language), HTTPCustomStatus.SERVICE_UNAVAILABLE);
+        }
 
         String url = OTP_LOGIN_URL.value() + "?email=" + account.getEmail() + "&otp=" + otp + "&platform=" + platform;
 
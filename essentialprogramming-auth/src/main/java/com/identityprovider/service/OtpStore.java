@@ -0,0 +1,105 @@
+package com.identityprovider.service;
+
+import com.util.cache.ShardedExpiringMap;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.util.cloud.DeploymentConfiguration.getProperty;
+
+/**
+ * Outstanding one time passwords, one per account, kept in memory for OTP_TTL_SECONDS (15 minutes by default).
+ * <p/>
+ * Only the SHA-256 digest of a password is kept and it is compared in constant time. A password can be used once,
+ * and it is dropped after OTP_MAX_ATTEMPTS (3) wrong guesses. Generating a new password replaces the previous one.
+ * At most OTP_STORE_SIZE (100 000) passwords are outstanding at once.
+ */
+@Component
+public class OtpStore {
+
+    private static final int TTL_SECONDS = getProperty("OTP_TTL_SECONDS", 900);
+    private static final int STORE_SIZE = getProperty("OTP_STORE_SIZE", 100_000);
+    private static final int MAX_ATTEMPTS = getProperty("OTP_MAX_ATTEMPTS", 3);
+    private static final int SHARDS = 16;
+    private static final long TICK_MILLIS = 1000;
+
+    private final ShardedExpiringMap<String, Otp> otps;
+    private final ScheduledExecutorService expiry;
+
+    public OtpStore() {
+        this(new ShardedExpiringMap<>(SHARDS, STORE_SIZE, TTL_SECONDS * 1000L, TICK_MILLIS));
+    }
+
+    OtpStore(ShardedExpiringMap<String, Otp> otps) {
+        this.otps = otps;
+        this.expiry = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "otp-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.expiry.scheduleWithFixedDelay(otps::expire, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return false when the store is full and the password was not stored
+     */
+    public boolean store(String email, String otp) {
+        return otps.put(normalize(email), new Otp(digest(otp)));
+    }
+
+    /**
+     * Checks the password and consumes it when it matches.
+     */
+    public boolean verify(String email, String otp) {
+        if (email == null || otp == null) {
+            return false;
+        }
+        String key = normalize(email);
+        Otp stored = otps.get(key);
+        if (stored == null) {
+            return false;
+        }
+        if (MessageDigest.isEqual(stored.digest, digest(otp))) {
+            // only one of concurrent logins with the same password removes it
+            return otps.remove(key, stored);
+        }
+        if (stored.failures.incrementAndGet() >= MAX_ATTEMPTS) {
+            otps.remove(key, stored);
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void close() {
+        expiry.shutdownNow();
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ENGLISH);
+    }
+
+    private static byte[] digest(String otp) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(otp.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static final class Otp {
+        private final byte[] digest;
+        private final AtomicInteger failures = new AtomicInteger();
+
+        Otp(byte[] digest) {
+            this.digest = digest;
+        }
+    }
+}
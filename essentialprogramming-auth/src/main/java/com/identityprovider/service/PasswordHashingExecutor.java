@@ -0,0 +1,224 @@
+package com.identityprovider.service;
+
+import com.crypto.PasswordHash;
+import com.util.cloud.DeploymentConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a dedicated, bounded pool instead of the shared application executor.
+ * <p/>
+ * Every hash allocates {@link PasswordHash#getMemoryCost()} bytes (64MB with Argon2), so the number of hashes running
+ * at once is capped by the CPU count and by a memory budget (PASSWORD_HASH_MEMORY_BUDGET_MB, a quarter of the heap
+ * by default). Requests beyond that wait in a bounded queue (PASSWORD_HASH_QUEUE_SIZE); when the queue is full, or
+ * a request waited longer than PASSWORD_HASH_QUEUE_TIMEOUT_MS, it is rejected right away with a
+ * {@link RejectedExecutionException} instead of piling up behind a login burst. A caller never waits longer than
+ * the queue timeout plus PASSWORD_HASH_TIMEOUT_MS for its hash, a hash still running by then is cancelled.
+ */
+@Component
+public class PasswordHashingExecutor implements PasswordHashingExecutorMXBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PasswordHashingExecutor.class);
+
+    private static final long MB = 1024L * 1024L;
+    private static final String OBJECT_NAME = "com.identityprovider:type=PasswordHashingExecutor";
+
+    private static final int CONCURRENCY = defaultConcurrency();
+    private static final int QUEUE_SIZE = DeploymentConfiguration.getProperty("PASSWORD_HASH_QUEUE_SIZE", 4 * CONCURRENCY);
+    private static final int QUEUE_TIMEOUT = DeploymentConfiguration.getProperty("PASSWORD_HASH_QUEUE_TIMEOUT_MS", 2000);
+    private static final int HASH_TIMEOUT = DeploymentConfiguration.getProperty("PASSWORD_HASH_TIMEOUT_MS", 5000);
+
+    private final ThreadPoolExecutor executor;
+    private final int concurrency;
+    private final int queueCapacity;
+    private final long maxQueueWaitNanos;
+    private final long maxHashNanos;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+
+    public PasswordHashingExecutor() {
+        this(CONCURRENCY, QUEUE_SIZE, QUEUE_TIMEOUT, HASH_TIMEOUT);
+    }
+
+    PasswordHashingExecutor(int concurrency, int queueCapacity, long maxQueueWaitMillis, long maxHashMillis) {
+        this.concurrency = concurrency;
+        this.queueCapacity = queueCapacity;
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMillis);
+        this.maxHashNanos = TimeUnit.MILLISECONDS.toNanos(maxHashMillis);
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Runs the hashing on the pool and waits for its result.
+     *
+     * @throws RejectedExecutionException when the pool is saturated or the hash did not finish in time
+     */
+    public <T> T compute(Supplier<T> hashing) {
+        long submittedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> run(hashing, submittedAt));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+
+        try {
+            return result.get(maxQueueWaitNanos + maxHashNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            rejected.increment();
+            throw new RejectedExecutionException("Password hashing did not finish in time", e);
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private <T> T run(Supplier<T> hashing, long submittedAt) {
+        long startedAt = System.nanoTime();
+        long queueWait = startedAt - submittedAt;
+        if (queueWait > maxQueueWaitNanos) {
+            // the caller has most likely given up already, do not spend a hash on it
+            rejected.increment();
+            throw new RejectedExecutionException("Password hashing request expired in the queue");
+        }
+        try {
+            return hashing.get();
+        } finally {
+            queueWaitNanos.add(queueWait);
+            hashNanos.add(System.nanoTime() - startedAt);
+            completed.increment();
+        }
+    }
+
+    /**
+     * Number of hashes that can run at once without exceeding either the processors or the memory budget.
+     */
+    static int concurrency(int processors, long memoryBudget, long memoryPerHash) {
+        if (memoryPerHash <= 0) {
+            return processors;
+        }
+        return (int) Math.max(1, Math.min(processors, memoryBudget / memoryPerHash));
+    }
+
+    /**
+     * Reads the memory cost of the password hashing policy, which calibrates the policy, so this happens at startup.
+     */
+    private static int defaultConcurrency() {
+        long defaultBudget = Runtime.getRuntime().maxMemory() / 4 / MB;
+        long memoryBudget = DeploymentConfiguration.getProperty("PASSWORD_HASH_MEMORY_BUDGET_MB", (int) defaultBudget) * MB;
+        return DeploymentConfiguration.getProperty("PASSWORD_HASH_THREADS",
+                concurrency(Runtime.getRuntime().availableProcessors(), memoryBudget, PasswordHash.getMemoryCost()));
+    }
+
+    @Override
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    @Override
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    @Override
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public double getAverageQueueWaitMillis() {
+        return averageMillis(queueWaitNanos);
+    }
+
+    @Override
+    public double getAverageHashMillis() {
+        return averageMillis(hashNanos);
+    }
+
+    private double averageMillis(LongAdder totalNanos) {
+        long count = completed.sum();
+        return count == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / count;
+    }
+
+    @PostConstruct
+    public void registerMBean() {
+        LOG.info("Password hashing limited to {} concurrent hashes, {} queued", concurrency, queueCapacity);
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(this, objectName);
+            }
+        } catch (JMException e) {
+            LOG.warn("Unable to publish password hashing statistics", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            LOG.warn("Unable to remove password hashing statistics", e);
+        }
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.identityprovider.service;
+
+/**
+ * Password hashing executor statistics, published over JMX.
+ */
+public interface PasswordHashingExecutorMXBean {
+
+    int getConcurrency();
+
+    int getActiveCount();
+
+    int getQueueDepth();
+
+    int getQueueCapacity();
+
+    long getCompletedCount();
+
+    long getRejectedCount();
+
+    double getAverageQueueWaitMillis();
+
+    double getAverageHashMillis();
+}
@@ -0,0 +1,39 @@
+package com.authentication.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+public class RefreshTokenRevocationsTest {
+
+    private final RefreshTokenRevocations revocations = new RefreshTokenRevocations(60_000);
+
+    @Test
+    void refresh_token_can_be_used_once() {
+        String tokenId = UUID.randomUUID().toString();
+
+        Assertions.assertTrue(revocations.markUsed(tokenId));
+        Assertions.assertFalse(revocations.markUsed(tokenId));
+        Assertions.assertTrue(revocations.markUsed(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    void revoked_family_stays_revoked() {
+        String familyId = UUID.randomUUID().toString();
+        Assertions.assertFalse(revocations.isRevoked(familyId));
+
+        revocations.revokeFamily(familyId);
+
+        Assertions.assertTrue(revocations.isRevoked(familyId));
+        Assertions.assertFalse(revocations.isRevoked(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    void malformed_ids_are_refused() {
+        Assertions.assertFalse(revocations.markUsed(null));
+        Assertions.assertFalse(revocations.markUsed("not-a-token-id"));
+        Assertions.assertTrue(revocations.isRevoked(null));
+        Assertions.assertTrue(revocations.isRevoked("not-a-family-id"));
+    }
+}
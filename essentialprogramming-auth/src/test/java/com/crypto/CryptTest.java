@@ -1,12 +1,20 @@
 package com.crypto;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
+import java.util.Base64;
 
 final class CryptTest {
 
+    private static final String SECRET = "supercalifragilisticexpialidocious";
+    private static final int ROUNDS = 20;
+
 
     @Test
     void should_be_equal_before_and_after_decrypt() throws GeneralSecurityException, UnsupportedEncodingException {
@@ -18,4 +26,53 @@ final class CryptTest {
 
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_produce_same_output_as_before_key_caching() throws GeneralSecurityException {
+        // values produced by the previous implementation, which derived the key on every call
+        Assertions.assertEquals("ydAWsTOa3vyzzsPvmeH6-A", Crypt.encrypt("razvan", SECRET));
+        Assertions.assertEquals("HpOAD7sKscJlB5ahVjcsaql1O_ByqAaUq2F4PHfZOv0xd_1cODnGWz2RMGvp_rgE",
+                Crypt.encrypt("3f1c2a4e-7b7d-4d4a-9a55-0c1f9b6a2e11", SECRET));
+
+        Assertions.assertEquals("razvan", Crypt.decrypt("ydAWsTOa3vyzzsPvmeH6-A", SECRET));
+    }
+
+    @Test
+    void should_decrypt_with_different_secrets_concurrently() throws Exception {
+        String first = Crypt.encrypt("razvan", "first-secret");
+        String second = Crypt.encrypt("razvan", "second-secret");
+        Assertions.assertNotEquals(first, second);
+
+        Thread thread = new Thread(() -> {
+            try {
+                for (int i = 0; i < ROUNDS; i++) {
+                    Assertions.assertEquals("razvan", Crypt.decrypt(second, "second-secret"));
+                }
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.start();
+        for (int i = 0; i < ROUNDS; i++) {
+            Assertions.assertEquals("razvan", Crypt.decrypt(first, "first-secret"));
+        }
+        thread.join();
+    }
+
+    @Test
+    void cached_key_should_encrypt_like_deriving_key_per_call() throws GeneralSecurityException {
+        for (String value : new String[]{"razvan", "3f1c2a4e-7b7d-4d4a-9a55-0c1f9b6a2e11", ""}) {
+            Assertions.assertEquals(encryptDerivingKey(value, SECRET), Crypt.encrypt(value, SECRET));
+        }
+    }
+
+    /**
+     * Encrypts the way Crypt did before the key cache: PBKDF2 derivation and a new Cipher on every call.
+     */
+    private static String encryptDerivingKey(String value, String secretKey) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, Crypt.deriveKey(secretKey), new IvParameterSpec(new byte[16]));
+        byte[] encrypted = cipher.doFinal(value.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(encrypted);
+    }
+}
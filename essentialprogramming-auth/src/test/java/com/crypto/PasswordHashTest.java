@@ -0,0 +1,163 @@
+package com.crypto;
+
+import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
+import org.bouncycastle.crypto.params.Argon2Parameters;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class PasswordHashTest {
+
+    private static final String PASSWORD = "Str0ng-Passw0rd!";
+
+    @Test
+    void encoded_password_carries_its_parameters() {
+        Map<String, Integer> parameters = new LinkedHashMap<>();
+        parameters.put("v", 19);
+        parameters.put("m", 65536);
+        parameters.put("t", 3);
+        parameters.put("p", 1);
+        String encoded = new EncodedPassword("argon2id", parameters, new byte[]{1, 2, 3}, new byte[]{4, 5, 6, 7}).toString();
+
+        Assertions.assertEquals("$argon2id$v=19$m=65536,t=3,p=1$AQID$BAUGBw", encoded);
+
+        EncodedPassword parsed = EncodedPassword.parse(encoded);
+        Assertions.assertEquals("argon2id", parsed.getAlgorithm());
+        Assertions.assertEquals(19, parsed.getParameter("v"));
+        Assertions.assertEquals(3, parsed.getParameter("t"));
+        Assertions.assertEquals(-1, parsed.getParameter("x"));
+        Assertions.assertArrayEquals(new byte[]{4, 5, 6, 7}, parsed.getHash());
+    }
+
+    @Test
+    void malformed_encoded_password_is_rejected() {
+        Assertions.assertNull(EncodedPassword.parse("$pbkdf2-sha256$i=abc$AQID$BAUG"));
+        Assertions.assertNull(EncodedPassword.parse("$pbkdf2-sha256$AQID"));
+        Assertions.assertFalse(PasswordHash.matches(PASSWORD, "$pbkdf2-sha256$i=abc$AQID$BAUG"));
+    }
+
+    @Test
+    void pbkdf2_hash_round_trip() {
+        String hash = Pbkdf2PasswordEncoder.getInstance().encode(PASSWORD);
+
+        Assertions.assertTrue(hash.startsWith("$pbkdf2-sha256$i=200000$"));
+        Assertions.assertTrue(PasswordHash.matches(PASSWORD, hash));
+        Assertions.assertFalse(PasswordHash.matches(PASSWORD.toLowerCase(), hash));
+    }
+
+    @Test
+    void argon2_hash_round_trip() {
+        String hash = Argon2PasswordEncoder.getInstance().encode(PASSWORD);
+
+        Assertions.assertTrue(hash.startsWith("$argon2id$v=19$m=65536,t=2,p=1$"));
+        Assertions.assertTrue(PasswordHash.matches(PASSWORD, hash));
+        Assertions.assertFalse(PasswordHash.matches("Test456", hash));
+    }
+
+    @Test
+    void legacy_argon2_hash_is_matched_by_argon2() {
+        // former format HEX_HASH:SALT:2, previously dispatched to the PBKDF2 encoder
+        String salt = "c2FsdHNhbHRzYWx0c2FsdA==";
+        String legacyHash = toHex(legacyArgon2Hash(salt.getBytes())) + ":" + salt + ":2";
+
+        Assertions.assertTrue(PasswordHash.matches(PASSWORD, legacyHash));
+        Assertions.assertFalse(PasswordHash.matches("Test456", legacyHash));
+        Assertions.assertTrue(PasswordHash.needsRehash(legacyHash));
+    }
+
+    @Test
+    void legacy_pbkdf2_hash_is_matched_ignoring_case() throws Exception {
+        String legacyHash = legacyPbkdf2Hash();
+
+        Assertions.assertTrue(PasswordHash.matches(PASSWORD, legacyHash));
+        Assertions.assertTrue(PasswordHash.matches(PASSWORD.toUpperCase(), legacyHash));
+        Assertions.assertFalse(PasswordHash.matches("Test456", legacyHash));
+        Assertions.assertTrue(PasswordHash.needsRehash(legacyHash));
+    }
+
+    @Test
+    void legacy_pbkdf2_hash_is_replaced_by_a_hash_ignoring_case() throws Exception {
+        String rehashed = PasswordHash.rehash(PASSWORD, legacyPbkdf2Hash());
+
+        Assertions.assertTrue(rehashed.contains(",ci=1$"));
+        Assertions.assertTrue(PasswordHash.matches(PASSWORD, rehashed));
+        Assertions.assertTrue(PasswordHash.matches(PASSWORD.toUpperCase(), rehashed));
+        Assertions.assertFalse(PasswordHash.matches("Test456", rehashed));
+        Assertions.assertFalse(PasswordHash.needsRehash(rehashed));
+        // a hash ignoring case stays so when the policy changes
+        Assertions.assertTrue(PasswordHash.rehash(PASSWORD, new Pbkdf2PasswordEncoder(1000).encodeIgnoringCase(PASSWORD)).contains("ci=1$"));
+    }
+
+    @Test
+    void hash_of_a_new_password_is_case_sensitive() {
+        String hash = PasswordHash.encode(PASSWORD);
+
+        Assertions.assertFalse(hash.contains("ci=1"));
+        Assertions.assertFalse(PasswordHash.matches(PASSWORD.toUpperCase(), hash));
+        Assertions.assertFalse(PasswordHash.matches(PASSWORD.toUpperCase(), PasswordHash.rehash(PASSWORD, hash)));
+    }
+
+    @Test
+    void argon2_hash_ignoring_case_round_trip() {
+        String hash = Argon2PasswordEncoder.getInstance().encodeIgnoringCase(PASSWORD);
+
+        Assertions.assertTrue(hash.startsWith("$argon2id$v=19$m=65536,t=2,p=1,ci=1$"));
+        Assertions.assertTrue(PasswordHash.matches(PASSWORD.toUpperCase(), hash));
+        Assertions.assertFalse(PasswordHash.matches("Test456", hash));
+    }
+
+    @Test
+    void hash_below_the_policy_needs_rehash() {
+        Pbkdf2PasswordEncoder policy = new Pbkdf2PasswordEncoder(400000);
+
+        Assertions.assertTrue(policy.upgradeEncoding(new Pbkdf2PasswordEncoder(200000).encode(PASSWORD)));
+        Assertions.assertFalse(policy.upgradeEncoding(policy.encode(PASSWORD)));
+        Assertions.assertFalse(policy.upgradeEncoding(new Pbkdf2PasswordEncoder(500000).encode(PASSWORD)));
+        Assertions.assertTrue(policy.upgradeEncoding(Argon2PasswordEncoder.getInstance().encode(PASSWORD)));
+
+        Assertions.assertFalse(PasswordHash.needsRehash(PasswordHash.encode(PASSWORD)));
+    }
+
+    @Test
+    void calibration_scales_cost_to_the_target() {
+        long millis = 1_000_000L;
+
+        Assertions.assertEquals(500000, PasswordHashCalibration.cost(200000, 5000000, 250 * millis, 100 * millis));
+        Assertions.assertEquals(200000, PasswordHashCalibration.cost(200000, 5000000, 250 * millis, 400 * millis));
+        Assertions.assertEquals(5000000, PasswordHashCalibration.cost(200000, 5000000, 250 * millis, millis));
+    }
+
+    private static String legacyPbkdf2Hash() throws Exception {
+        byte[] salt = "0123456789abcdef".getBytes();
+        PBEKeySpec keySpec = new PBEKeySpec(PASSWORD.toLowerCase().toCharArray(), salt, 200000, 64 * 8);
+        byte[] hash = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA1").generateSecret(keySpec).getEncoded();
+        return Base64.getEncoder().encodeToString(hash) + ":" + Base64.getEncoder().encodeToString(salt) + ":3";
+    }
+
+    private static byte[] legacyArgon2Hash(byte[] salt) {
+        Argon2Parameters params = new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
+                .withSalt(salt)
+                .withParallelism(1)
+                .withMemoryAsKB(65536)
+                .withIterations(2)
+                .build();
+        Argon2BytesGenerator generator = new Argon2BytesGenerator();
+        generator.init(params);
+        byte[] hash = new byte[32];
+        generator.generateBytes(PASSWORD.toCharArray(), hash);
+        return hash;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,71 @@
+package com.crypto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.security.GeneralSecurityException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class PublicCodeTest {
+
+    private static final String SECRET = "supercalifragilisticexpialidocious";
+
+    @Test
+    void should_be_equal_before_and_after_decode() throws GeneralSecurityException {
+        String code = UUID.randomUUID().toString() + UUID.randomUUID().toString();
+
+        String publicCode = PublicCode.encode(code, SECRET);
+
+        Assertions.assertEquals(code, PublicCode.decode(publicCode, SECRET));
+    }
+
+    @Test
+    void should_be_shorter_than_crypt() throws GeneralSecurityException {
+        String code = UUID.randomUUID().toString() + UUID.randomUUID().toString();
+
+        Assertions.assertTrue(PublicCode.encode(code, SECRET).length() < Crypt.encrypt(code, SECRET).length());
+        Assertions.assertEquals(39, PublicCode.encode(UUID.randomUUID().toString(), SECRET).length());
+    }
+
+    @Test
+    void should_be_deterministic() throws GeneralSecurityException {
+        String code = UUID.randomUUID().toString();
+
+        Assertions.assertEquals(PublicCode.encode(code, SECRET), PublicCode.encode(code, SECRET));
+        Assertions.assertNotEquals(PublicCode.encode(code, SECRET), PublicCode.encode(code, "another-secret"));
+    }
+
+    @Test
+    void should_encode_codes_that_are_not_uuids() throws GeneralSecurityException {
+        String code = "business-ÄÖÜ-42";
+
+        Assertions.assertEquals(code, PublicCode.decode(PublicCode.encode(code, SECRET), SECRET));
+    }
+
+    @Test
+    void should_decode_legacy_crypt_codes() throws GeneralSecurityException {
+        String code = UUID.randomUUID().toString() + UUID.randomUUID().toString();
+
+        Assertions.assertEquals(code, PublicCode.decode(Crypt.encrypt(code, SECRET), SECRET));
+    }
+
+    @Test
+    void should_reject_tampered_codes() throws GeneralSecurityException {
+        String publicCode = PublicCode.encode(UUID.randomUUID().toString(), SECRET);
+        char[] chars = publicCode.toCharArray();
+        chars[10] = chars[10] == 'A' ? 'B' : 'A';
+        String tampered = new String(chars);
+
+        Assertions.assertNull(PublicCode.decodePublicCode(tampered, SECRET));
+        assertThrows(GeneralSecurityException.class, () -> PublicCode.decode(tampered, SECRET));
+    }
+
+    @Test
+    void should_reject_codes_encoded_with_another_secret() throws GeneralSecurityException {
+        String publicCode = PublicCode.encode(UUID.randomUUID().toString(), "another-secret");
+
+        Assertions.assertNull(PublicCode.decodePublicCode(publicCode, SECRET));
+    }
+}
@@ -0,0 +1,43 @@
+package com.identityprovider.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class OtpStoreTest {
+
+    private final OtpStore otpStore = new OtpStore();
+
+    @Test
+    void otp_can_be_used_once() {
+        otpStore.store("user@example.com", "V1StGXR8_Z5jdHi6B-myT");
+
+        Assertions.assertTrue(otpStore.verify("User@Example.com", "V1StGXR8_Z5jdHi6B-myT"));
+        Assertions.assertFalse(otpStore.verify("user@example.com", "V1StGXR8_Z5jdHi6B-myT"));
+    }
+
+    @Test
+    void new_otp_replaces_the_previous_one() {
+        otpStore.store("user@example.com", "first");
+        otpStore.store("user@example.com", "second");
+
+        Assertions.assertFalse(otpStore.verify("user@example.com", "first"));
+        Assertions.assertTrue(otpStore.verify("user@example.com", "second"));
+    }
+
+    @Test
+    void otp_is_dropped_after_too_many_wrong_guesses() {
+        otpStore.store("user@example.com", "secret");
+
+        Assertions.assertFalse(otpStore.verify("user@example.com", "guess-1"));
+        Assertions.assertFalse(otpStore.verify("user@example.com", "guess-2"));
+        Assertions.assertFalse(otpStore.verify("user@example.com", "guess-3"));
+        Assertions.assertFalse(otpStore.verify("user@example.com", "secret"));
+    }
+
+    @Test
+    void missing_otp_is_rejected() {
+        Assertions.assertFalse(otpStore.verify("user@example.com", "secret"));
+        Assertions.assertFalse(otpStore.verify("user@example.com", null));
+        Assertions.assertFalse(otpStore.verify(null, "secret"));
+    }
+}
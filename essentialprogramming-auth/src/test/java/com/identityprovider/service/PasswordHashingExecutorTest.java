@@ -0,0 +1,112 @@
+package com.identityprovider.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+
+public class PasswordHashingExecutorTest {
+
+    private static final long MB = 1024L * 1024L;
+
+    @Test
+    void concurrency_is_capped_by_processors_and_memory() {
+        Assertions.assertEquals(8, PasswordHashingExecutor.concurrency(8, 1024 * MB, 64 * MB));
+        Assertions.assertEquals(4, PasswordHashingExecutor.concurrency(16, 256 * MB, 64 * MB));
+        Assertions.assertEquals(1, PasswordHashingExecutor.concurrency(4, 16 * MB, 64 * MB));
+        Assertions.assertEquals(4, PasswordHashingExecutor.concurrency(4, 16 * MB, 0));
+    }
+
+    @Test
+    void hashing_runs_on_the_pool() {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(2, 4, 1000, 10_000);
+        try {
+            String threadName = executor.compute(() -> Thread.currentThread().getName());
+
+            Assertions.assertTrue(threadName.startsWith("password-hashing-"));
+            Assertions.assertEquals(1, executor.getCompletedCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void saturated_pool_rejects_right_away() throws Exception {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, 60_000, 10_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> running = callers.submit(() -> executor.compute(() -> {
+                started.countDown();
+                await(release);
+                return true;
+            }));
+            started.await();
+            Future<Boolean> queued = callers.submit(() -> executor.compute(() -> true));
+            while (executor.getQueueDepth() == 0) {
+                Thread.yield();
+            }
+
+            Assertions.assertThrows(RejectedExecutionException.class, () -> executor.compute(() -> true));
+            Assertions.assertEquals(1, executor.getRejectedCount());
+
+            release.countDown();
+            Assertions.assertTrue(running.get());
+            Assertions.assertTrue(queued.get());
+        } finally {
+            release.countDown();
+            callers.shutdown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void requests_expired_in_the_queue_are_rejected() throws Exception {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, 10, 10_000);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> running = callers.submit(() -> executor.compute(() -> await(release)));
+            while (executor.getActiveCount() == 0) {
+                Thread.yield();
+            }
+            CompletableFuture<Boolean> expired = CompletableFuture.supplyAsync(() -> executor.compute(() -> true));
+            while (executor.getQueueDepth() == 0) {
+                Thread.yield();
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            Assertions.assertTrue(running.get());
+            ExecutionException error = Assertions.assertThrows(ExecutionException.class, expired::get);
+            Assertions.assertTrue(error.getCause() instanceof RejectedExecutionException);
+        } finally {
+            release.countDown();
+            callers.shutdown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void caller_stops_waiting_for_a_hash_past_its_budget() {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, 10, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Assertions.assertThrows(RejectedExecutionException.class, () -> executor.compute(() -> await(release)));
+            Assertions.assertEquals(1, executor.getRejectedCount());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
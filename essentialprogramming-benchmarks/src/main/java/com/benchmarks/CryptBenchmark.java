@@ -0,0 +1,77 @@
+package com.benchmarks;
+
+import com.crypto.Crypt;
+import com.crypto.PublicCode;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity code encryption: {@link Crypt} is still used for legacy codes, {@link PublicCode} for everything issued now.
+ * {@link #cryptEncryptDerivingKey()} encrypts the way Crypt did before its key cache, deriving the key on every call,
+ * as the baseline of {@link #cryptEncrypt()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptBenchmark {
+
+    private static final String SECRET = "supercalifragilisticexpialidocious";
+    // the salt Crypt derives its keys with
+    private static final String SALT = "supercalifragilisticexpialidocious";
+
+    private String code;
+    private String encrypted;
+    private String publicCode;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        code = UUID.randomUUID().toString();
+        encrypted = Crypt.encrypt(code, SECRET);
+        publicCode = PublicCode.encode(code, SECRET);
+    }
+
+    @Benchmark
+    public String cryptEncryptDerivingKey() throws GeneralSecurityException {
+        SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+        PBEKeySpec spec = new PBEKeySpec(SECRET.toCharArray(), SALT.getBytes(StandardCharsets.UTF_8), 65536, 128);
+        SecretKeySpec key = new SecretKeySpec(factory.generateSecret(spec).getEncoded(), "AES");
+
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(new byte[16]));
+        byte[] encrypted = cipher.doFinal(code.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(encrypted);
+    }
+
+    @Benchmark
+    public String cryptEncrypt() throws GeneralSecurityException {
+        return Crypt.encrypt(code, SECRET);
+    }
+
+    @Benchmark
+    public String cryptDecrypt() throws GeneralSecurityException {
+        return Crypt.decrypt(encrypted, SECRET);
+    }
+
+    @Benchmark
+    public String publicCodeEncode() throws GeneralSecurityException {
+        return PublicCode.encode(code, SECRET);
+    }
+
+    @Benchmark
+    public String publicCodeDecode() throws GeneralSecurityException {
+        return PublicCode.decode(publicCode, SECRET);
+    }
+}
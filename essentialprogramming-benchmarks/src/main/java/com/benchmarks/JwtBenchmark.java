@@ -0,0 +1,58 @@
+package com.benchmarks;
+
+import com.token.validation.auth.AuthUtils;
+import com.token.validation.jwt.JwtUtil;
+import com.token.validation.jwt.exception.TokenValidationException;
+import com.token.validation.response.ValidationResponse;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Work done by the SecurityFilter and the controllers on every authenticated request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private KeyPair keyPair;
+    private SecretKey secretKey;
+
+    private String rsaToken;
+    private String hmacToken;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        JwtFixture fixture = new JwtFixture();
+        keyPair = fixture.getKeyPair();
+        secretKey = fixture.getSecretKey();
+
+        long expiration = System.currentTimeMillis() / 1000 + TimeUnit.DAYS.toSeconds(1);
+        String payload = "{\"iss\":\"kalendarium\",\"sub\":\"42\",\"email\":\"user@kalendarium.com\","
+                + "\"roles\":[\"ADMIN\",\"USER\"],\"exp\":" + expiration + "}";
+        rsaToken = fixture.createJwt("RS256", payload);
+        hmacToken = fixture.createJwt("HS256", payload);
+    }
+
+    @Benchmark
+    public ValidationResponse verifyRsa() throws TokenValidationException {
+        return JwtUtil.verifyJwt(rsaToken, keyPair.getPublic());
+    }
+
+    @Benchmark
+    public ValidationResponse verifyHmac() throws TokenValidationException {
+        return JwtUtil.verifyJwt(hmacToken, secretKey);
+    }
+
+    @Benchmark
+    public String getClaim() {
+        return AuthUtils.getClaim(rsaToken, "email");
+    }
+}
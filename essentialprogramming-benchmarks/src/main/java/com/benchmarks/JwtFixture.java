@@ -0,0 +1,63 @@
+package com.benchmarks;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.Base64;
+
+/**
+ * Keys and signed tokens shared by the JWT benchmarks.
+ */
+final class JwtFixture {
+
+    private final KeyPair keyPair;
+    private final SecretKey secretKey;
+
+    JwtFixture() throws GeneralSecurityException {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        keyPair = keyPairGenerator.generateKeyPair();
+        secretKey = KeyGenerator.getInstance("HmacSHA256").generateKey();
+    }
+
+    KeyPair getKeyPair() {
+        return keyPair;
+    }
+
+    SecretKey getSecretKey() {
+        return secretKey;
+    }
+
+    /**
+     * @param algorithm RS256 or HS256
+     * @param payload   the JSON claims of the token
+     */
+    String createJwt(String algorithm, String payload) throws GeneralSecurityException {
+        String header = "{\"alg\":\"" + algorithm + "\",\"typ\":\"JWT\",\"kid\":\"benchmark\"}";
+
+        String content = encode(header.getBytes(StandardCharsets.UTF_8)) + "." + encode(payload.getBytes(StandardCharsets.UTF_8));
+        byte[] data = content.getBytes(StandardCharsets.UTF_8);
+
+        byte[] signature;
+        if (algorithm.startsWith("RS")) {
+            Signature rsa = Signature.getInstance("SHA256withRSA");
+            rsa.initSign(keyPair.getPrivate());
+            rsa.update(data);
+            signature = rsa.sign();
+        } else {
+            Mac hmac = Mac.getInstance("HmacSHA256");
+            hmac.init(secretKey);
+            signature = hmac.doFinal(data);
+        }
+        return content + "." + encode(signature);
+    }
+
+    private static String encode(byte[] value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+    }
+}
@@ -0,0 +1,92 @@
+package com.benchmarks;
+
+import com.api.entities.*;
+import com.api.entities.enums.AppointmentStatus;
+import com.api.entities.enums.Day;
+import com.api.mapper.AppointmentMapper;
+import com.api.mapper.BusinessMapper;
+import com.api.output.AppointmentJSON;
+import com.api.output.BusinessJSON;
+import com.util.code.EntityCode;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.GeneralSecurityException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to JSON mapping, run for every element of the list endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    private Appointment appointment;
+    private Business business;
+
+    @Setup
+    public void setUp() {
+        User user = User.builder()
+                .firstName("Ana")
+                .lastName("Popescu")
+                .email("ana.popescu@kalendarium.com")
+                .build();
+
+        Address address = Address.builder()
+                .street("Strada Memorandumului 28")
+                .city("Cluj-Napoca")
+                .zip("400114")
+                .build();
+
+        business = Business.builder()
+                .name("Kalendarium Dental")
+                .businessCode(EntityCode.generate())
+                .address(address)
+                .phone("0740000000")
+                .email("contact@kalendarium.com")
+                .latitude("46.7712")
+                .longitude("23.6236")
+                .createdBy(user)
+                .build();
+
+        BusinessUnit businessUnit = BusinessUnit.builder()
+                .name("Cabinet 1")
+                .business(business)
+                .businessUnitCode(EntityCode.generate())
+                .build();
+
+        BusinessService businessService = BusinessService.builder()
+                .name("Consultation")
+                .business(business)
+                .businessServiceCode(EntityCode.generate())
+                .build();
+
+        appointment = Appointment.builder()
+                .business(business)
+                .businessUnit(businessUnit)
+                .businessService(businessService)
+                .user(user)
+                .status(AppointmentStatus.PENDING)
+                .appointmentCode(EntityCode.generate())
+                .startTime(LocalTime.of(10, 0))
+                .endTime(LocalTime.of(10, 30))
+                .day(Day.MONDAY)
+                .date(LocalDate.of(2020, 11, 2))
+                .build();
+    }
+
+    @Benchmark
+    public AppointmentJSON appointmentToOutput() throws GeneralSecurityException {
+        return AppointmentMapper.appointmentToOutput(appointment);
+    }
+
+    @Benchmark
+    public BusinessJSON businessToOutput() throws GeneralSecurityException {
+        return BusinessMapper.businessToOutput(business);
+    }
+}
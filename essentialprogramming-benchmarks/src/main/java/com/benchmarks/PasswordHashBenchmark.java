@@ -0,0 +1,46 @@
+package com.benchmarks;
+
+import com.crypto.Argon2PasswordEncoder;
+import com.crypto.PasswordEncoder;
+import com.crypto.PasswordHash;
+import com.crypto.Pbkdf2PasswordEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password hashing cost per algorithm, 1 = Argon2 and 2 = PBKDF2 as registered in {@link PasswordHash},
+ * at the minimum cost of each encoder (the policy used by {@link PasswordHash#encode(String)} is calibrated).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PasswordHashBenchmark {
+
+    private static final String PASSWORD = "Str0ng-Passw0rd!";
+
+    @Param({"1", "2"})
+    public int algorithm;
+
+    private PasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = algorithm == 1 ? Argon2PasswordEncoder.getInstance() : Pbkdf2PasswordEncoder.getInstance();
+        hash = PasswordHash.encode(PASSWORD, algorithm);
+    }
+
+    @Benchmark
+    public String encode() {
+        return PasswordHash.encode(PASSWORD, algorithm);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(PASSWORD, hash);
+    }
+}
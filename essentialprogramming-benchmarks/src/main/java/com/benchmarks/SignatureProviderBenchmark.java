@@ -0,0 +1,70 @@
+package com.benchmarks;
+
+import com.token.validation.crypto.HMACProvider;
+import com.token.validation.crypto.RSAProvider;
+import com.token.validation.jwt.Jwt;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signature verification with the per-thread verifiers of the providers, against a verifier looked up and
+ * initialized on every call. Run with {@code -t} to compare how both scale with the number of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignatureProviderBenchmark {
+
+    private KeyPair keyPair;
+    private SecretKey secretKey;
+
+    private Jwt rsaToken;
+    private Jwt hmacToken;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        JwtFixture fixture = new JwtFixture();
+        keyPair = fixture.getKeyPair();
+        secretKey = fixture.getSecretKey();
+
+        String payload = "{\"iss\":\"kalendarium\",\"sub\":\"42\",\"email\":\"user@kalendarium.com\"}";
+        rsaToken = new Jwt(fixture.createJwt("RS256", payload));
+        hmacToken = new Jwt(fixture.createJwt("HS256", payload));
+    }
+
+    @Benchmark
+    public boolean rsaPerThread() {
+        return RSAProvider.getInstance().verify(rsaToken, keyPair.getPublic());
+    }
+
+    @Benchmark
+    public boolean rsaPerCall() throws GeneralSecurityException {
+        Signature verifier = Signature.getInstance("SHA256withRSA");
+        verifier.initVerify(keyPair.getPublic());
+        verifier.update(rsaToken.getSigningInput());
+        return verifier.verify(rsaToken.getSignature());
+    }
+
+    @Benchmark
+    public boolean hmacPerThread() {
+        return HMACProvider.getInstance().verify(hmacToken, secretKey);
+    }
+
+    @Benchmark
+    public boolean hmacPerCall() throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(secretKey);
+        mac.update(hmacToken.getSigningInput());
+        return MessageDigest.isEqual(mac.doFinal(), hmacToken.getSignature());
+    }
+}
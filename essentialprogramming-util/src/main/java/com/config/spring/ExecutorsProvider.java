@@ -3,6 +3,7 @@ package com.config.spring;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.SynchronousQueue;
 
 import static com.util.cloud.DeploymentConfiguration.getProperty;
@@ -21,7 +22,20 @@ public class ExecutorsProvider {
 	}
 
 
+	private static class ForkJoinPoolHolder {
+		static final ForkJoinPool forkJoinPool = new ForkJoinPool(getProperty("FORK_JOIN_POOL_SIZE", Runtime.getRuntime().availableProcessors()));
+	}
+
+
 	public static ExecutorService getExecutorService() {
 		return ExecutorsServiceHolder.executorService;
 	}
+
+	/**
+	 * Pool for CPU bound work split in subtasks, kept apart from the application executor so that subtasks
+	 * never queue behind whole requests.
+	 */
+	public static ForkJoinPool getForkJoinPool() {
+		return ForkJoinPoolHolder.forkJoinPool;
+	}
 }
@@ -0,0 +1,66 @@
+package com.util.async;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs commands one at a time per key, in submission order, and commands of different keys in parallel.
+ * <p/>
+ * Every key is a single writer lane: the commands of a key are chained one after the other on the executor, so the
+ * state owned by a key is only touched by one command at a time without any lock held while waiting.
+ * A failing command does not stop the lane. A lane holds nothing once its last command has run.
+ */
+public final class SerialLanes<K> {
+
+    private static final CompletableFuture<Void> IDLE = CompletableFuture.completedFuture(null);
+
+    private final Executor executor;
+    private final ConcurrentMap<K, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+
+    public SerialLanes(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Queues the command on the lane of the key.
+     *
+     * @return the result of the command, completed exceptionally with what the command threw
+     */
+    public <R> CompletableFuture<R> submit(K key, Callable<R> command) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        @SuppressWarnings("unchecked")
+        CompletableFuture<R> tail = (CompletableFuture<R>) tails.compute(key, (lane, previous) -> (previous == null ? IDLE : previous)
+                .handleAsync((ignored, failure) -> call(command), executor));
+        // the lane is released before the caller hears of the result
+        tail.whenComplete((value, failure) -> {
+            tails.remove(key, tail);
+            if (failure == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return the number of keys with a command queued or running
+     */
+    public int activeLanes() {
+        return tails.size();
+    }
+
+    private static <R> R call(Callable<R> command) {
+        try {
+            return command.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+}
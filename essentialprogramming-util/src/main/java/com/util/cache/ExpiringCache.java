@@ -0,0 +1,96 @@
+package com.util.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded least recently used cache whose entries expire a fixed time after they were written,
+ * or earlier when a shorter time to live is given for an entry.
+ * <p/>
+ * Meant for small hot lookups (code resolution, parsed keys), every operation takes the cache lock.
+ */
+public class ExpiringCache<K, V> {
+
+    private final long timeToLiveNanos;
+    private final LongSupplier clock;
+    private final Map<K, Entry<V>> entries;
+
+    public ExpiringCache(int maximumSize, long timeToLiveMillis) {
+        this(maximumSize, timeToLiveMillis, System::nanoTime);
+    }
+
+    ExpiringCache(int maximumSize, long timeToLiveMillis, LongSupplier clock) {
+        this.timeToLiveNanos = timeToLiveMillis * 1_000_000L;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * @return the cached value, or null if it is missing or expired
+     */
+    public V get(K key) {
+        long now = clock.getAsLong();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.expiresAt >= 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    public void put(K key, V value) {
+        Entry<V> entry = new Entry<>(value, clock.getAsLong() + timeToLiveNanos);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Caches a value that must not outlive the given time to live, capped by the time to live of the cache.
+     */
+    public void put(K key, V value, long timeToLiveMillis) {
+        long entryTimeToLiveNanos = Math.min(timeToLiveNanos, timeToLiveMillis * 1_000_000L);
+        if (entryTimeToLiveNanos <= 0) {
+            return;
+        }
+        Entry<V> entry = new Entry<>(value, clock.getAsLong() + entryTimeToLiveNanos);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    public void remove(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.util.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded map whose entries expire a fixed time after they were written, for large numbers of short lived entries.
+ * <p/>
+ * Keys are spread over shards, each with its own lock, map and hashed timing wheel. The wheel has one bucket per tick
+ * of the time to live; an entry is linked into the bucket of the tick it expires at, so expiry only visits the
+ * buckets whose tick has passed and never scans the live entries. Shards catch up with the clock on every access,
+ * and {@link #expire()} lets a background task drop entries of idle shards.
+ * <p/>
+ * Each shard holds at most maximumSize / shards entries, a put into a full shard is refused.
+ */
+public class ShardedExpiringMap<K, V> {
+
+    private final Shard<K, V>[] shards;
+    private final long tickNanos;
+    private final long timeToLiveTicks;
+    private final LongSupplier clock;
+
+    public ShardedExpiringMap(int shards, int maximumSize, long timeToLiveMillis, long tickMillis) {
+        this(shards, maximumSize, timeToLiveMillis, tickMillis, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    ShardedExpiringMap(int shards, int maximumSize, long timeToLiveMillis, long tickMillis, LongSupplier clock) {
+        int shardCount = Integer.highestOneBit(Math.max(shards, 1) - 1) << 1;
+        if (shardCount == 0) {
+            shardCount = 1;
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.timeToLiveTicks = (timeToLiveMillis + tickMillis - 1) / tickMillis;
+        this.clock = clock;
+        this.shards = (Shard<K, V>[]) new Shard<?, ?>[shardCount];
+        int shardSize = Math.max(1, maximumSize / shardCount);
+        long currentTick = currentTick();
+        for (int i = 0; i < shardCount; i++) {
+            this.shards[i] = new Shard<>(shardSize, (int) timeToLiveTicks + 1, currentTick);
+        }
+    }
+
+    /**
+     * @return false when the shard of the key is full, the entry is not stored
+     */
+    public boolean put(K key, V value) {
+        long currentTick = currentTick();
+        return shard(key).put(key, value, currentTick, currentTick + timeToLiveTicks);
+    }
+
+    /**
+     * Stores the entry only if the key is missing or expired.
+     *
+     * @return true when the entry was stored by this call, false when the key is present or the shard is full
+     */
+    public boolean putIfAbsent(K key, V value) {
+        long currentTick = currentTick();
+        return shard(key).putIfAbsent(key, value, currentTick, currentTick + timeToLiveTicks);
+    }
+
+    /**
+     * @return the value, or null if it is missing or expired
+     */
+    public V get(K key) {
+        return shard(key).get(key, currentTick());
+    }
+
+    /**
+     * Removes the entry only if it is currently mapped to the value.
+     *
+     * @return true when the entry was removed by this call
+     */
+    public boolean remove(K key, V value) {
+        return shard(key).remove(key, value, currentTick());
+    }
+
+    public int size() {
+        long currentTick = currentTick();
+        int size = 0;
+        for (Shard<K, V> shard : shards) {
+            size += shard.size(currentTick);
+        }
+        return size;
+    }
+
+    /**
+     * Drops the expired entries of every shard.
+     */
+    public void expire() {
+        long currentTick = currentTick();
+        for (Shard<K, V> shard : shards) {
+            shard.expire(currentTick);
+        }
+    }
+
+    private long currentTick() {
+        return clock.getAsLong() / tickNanos;
+    }
+
+    private Shard<K, V> shard(K key) {
+        int hash = key.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & (shards.length - 1)];
+    }
+
+    private static final class Shard<K, V> {
+        private final Map<K, Entry<K, V>> entries = new HashMap<>();
+        private final Entry<K, V>[] wheel;
+        private final int maximumSize;
+        private long currentTick;
+
+        @SuppressWarnings("unchecked")
+        Shard(int maximumSize, int wheelSize, long currentTick) {
+            this.maximumSize = maximumSize;
+            this.wheel = (Entry<K, V>[]) new Entry<?, ?>[wheelSize];
+            this.currentTick = currentTick;
+        }
+
+        synchronized boolean put(K key, V value, long now, long expiresAt) {
+            expire(now);
+            Entry<K, V> previous = entries.get(key);
+            if (previous == null && entries.size() >= maximumSize) {
+                return false;
+            }
+            if (previous != null) {
+                unlink(previous);
+            }
+            Entry<K, V> entry = new Entry<>(key, value, expiresAt);
+            entries.put(key, entry);
+            link(entry);
+            return true;
+        }
+
+        synchronized boolean putIfAbsent(K key, V value, long now, long expiresAt) {
+            expire(now);
+            if (entries.containsKey(key) || entries.size() >= maximumSize) {
+                return false;
+            }
+            Entry<K, V> entry = new Entry<>(key, value, expiresAt);
+            entries.put(key, entry);
+            link(entry);
+            return true;
+        }
+
+        synchronized V get(K key, long now) {
+            expire(now);
+            Entry<K, V> entry = entries.get(key);
+            return entry == null ? null : entry.value;
+        }
+
+        synchronized boolean remove(K key, V value, long now) {
+            expire(now);
+            Entry<K, V> entry = entries.get(key);
+            if (entry == null || entry.value != value) {
+                return false;
+            }
+            entries.remove(key);
+            unlink(entry);
+            return true;
+        }
+
+        synchronized int size(long now) {
+            expire(now);
+            return entries.size();
+        }
+
+        /**
+         * Empties the buckets of the ticks passed since the last call. Every entry expires within one turn
+         * of the wheel, so at most one turn is visited however long the shard was idle.
+         */
+        synchronized void expire(long now) {
+            long ticks = Math.min(now - currentTick, wheel.length);
+            for (long tick = currentTick + 1; tick <= currentTick + ticks; tick++) {
+                int bucket = (int) Math.floorMod(tick, (long) wheel.length);
+                Entry<K, V> entry = wheel[bucket];
+                while (entry != null) {
+                    Entry<K, V> next = entry.next;
+                    if (entry.expiresAt <= now) {
+                        entries.remove(entry.key);
+                        unlink(entry);
+                    }
+                    entry = next;
+                }
+            }
+            currentTick = Math.max(currentTick, now);
+        }
+
+        private void link(Entry<K, V> entry) {
+            int bucket = (int) Math.floorMod(entry.expiresAt, (long) wheel.length);
+            entry.bucket = bucket;
+            entry.next = wheel[bucket];
+            if (entry.next != null) {
+                entry.next.previous = entry;
+            }
+            wheel[bucket] = entry;
+        }
+
+        private void unlink(Entry<K, V> entry) {
+            if (entry.previous != null) {
+                entry.previous.next = entry.next;
+            } else {
+                wheel[entry.bucket] = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.previous = entry.previous;
+            }
+            entry.previous = null;
+            entry.next = null;
+        }
+    }
+
+    private static final class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final long expiresAt;
+        private int bucket;
+        private Entry<K, V> previous;
+        private Entry<K, V> next;
+
+        Entry(K key, V value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
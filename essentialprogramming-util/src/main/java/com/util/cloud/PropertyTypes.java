@@ -14,6 +14,12 @@ public enum PropertyTypes {
     		String result = FUNC.apply(key);
             return result != null ? Integer.valueOf(result) : null;
         }
+    },
+    BOOLEAN {
+        public Boolean getValue(String key, Function<String, String> FUNC) {
+            String result = FUNC.apply(key);
+            return result != null ? Boolean.valueOf(result) : null;
+        }
     };
     
     public abstract Object getValue(String key, Function<String, String> FUNC);
@@ -0,0 +1,94 @@
+package com.util.code;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates and parses the codes identifying businesses, units, services and appointments.
+ * <p/>
+ * Codes are time-ordered 128-bit UUIDs (version 7 layout): 48 bits of unix milliseconds, a 12 bit sequence
+ * keeping codes generated in the same millisecond ordered, and 62 random bits.
+ * They are stored in native uuid columns, so new rows are appended at the right edge of the code indexes.
+ */
+public final class EntityCode {
+
+    private static final int UUID_LENGTH = 36;
+    private static final int SEQUENCE_BITS = 12;
+
+    private static final long VERSION = 7L << SEQUENCE_BITS;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+    private static final SecureRandom random = new SecureRandom();
+
+    /**
+     * Last issued (milliseconds << 12 | sequence), so codes stay ordered even if the clock moves backwards.
+     */
+    private static final AtomicLong lastTimestamp = new AtomicLong();
+
+    private EntityCode() {
+        throw new IllegalAccessError("Instantiation prohibited");
+    }
+
+    /**
+     * @return a new time-ordered code
+     */
+    public static UUID generate() {
+        long timestamp = nextTimestamp();
+        long mostSignificantBits = (timestamp >>> SEQUENCE_BITS) << 16 | VERSION | (timestamp & 0xFFF);
+        long leastSignificantBits = random.nextLong() & RANDOM_MASK | VARIANT;
+
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    /**
+     * Parses a code received from a client.
+     * <p/>
+     * Codes issued before the uuid columns were two concatenated UUID strings. They were converted by the
+     * V3 migration to md5(code)::uuid, and are mapped the same way here, so links already sent keep working.
+     * A malformed code is mapped the same way too, it matches no entity and is reported as not existing.
+     *
+     * @param code canonical UUID or legacy code
+     * @return stored code
+     */
+    public static UUID parse(String code) {
+        if (code == null) {
+            throw new IllegalArgumentException("Missing code");
+        }
+        if (code.length() == UUID_LENGTH) {
+            try {
+                return UUID.fromString(code);
+            } catch (IllegalArgumentException e) {
+                return fromLegacyCode(code);
+            }
+        }
+        return fromLegacyCode(code);
+    }
+
+    static UUID fromLegacyCode(String code) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(code.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer buffer = ByteBuffer.wrap(digest);
+            return new UUID(buffer.getLong(), buffer.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+
+    private static long nextTimestamp() {
+        long now = System.currentTimeMillis() << SEQUENCE_BITS;
+        while (true) {
+            long last = lastTimestamp.get();
+            // an exhausted sequence carries over into the next millisecond
+            long next = now > last ? now : last + 1;
+            if (lastTimestamp.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+}
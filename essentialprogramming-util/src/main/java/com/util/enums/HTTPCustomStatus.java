@@ -11,7 +11,9 @@ public enum HTTPCustomStatus {
      *
      */
     INVALID_REQUEST(422),
+    TOO_MANY_REQUESTS(429),
     BUSINESS_EXCEPTION(500),
+    SERVICE_UNAVAILABLE(503),
     BUSINESS_SUCCESS(601),
     BUSINESS_WARNING(602),
     BUSINESS_VALIDATION_ERROR(603),
@@ -0,0 +1,23 @@
+package com.util.exceptions;
+
+import com.util.enums.HTTPCustomStatus;
+
+/**
+ * Rejects a request made too soon, telling the client when to try again.
+ */
+public class TooManyRequestsException extends ApiException {
+
+	private static final long serialVersionUID = 1L;
+	private final long retryAfterSeconds;
+
+
+	public TooManyRequestsException(String message, long retryAfterSeconds) {
+		super(message, HTTPCustomStatus.TOO_MANY_REQUESTS);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+
+}
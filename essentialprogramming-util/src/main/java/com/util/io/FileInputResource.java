@@ -22,12 +22,13 @@ public class FileInputResource implements InputResource {
     }
 
     public byte[] getBytes() throws IOException {
-        final InputStream inputStream = getInputStream();
         final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-        int nRead;
-        byte[] data = new byte[1024];
-        while ((nRead = inputStream.read(data, 0, data.length)) != -1) {
-            buffer.write(data, 0, nRead);
+        try (InputStream inputStream = getInputStream()) {
+            int nRead;
+            byte[] data = new byte[1024];
+            while ((nRead = inputStream.read(data, 0, data.length)) != -1) {
+                buffer.write(data, 0, nRead);
+            }
         }
 
         buffer.flush();
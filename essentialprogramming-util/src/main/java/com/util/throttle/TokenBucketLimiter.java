@@ -0,0 +1,122 @@
+package com.util.throttle;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket limiter with a bounded number of keys.
+ * <p/>
+ * Every key gets a bucket of {@code capacity} tokens, refilled with one token every {@code refillIntervalMillis}.
+ * A bucket is kept as a single number, the time at which it is full again (generic cell rate algorithm),
+ * in a fixed table of slots updated with compare-and-set. A key hashes to a few neighbouring slots: a bucket that
+ * is full again has expired and its slot is reused by the next key. When all the slots of a key are in use, the one
+ * closest to expiry is taken over, so the state never grows beyond the table and a flood of distinct keys only
+ * resets the least active buckets.
+ */
+public class TokenBucketLimiter {
+
+    private static final int PROBES = 4;
+
+    private final AtomicReferenceArray<Bucket> buckets;
+    private final int mask;
+    private final long seed;
+    private final long refillIntervalNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+
+    public TokenBucketLimiter(int maximumKeys, int capacity, long refillIntervalMillis) {
+        this(maximumKeys, capacity, refillIntervalMillis, System::nanoTime);
+    }
+
+    TokenBucketLimiter(int maximumKeys, int capacity, long refillIntervalMillis, LongSupplier clock) {
+        int size = Integer.highestOneBit(Math.max(maximumKeys, PROBES) - 1) << 1;
+        this.buckets = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.seed = ThreadLocalRandom.current().nextLong();
+        this.refillIntervalNanos = refillIntervalMillis * 1_000_000L;
+        this.burstNanos = capacity * refillIntervalNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * Takes a token from the bucket of the key.
+     *
+     * @return 0 when a token was taken, otherwise the milliseconds until the next token is available
+     */
+    public long tryAcquire(String key) {
+        long hash = hash(key);
+        int home = (int) (hash ^ (hash >>> 32)) & mask;
+        retry:
+        while (true) {
+            long now = clock.getAsLong();
+            int victimIndex = home;
+            Bucket victim = null;
+            long victimRemaining = Long.MAX_VALUE;
+            for (int i = 0; i < PROBES; i++) {
+                int index = (home + i) & mask;
+                Bucket bucket = buckets.get(index);
+                if (bucket != null && bucket.key == hash) {
+                    long fullAt = Math.max(bucket.fullAt, now) + refillIntervalNanos;
+                    long wait = fullAt - now - burstNanos;
+                    if (wait > 0) {
+                        return (wait + 999_999L) / 1_000_000L;
+                    }
+                    if (buckets.compareAndSet(index, bucket, new Bucket(hash, fullAt))) {
+                        return 0;
+                    }
+                    continue retry;
+                }
+                long remaining = bucket == null ? Long.MIN_VALUE : bucket.fullAt - now;
+                if (remaining < victimRemaining) {
+                    victimIndex = index;
+                    victim = bucket;
+                    victimRemaining = remaining;
+                }
+            }
+            if (buckets.compareAndSet(victimIndex, victim, new Bucket(hash, now + refillIntervalNanos))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Refills the bucket of the key.
+     */
+    public void reset(String key) {
+        long hash = hash(key);
+        int home = (int) (hash ^ (hash >>> 32)) & mask;
+        for (int i = 0; i < PROBES; i++) {
+            int index = (home + i) & mask;
+            Bucket bucket = buckets.get(index);
+            if (bucket != null && bucket.key == hash) {
+                buckets.compareAndSet(index, bucket, null);
+            }
+        }
+    }
+
+    /**
+     * 64 bit FNV-1a hash with a per limiter seed, so that colliding keys cannot be chosen in advance.
+     */
+    private long hash(String key) {
+        long hash = 0xcbf29ce484222325L ^ seed;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Bucket {
+        private final long key;
+        private final long fullAt;
+
+        Bucket(long key, long fullAt) {
+            this.key = key;
+            this.fullAt = fullAt;
+        }
+    }
+}
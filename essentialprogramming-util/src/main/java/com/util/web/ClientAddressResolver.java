@@ -0,0 +1,59 @@
+package com.util.web;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Resolves the address of the client of a request that may have passed through reverse proxies.
+ * <p/>
+ * The remote address is the client, unless it is one of the trusted proxies. Then the X-Forwarded-For header is read
+ * from right to left, skipping the trusted proxies, and the first other address is the client. Entries left of it
+ * were written by the client itself and are never used. With no trusted proxies the header is ignored.
+ */
+public final class ClientAddressResolver {
+
+    public static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private final Set<String> trustedProxies;
+
+    public ClientAddressResolver(Collection<String> trustedProxies) {
+        this.trustedProxies = Collections.unmodifiableSet(new HashSet<>(trustedProxies));
+    }
+
+    /**
+     * @param trustedProxies comma separated addresses of the trusted proxies, may be empty
+     */
+    public static ClientAddressResolver of(String trustedProxies) {
+        Set<String> addresses = new HashSet<>();
+        for (String address : trustedProxies.split(",")) {
+            if (!address.trim().isEmpty()) {
+                addresses.add(address.trim());
+            }
+        }
+        return new ClientAddressResolver(addresses);
+    }
+
+    /**
+     * @param remoteAddress the address the request came from
+     * @param forwardedFor  the X-Forwarded-For header, null when missing
+     * @return the client address, the remote address when it is not a trusted proxy
+     */
+    public String resolve(String remoteAddress, String forwardedFor) {
+        if (forwardedFor == null || !trustedProxies.contains(remoteAddress)) {
+            return remoteAddress;
+        }
+        String client = remoteAddress;
+        int end = forwardedFor.length();
+        while (end > 0 && trustedProxies.contains(client)) {
+            int start = forwardedFor.lastIndexOf(',', end - 1);
+            String address = forwardedFor.substring(start + 1, end).trim();
+            if (!address.isEmpty()) {
+                client = address;
+            }
+            end = start < 0 ? 0 : start;
+        }
+        return client;
+    }
+}
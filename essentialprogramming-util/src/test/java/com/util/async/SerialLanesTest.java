@@ -0,0 +1,129 @@
+package com.util.async;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class SerialLanesTest {
+
+    @Test
+    void commands_of_a_key_never_overlap() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+        try {
+            SerialLanes<Integer> lanes = new SerialLanes<>(executor);
+            int keys = 4;
+            int commandsPerClient = 500;
+            int[] counters = new int[keys];
+
+            List<CompletableFuture<?>> results = new ArrayList<>();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> submitters = new ArrayList<>();
+            for (int client = 0; client < 16; client++) {
+                int key = client % keys;
+                submitters.add(clients.submit(() -> {
+                    start.await();
+                    List<CompletableFuture<Integer>> submitted = new ArrayList<>();
+                    for (int i = 0; i < commandsPerClient; i++) {
+                        submitted.add(lanes.submit(key, () -> {
+                            // a lost update shows up if two commands of the key ever run at the same time
+                            int value = counters[key];
+                            Thread.yield();
+                            counters[key] = value + 1;
+                            return value;
+                        }));
+                    }
+                    synchronized (results) {
+                        results.addAll(submitted);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> submitter : submitters) {
+                submitter.get(30, TimeUnit.SECONDS);
+            }
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+            for (int key = 0; key < keys; key++) {
+                Assertions.assertEquals(4 * commandsPerClient, counters[key]);
+            }
+            Assertions.assertEquals(0, lanes.activeLanes());
+        } finally {
+            executor.shutdownNow();
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    void commands_of_one_client_run_in_submission_order() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            SerialLanes<String> lanes = new SerialLanes<>(executor);
+            List<Integer> order = new ArrayList<>();
+            List<CompletableFuture<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                int sequence = i;
+                results.add(lanes.submit("unit", () -> order.add(sequence)));
+            }
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+            for (int i = 0; i < 1000; i++) {
+                Assertions.assertEquals(i, order.get(i));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void keys_run_in_parallel() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            SerialLanes<String> lanes = new SerialLanes<>(executor);
+            CountDownLatch bothRunning = new CountDownLatch(2);
+
+            CompletableFuture<Boolean> first = lanes.submit("first", () -> {
+                bothRunning.countDown();
+                return bothRunning.await(5, TimeUnit.SECONDS);
+            });
+            CompletableFuture<Boolean> second = lanes.submit("second", () -> {
+                bothRunning.countDown();
+                return bothRunning.await(5, TimeUnit.SECONDS);
+            });
+
+            Assertions.assertTrue(first.get(10, TimeUnit.SECONDS));
+            Assertions.assertTrue(second.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failed_command_does_not_stop_the_lane() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            SerialLanes<String> lanes = new SerialLanes<>(executor);
+
+            CompletableFuture<Object> failed = lanes.submit("unit", () -> {
+                throw new IllegalStateException("slot taken");
+            });
+            CompletableFuture<String> next = lanes.submit("unit", () -> "booked");
+
+            ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> failed.get(10, TimeUnit.SECONDS));
+            Assertions.assertTrue(e.getCause() instanceof IllegalStateException);
+            Assertions.assertEquals("booked", next.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
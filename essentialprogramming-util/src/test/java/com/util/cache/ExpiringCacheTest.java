@@ -0,0 +1,56 @@
+package com.util.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ExpiringCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void entries_expire_after_time_to_live() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, 1000, now::get);
+        cache.put("code", 1);
+
+        now.addAndGet(999_000_000L);
+        assertEquals(1, cache.get("code"));
+
+        now.addAndGet(1_000_000L);
+        assertNull(cache.get("code"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void entry_time_to_live_is_capped_by_the_cache() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, 1000, now::get);
+        cache.put("short", 1, 100);
+        cache.put("long", 2, 5000);
+        cache.put("expired", 3, 0);
+
+        now.addAndGet(100_000_000L);
+        assertNull(cache.get("short"));
+        assertEquals(2, cache.get("long"));
+        assertNull(cache.get("expired"));
+
+        now.addAndGet(900_000_000L);
+        assertNull(cache.get("long"));
+    }
+
+    @Test
+    void least_recently_used_entry_is_evicted() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(2, 1000, now::get);
+        cache.put("first", 1);
+        cache.put("second", 2);
+        cache.get("first");
+
+        cache.put("third", 3);
+
+        assertEquals(1, cache.get("first"));
+        assertNull(cache.get("second"));
+        assertEquals(3, cache.get("third"));
+    }
+}
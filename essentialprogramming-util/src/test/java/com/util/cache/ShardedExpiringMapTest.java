@@ -0,0 +1,97 @@
+package com.util.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ShardedExpiringMapTest {
+
+    private final AtomicLong clock = new AtomicLong(5_000_000_000L);
+
+    @Test
+    void entries_expire_after_the_time_to_live() {
+        ShardedExpiringMap<String, String> map = new ShardedExpiringMap<>(4, 100, 10_000, 1000, clock::get);
+        map.put("key", "value");
+
+        advance(9_000);
+        Assertions.assertEquals("value", map.get("key"));
+
+        advance(1_000);
+        Assertions.assertNull(map.get("key"));
+        Assertions.assertEquals(0, map.size());
+    }
+
+    @Test
+    void put_replaces_the_entry_and_its_expiry() {
+        ShardedExpiringMap<String, String> map = new ShardedExpiringMap<>(4, 100, 10_000, 1000, clock::get);
+        map.put("key", "first");
+
+        advance(5_000);
+        map.put("key", "second");
+
+        advance(6_000);
+        Assertions.assertEquals("second", map.get("key"));
+        Assertions.assertEquals(1, map.size());
+
+        advance(4_000);
+        Assertions.assertNull(map.get("key"));
+    }
+
+    @Test
+    void remove_only_matching_value() {
+        ShardedExpiringMap<String, String> map = new ShardedExpiringMap<>(4, 100, 10_000, 1000, clock::get);
+        map.put("key", "value");
+
+        Assertions.assertFalse(map.remove("key", "other"));
+        Assertions.assertTrue(map.remove("key", map.get("key")));
+        Assertions.assertFalse(map.remove("key", "value"));
+        Assertions.assertNull(map.get("key"));
+    }
+
+    @Test
+    void put_if_absent_keeps_the_first_value_until_it_expires() {
+        ShardedExpiringMap<String, String> map = new ShardedExpiringMap<>(4, 100, 10_000, 1000, clock::get);
+
+        Assertions.assertTrue(map.putIfAbsent("key", "first"));
+        Assertions.assertFalse(map.putIfAbsent("key", "second"));
+        Assertions.assertEquals("first", map.get("key"));
+
+        advance(10_000);
+        Assertions.assertTrue(map.putIfAbsent("key", "second"));
+        Assertions.assertEquals("second", map.get("key"));
+    }
+
+    @Test
+    void full_shard_refuses_new_keys() {
+        ShardedExpiringMap<String, String> map = new ShardedExpiringMap<>(1, 2, 10_000, 1000, clock::get);
+
+        Assertions.assertTrue(map.put("first", "1"));
+        Assertions.assertTrue(map.put("second", "2"));
+        Assertions.assertFalse(map.put("third", "3"));
+        Assertions.assertTrue(map.put("first", "updated"));
+
+        advance(10_000);
+        Assertions.assertTrue(map.put("third", "3"));
+    }
+
+    @Test
+    void idle_map_expires_everything_in_one_turn() {
+        ShardedExpiringMap<Integer, Integer> map = new ShardedExpiringMap<>(4, 10_000, 60_000, 1000, clock::get);
+        for (int i = 0; i < 5_000; i++) {
+            map.put(i, i);
+            if (i % 100 == 0) {
+                advance(1_000);
+            }
+        }
+        Assertions.assertEquals(5_000, map.size());
+
+        advance(3_600_000);
+        map.expire();
+        Assertions.assertEquals(0, map.size());
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(millis * 1_000_000L);
+    }
+}
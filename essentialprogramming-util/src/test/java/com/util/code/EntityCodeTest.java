@@ -0,0 +1,57 @@
+package com.util.code;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EntityCodeTest {
+
+    @Test
+    void codes_are_version_7_uuids() {
+        UUID code = EntityCode.generate();
+
+        assertEquals(7, code.version());
+        assertEquals(2, code.variant());
+        assertTrue(Math.abs((code.getMostSignificantBits() >>> 16) - System.currentTimeMillis()) < 1000);
+    }
+
+    @Test
+    void codes_are_unique_and_ordered() {
+        Set<UUID> codes = new HashSet<>();
+        UUID previous = EntityCode.generate();
+        for (int i = 0; i < 100_000; i++) {
+            UUID code = EntityCode.generate();
+            // uuid columns sort as unsigned bytes, the timestamp and sequence live in the most significant bits
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), code.getMostSignificantBits()) < 0);
+            assertTrue(codes.add(code));
+            previous = code;
+        }
+    }
+
+    @Test
+    void parse_round_trips_generated_codes() {
+        UUID code = EntityCode.generate();
+
+        assertEquals(code, EntityCode.parse(code.toString()));
+    }
+
+    @Test
+    void legacy_codes_map_like_postgres_md5() {
+        // select md5('razvan')::uuid
+        assertEquals(UUID.fromString("c9e0b830-ff18-6458-49b8-dbab57e477b5"), EntityCode.parse("razvan"));
+        assertThrows(IllegalArgumentException.class, () -> EntityCode.parse(null));
+    }
+
+    @Test
+    void malformed_codes_do_not_throw() {
+        String malformed = "zzzzzzzz-zzzz-zzzz-zzzz-zzzzzzzzzzzz";
+
+        assertEquals(EntityCode.fromLegacyCode(malformed), EntityCode.parse(malformed));
+    }
+}
@@ -0,0 +1,98 @@
+package com.util.throttle;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TokenBucketLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void burst_then_one_token_per_interval() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(16, 3, 1000, clock::get);
+
+        Assertions.assertEquals(0, limiter.tryAcquire("user"));
+        Assertions.assertEquals(0, limiter.tryAcquire("user"));
+        Assertions.assertEquals(0, limiter.tryAcquire("user"));
+        Assertions.assertEquals(1000, limiter.tryAcquire("user"));
+
+        advance(400);
+        Assertions.assertEquals(600, limiter.tryAcquire("user"));
+
+        advance(600);
+        Assertions.assertEquals(0, limiter.tryAcquire("user"));
+        Assertions.assertEquals(1000, limiter.tryAcquire("user"));
+    }
+
+    @Test
+    void keys_have_their_own_bucket() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(16, 1, 1000, clock::get);
+
+        Assertions.assertEquals(0, limiter.tryAcquire("first"));
+        Assertions.assertTrue(limiter.tryAcquire("first") > 0);
+        Assertions.assertEquals(0, limiter.tryAcquire("second"));
+    }
+
+    @Test
+    void reset_refills_the_bucket() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(16, 1, 1000, clock::get);
+
+        Assertions.assertEquals(0, limiter.tryAcquire("user"));
+        Assertions.assertTrue(limiter.tryAcquire("user") > 0);
+
+        limiter.reset("user");
+        Assertions.assertEquals(0, limiter.tryAcquire("user"));
+    }
+
+    @Test
+    void state_is_bounded_and_expired_buckets_are_reused() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(4, 1, 1000, clock::get);
+
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals(0, limiter.tryAcquire("user-" + i));
+        }
+
+        advance(1000);
+        Assertions.assertEquals(0, limiter.tryAcquire("user"));
+        Assertions.assertTrue(limiter.tryAcquire("user") > 0);
+    }
+
+    @Test
+    void concurrent_attempts_never_exceed_the_burst() throws Exception {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1024, 50, 60_000, clock::get);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> attempts = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                attempts.add(executor.submit(() -> {
+                    for (int j = 0; j < 100; j++) {
+                        if (limiter.tryAcquire("user") == 0) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> attempt : attempts) {
+                attempt.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertEquals(50, granted.get());
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(millis * 1_000_000L);
+    }
+}
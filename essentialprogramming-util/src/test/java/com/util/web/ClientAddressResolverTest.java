@@ -0,0 +1,24 @@
+package com.util.web;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ClientAddressResolverTest {
+
+    private final ClientAddressResolver resolver = ClientAddressResolver.of("10.0.0.1, 10.0.0.2");
+
+    @Test
+    void forwarded_header_is_ignored_without_trusted_proxy() {
+        Assertions.assertEquals("203.0.113.7", resolver.resolve("203.0.113.7", "198.51.100.1"));
+        Assertions.assertEquals("10.0.0.1", ClientAddressResolver.of("").resolve("10.0.0.1", "198.51.100.1"));
+    }
+
+    @Test
+    void client_is_the_first_address_not_added_by_a_trusted_proxy() {
+        Assertions.assertEquals("198.51.100.1", resolver.resolve("10.0.0.1", "198.51.100.1"));
+        Assertions.assertEquals("198.51.100.1", resolver.resolve("10.0.0.1", "198.51.100.1, 10.0.0.2"));
+        // the client cannot pick its own bucket by sending the header
+        Assertions.assertEquals("198.51.100.1", resolver.resolve("10.0.0.1", "192.0.2.9,198.51.100.1"));
+        Assertions.assertEquals("10.0.0.1", resolver.resolve("10.0.0.1", null));
+    }
+}
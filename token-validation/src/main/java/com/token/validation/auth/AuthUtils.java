@@ -4,10 +4,11 @@ import com.token.validation.jwt.Jwt;
 import com.token.validation.jwt.JwtClaims;
 
 import java.io.IOException;
-import java.util.regex.Pattern;
 
 public final class AuthUtils {
 
+    private static final String BEARER_SCHEME = "Bearer ";
+
     private AuthUtils() {
         throw new IllegalStateException("Utility class");
     }
@@ -19,19 +20,20 @@ public final class AuthUtils {
      * @return JWT token
      */
     public static String extractBearerToken(String authorizationHeader) {
-        String jwt = null;
-        if (authorizationHeader != null) {
-            String[] parts = authorizationHeader.split(" ");
-            if (parts.length == 2) {
-                String scheme = parts[0];
-                String credentials = parts[1];
-                Pattern pattern = Pattern.compile("^Bearer$", Pattern.CASE_INSENSITIVE);
-                if (pattern.matcher(scheme).matches()) {
-                    jwt = credentials;
-                }
-            }
+        if (authorizationHeader == null
+                || !authorizationHeader.regionMatches(true, 0, BEARER_SCHEME, 0, BEARER_SCHEME.length())) {
+            return null;
+        }
+        // trailing blanks are ignored, any other blank makes the header invalid
+        int end = authorizationHeader.length();
+        while (end > BEARER_SCHEME.length() && authorizationHeader.charAt(end - 1) == ' ') {
+            end--;
+        }
+        int blank = authorizationHeader.indexOf(' ', BEARER_SCHEME.length());
+        if (end == BEARER_SCHEME.length() || (blank >= 0 && blank < end)) {
+            return null;
         }
-        return jwt;
+        return authorizationHeader.substring(BEARER_SCHEME.length(), end);
     }
 
     public static <T> T getClaim(String jwtToken, String key) {
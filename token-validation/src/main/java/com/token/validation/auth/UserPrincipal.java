@@ -0,0 +1,85 @@
+package com.token.validation.auth;
+
+import com.token.validation.jwt.JwtClaims;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The authenticated user of a request, built once from the verified token claims.
+ */
+public final class UserPrincipal implements Principal {
+
+    private static final String USER_ID = "user_id";
+    private static final String EMAIL = "email";
+
+    private final String userId;
+    private final String email;
+    private final Set<String> roles;
+
+    public UserPrincipal(String userId, String email, Set<String> roles) {
+        this.userId = userId;
+        this.email = email;
+        this.roles = Collections.unmodifiableSet(new LinkedHashSet<>(roles));
+    }
+
+    public static UserPrincipal fromClaims(JwtClaims claims) {
+        return new UserPrincipal(stringClaim(claims, USER_ID), stringClaim(claims, EMAIL), parseRoles(claims.getRoles()));
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Set<String> getRoles() {
+        return roles;
+    }
+
+    /**
+     * @return true if the user has at least one of the given roles
+     */
+    public boolean hasAnyRole(Collection<String> allowedRoles) {
+        for (String role : allowedRoles) {
+            if (roles.contains(role)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return "UserPrincipal{userId=" + userId + ", roles=" + roles + "}";
+    }
+
+    private static String stringClaim(JwtClaims claims, String key) {
+        Object value = claims.get(key);
+        return value == null ? null : value.toString();
+    }
+
+    private static Set<String> parseRoles(String roles) {
+        if (roles == null || roles.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> parsedRoles = new LinkedHashSet<>();
+        for (String role : roles.split(",")) {
+            String trimmedRole = role.trim();
+            if (!trimmedRole.isEmpty()) {
+                parsedRoles.add(trimmedRole);
+            }
+        }
+        return parsedRoles;
+    }
+}
@@ -0,0 +1,87 @@
+package com.token.validation.crypto;
+
+import com.token.validation.jwt.Jwt;
+import com.token.validation.jwt.exception.TokenValidationException;
+import com.token.validation.signature.SignatureAlgorithm;
+
+import java.security.Key;
+import java.security.PublicKey;
+
+public class ECDSAProvider implements SignatureProvider {
+
+    private ECDSAProvider() {
+    }
+
+    private static class ECDSAProviderHolder {
+        static final ECDSAProvider INSTANCE = new ECDSAProvider();
+    }
+
+    public static ECDSAProvider getInstance() {
+        return ECDSAProviderHolder.INSTANCE;
+    }
+
+    private static int getSignatureLength(SignatureAlgorithm alg) {
+        switch (alg) {
+            case ES256:
+                return 64;
+            default:
+                throw new IllegalArgumentException("Not an ECDSA Algorithm");
+        }
+    }
+
+    private static boolean verify(Jwt input, PublicKey publicKey) throws TokenValidationException {
+        try {
+            byte[] signature = input.getSignature();
+            SignatureAlgorithm algorithm = input.getHeader().getAlgorithm();
+            if (signature == null || signature.length != getSignatureLength(algorithm)) {
+                return false;
+            }
+            return PublicKeyVerifiers.verify(algorithm, algorithm.getJcaName(), publicKey, input.getSigningInput(), toDer(signature));
+        } catch (Exception e) {
+            throw new TokenValidationException("Something went wrong on signature validation", e);
+        }
+    }
+
+    public boolean verify(Jwt input, Key key) throws TokenValidationException {
+        return verify(input, (PublicKey) key);
+    }
+
+    /**
+     * JWS carries ECDSA signatures as the concatenated R and S values (RFC 7518, 3.4),
+     * the JCA verifier expects them as a DER encoded sequence of two integers.
+     */
+    static byte[] toDer(byte[] joseSignature) {
+        int half = joseSignature.length / 2;
+        byte[] r = toDerInteger(joseSignature, 0, half);
+        byte[] s = toDerInteger(joseSignature, half, half);
+
+        int sequenceLength = r.length + s.length;
+        int lengthBytes = sequenceLength < 128 ? 1 : 2;
+        byte[] der = new byte[1 + lengthBytes + sequenceLength];
+        int offset = 0;
+        der[offset++] = 0x30;
+        if (lengthBytes == 2) {
+            der[offset++] = (byte) 0x81;
+        }
+        der[offset++] = (byte) sequenceLength;
+        System.arraycopy(r, 0, der, offset, r.length);
+        System.arraycopy(s, 0, der, offset + r.length, s.length);
+        return der;
+    }
+
+    private static byte[] toDerInteger(byte[] source, int offset, int length) {
+        int start = offset;
+        int end = offset + length;
+        while (start < end - 1 && source[start] == 0) {
+            start++;
+        }
+        boolean padded = (source[start] & 0x80) != 0;
+        int valueLength = end - start;
+
+        byte[] integer = new byte[2 + (padded ? 1 : 0) + valueLength];
+        integer[0] = 0x02;
+        integer[1] = (byte) (integer.length - 2);
+        System.arraycopy(source, start, integer, padded ? 3 : 2, valueLength);
+        return integer;
+    }
+}
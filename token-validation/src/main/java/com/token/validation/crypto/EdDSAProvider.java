@@ -0,0 +1,45 @@
+package com.token.validation.crypto;
+
+import com.token.validation.jwt.Jwt;
+import com.token.validation.jwt.exception.TokenValidationException;
+import com.token.validation.signature.SignatureAlgorithm;
+
+import java.security.Key;
+import java.security.PublicKey;
+
+/**
+ * Verifies Ed25519 signatures, needs a JVM providing the Ed25519 signature algorithm (Java 15+).
+ */
+public class EdDSAProvider implements SignatureProvider {
+
+    private EdDSAProvider() {
+    }
+
+    private static class EdDSAProviderHolder {
+        static final EdDSAProvider INSTANCE = new EdDSAProvider();
+    }
+
+    public static EdDSAProvider getInstance() {
+        return EdDSAProviderHolder.INSTANCE;
+    }
+
+    private static boolean verify(Jwt input, PublicKey publicKey) throws TokenValidationException {
+        try {
+            byte[] signature = input.getSignature();
+            SignatureAlgorithm algorithm = input.getHeader().getAlgorithm();
+            if (!algorithm.isEdDsa()) {
+                throw new IllegalArgumentException("Not an EdDSA Algorithm");
+            }
+            if (signature == null) {
+                return false;
+            }
+            return PublicKeyVerifiers.verify(algorithm, algorithm.getJcaName(), publicKey, input.getSigningInput(), signature);
+        } catch (Exception e) {
+            throw new TokenValidationException("Something went wrong on signature validation", e);
+        }
+    }
+
+    public boolean verify(Jwt input, Key key) throws TokenValidationException {
+        return verify(input, (PublicKey) key);
+    }
+}
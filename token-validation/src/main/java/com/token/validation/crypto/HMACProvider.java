@@ -6,14 +6,23 @@ import com.token.validation.signature.SignatureAlgorithm;
 
 import javax.crypto.Mac;
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.Key;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Map;
 
 public class HMACProvider implements SignatureProvider{
 
+    /**
+     * Macs are created and initialized once per thread, algorithm and key instead of on every verification.
+     * The Mac is reset to its initialized state after every signing, ready for the next token.
+     */
+    private static final ThreadLocal<Map<SignatureAlgorithm, Signer>> signers =
+            ThreadLocal.withInitial(() -> new EnumMap<>(SignatureAlgorithm.class));
+
     private HMACProvider() {}
 
     private static class HMACProviderHolder {
@@ -39,11 +48,9 @@ public class HMACProvider implements SignatureProvider{
 
     private static boolean verify(Jwt input, SecretKey key) throws TokenValidationException {
         try {
-            byte[] signature =
-                    sign((input.getEncodedHeader() + '.' + input.getEncodedContent()).getBytes("UTF-8"),
-                            input.getHeader().getAlgorithm(), key);
-            return MessageDigest.isEqual(signature,
-                    Base64.getUrlDecoder().decode(input.getEncodedSignature()));
+            byte[] signature = input.getSignature();
+            return signature != null
+                    && MessageDigest.isEqual(sign(input.getSigningInput(), input.getHeader().getAlgorithm(), key), signature);
         } catch (Exception e) {
             throw new TokenValidationException("Something went wrong on signature validation");
         }
@@ -53,11 +60,38 @@ public class HMACProvider implements SignatureProvider{
         return verify(input, (SecretKey) key);
     }
 
-    private static byte[] sign(byte[] data, SignatureAlgorithm algorithm, SecretKey key)
+    private static byte[] sign(ByteBuffer data, SignatureAlgorithm algorithm, SecretKey key)
             throws InvalidKeyException, NoSuchAlgorithmException {
-        Mac mac = Mac.getInstance(getJavaAlgorithm(algorithm));
-        mac.init(key);
-        mac.update(data);
-        return mac.doFinal();
+        Map<SignatureAlgorithm, Signer> threadSigners = signers.get();
+        Signer signer = threadSigners.get(algorithm);
+        if (signer == null) {
+            signer = new Signer(Mac.getInstance(getJavaAlgorithm(algorithm)));
+            threadSigners.put(algorithm, signer);
+        }
+        return signer.sign(data, key);
+    }
+
+    private static final class Signer {
+        private final Mac mac;
+        private SecretKey key;
+
+        Signer(Mac mac) {
+            this.mac = mac;
+        }
+
+        byte[] sign(ByteBuffer data, SecretKey secretKey) throws InvalidKeyException {
+            if (key != secretKey) {
+                key = null;
+                mac.init(secretKey);
+                key = secretKey;
+            }
+            try {
+                mac.update(data);
+                return mac.doFinal();
+            } finally {
+                // a failed signing may have left data in the Mac
+                mac.reset();
+            }
+        }
     }
 }
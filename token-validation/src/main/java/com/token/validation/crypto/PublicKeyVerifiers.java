@@ -0,0 +1,69 @@
+package com.token.validation.crypto;
+
+import com.token.validation.signature.SignatureAlgorithm;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-thread signature verifiers shared by the public key providers.
+ * <p>
+ * Signature lookup and key setup are paid once per thread, algorithm and key instead of on every verification.
+ * {@link Signature#verify(byte[])} leaves the verifier initialized with its key, ready for the next token.
+ * </p>
+ */
+final class PublicKeyVerifiers {
+
+    private static final ThreadLocal<Map<SignatureAlgorithm, Verifier>> verifiers =
+            ThreadLocal.withInitial(() -> new EnumMap<>(SignatureAlgorithm.class));
+
+    private PublicKeyVerifiers() {
+        throw new IllegalAccessError("Instantiation prohibited");
+    }
+
+    static boolean verify(SignatureAlgorithm algorithm, String javaAlgorithm, PublicKey publicKey,
+                          ByteBuffer signingInput, byte[] signature) throws GeneralSecurityException {
+        Map<SignatureAlgorithm, Verifier> threadVerifiers = verifiers.get();
+        Verifier verifier = threadVerifiers.get(algorithm);
+        if (verifier == null) {
+            verifier = new Verifier(Signature.getInstance(javaAlgorithm));
+            threadVerifiers.put(algorithm, verifier);
+        }
+
+        try {
+            verifier.init(publicKey);
+            verifier.signature.update(signingInput);
+            return verifier.signature.verify(signature);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            // a failed verification may have left data in the verifier
+            verifier.reset();
+            throw e;
+        }
+    }
+
+    private static final class Verifier {
+        private final Signature signature;
+        private PublicKey key;
+
+        Verifier(Signature signature) {
+            this.signature = signature;
+        }
+
+        void init(PublicKey publicKey) throws InvalidKeyException {
+            if (key != publicKey) {
+                key = null;
+                signature.initVerify(publicKey);
+                key = publicKey;
+            }
+        }
+
+        void reset() {
+            key = null;
+        }
+    }
+}
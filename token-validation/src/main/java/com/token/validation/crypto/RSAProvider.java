@@ -5,9 +5,7 @@ import com.token.validation.jwt.exception.TokenValidationException;
 import com.token.validation.signature.SignatureAlgorithm;
 
 import java.security.Key;
-import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
-import java.security.Signature;
 
 public class RSAProvider implements SignatureProvider {
 
@@ -35,16 +33,14 @@ public class RSAProvider implements SignatureProvider {
         }
     }
 
-    private static Signature getSignature(SignatureAlgorithm alg) throws NoSuchAlgorithmException {
-        return Signature.getInstance(getJavaAlgorithm(alg));
-    }
-
     private static boolean verify(Jwt input, PublicKey publicKey) throws TokenValidationException {
         try {
-            Signature verifier = getSignature(input.getHeader().getAlgorithm());
-            verifier.initVerify(publicKey);
-            verifier.update((input.getEncodedHeader() + '.' + input.getEncodedContent()).getBytes("UTF-8"));
-            return verifier.verify(input.getSignature());
+            byte[] signature = input.getSignature();
+            if (signature == null) {
+                return false;
+            }
+            SignatureAlgorithm algorithm = input.getHeader().getAlgorithm();
+            return PublicKeyVerifiers.verify(algorithm, getJavaAlgorithm(algorithm), publicKey, input.getSigningInput(), signature);
         } catch (Exception e) {
             throw new TokenValidationException("Something went wrong on signature validation", e);
         }
@@ -5,13 +5,26 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.token.validation.jwt.exception.TokenValidationException;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 
+/**
+ * A compact serialized JWT.
+ * <p>
+ * The token is scanned once for the dots separating its parts; the parts are then read as ranges of the
+ * token bytes. The header and the claims are decoded lazily, at most once.
+ * </p>
+ */
 public class Jwt {
 
-    private final String base64Header;
-    private final String base64Content;
-    private final String base64Signature;
+    private final byte[] token;
+    private final int headerEnd;
+    private final int contentEnd;
+    private final boolean signed;
+
+    private JwtHeader header;
+    private JwtClaims claims;
 
     private static final ObjectMapper mapper = new ObjectMapper();
 
@@ -23,46 +36,79 @@ public class Jwt {
         if (input == null) {
             throw new TokenValidationException("JWT must not be null");
         }
-        final String[] parts = input.split("\\.");
-        if (parts.length < 2 || parts.length > 3)
+        token = input.getBytes(StandardCharsets.US_ASCII);
+
+        int firstDot = -1;
+        int secondDot = -1;
+        for (int i = 0; i < token.length; i++) {
+            if (token[i] == '.') {
+                if (firstDot < 0) {
+                    firstDot = i;
+                } else if (secondDot < 0) {
+                    secondDot = i;
+                } else {
+                    throw new TokenValidationException("Parsing error");
+                }
+            }
+        }
+        if (firstDot < 0) {
             throw new TokenValidationException("Parsing error");
-        base64Header = parts[0];
-        base64Content = parts[1];
-        base64Signature = isDigitallySigned(input) ? parts[2] : null;
+        }
+
+        headerEnd = firstDot;
+        contentEnd = secondDot < 0 ? token.length : secondDot;
+        signed = secondDot >= 0 && secondDot < token.length - 1;
     }
 
     public String getEncodedHeader() {
-        return base64Header;
+        return new String(token, 0, headerEnd, StandardCharsets.US_ASCII);
     }
 
     public String getEncodedContent() {
-        return base64Content;
+        return new String(token, headerEnd + 1, contentEnd - headerEnd - 1, StandardCharsets.US_ASCII);
     }
 
     public String getEncodedSignature() {
-        return base64Signature;
+        return signed ? new String(token, contentEnd + 1, token.length - contentEnd - 1, StandardCharsets.US_ASCII) : null;
+    }
+
+    /**
+     * The bytes covered by the signature (encoded header, dot, encoded content), viewed in place.
+     * The returned buffer shares the token bytes and must only be read.
+     */
+    public ByteBuffer getSigningInput() {
+        return ByteBuffer.wrap(token, 0, contentEnd);
     }
 
     public JwtHeader getHeader() throws IOException {
-        byte[] headerBytes = Base64.getUrlDecoder().decode(base64Header);
-        return mapper.readValue(headerBytes, JwtHeader.class);
+        if (header == null) {
+            header = mapper.readValue(decode(0, headerEnd), JwtHeader.class);
+        }
+        return header;
     }
 
     public byte[] getContent() {
-        return Base64.getUrlDecoder().decode(base64Content);
+        return decode(headerEnd + 1, contentEnd);
     }
 
     public byte[] getSignature() {
-        return Base64.getUrlDecoder().decode(base64Signature);
+        return signed ? decode(contentEnd + 1, token.length) : null;
     }
 
-    private boolean isDigitallySigned(String jwt) {
-        String[] parts = jwt.split("\\.");
-        return parts.length > 2;
+    public JwtClaims getClaims() throws IOException {
+        if (claims == null) {
+            claims = mapper.readValue(getContent(), JwtClaims.class);
+        }
+        return claims;
     }
 
-    public JwtClaims getClaims() throws IOException {
-        byte[] claimsBytes = Base64.getUrlDecoder().decode(base64Content);
-        return mapper.readValue(claimsBytes, JwtClaims.class);
+    private byte[] decode(int start, int end) {
+        ByteBuffer decoded = Base64.getUrlDecoder().decode(ByteBuffer.wrap(token, start, end - start));
+        if (decoded.arrayOffset() == 0 && decoded.remaining() == decoded.array().length) {
+            return decoded.array();
+        }
+        byte[] bytes = new byte[decoded.remaining()];
+        decoded.get(bytes);
+        return bytes;
     }
 }
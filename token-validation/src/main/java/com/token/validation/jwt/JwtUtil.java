@@ -1,15 +1,21 @@
 package com.token.validation.jwt;
 
+import com.token.validation.crypto.ECDSAProvider;
+import com.token.validation.crypto.EdDSAProvider;
 import com.token.validation.crypto.HMACProvider;
 import com.token.validation.crypto.RSAProvider;
 import com.token.validation.crypto.SignatureProvider;
 import com.token.validation.jwt.exception.SignatureValidationException;
 import com.token.validation.jwt.exception.TokenValidationException;
+import com.token.validation.keys.KeyRing;
 import com.token.validation.response.ValidationResponse;
+import com.token.validation.signature.SignatureAlgorithm;
 
+import javax.crypto.SecretKey;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.PublicKey;
 import java.util.Base64;
 import java.util.Date;
 
@@ -17,13 +23,23 @@ public class JwtUtil {
 
     private static final SignatureProvider provider = (jwt, key) -> {
         try {
-            switch (jwt.getHeader().getAlgorithm().getSignatureType()) {
+            SignatureAlgorithm algorithm = jwt.getHeader().getAlgorithm();
+            if (algorithm == null) {
+                return false;
+            }
+            switch (algorithm.getSignatureType()) {
+                // the key type must match the algorithm, an HMAC token is never checked against a public key
                 case "RSA":
-                    return RSAProvider.getInstance().verify(jwt, key);
+                    return key instanceof PublicKey && RSAProvider.getInstance().verify(jwt, key);
                 case "HMAC":
-                    return HMACProvider.getInstance().verify(jwt, key);
+                    return key instanceof SecretKey && HMACProvider.getInstance().verify(jwt, key);
+                case "ECDSA":
+                    return key instanceof PublicKey && ECDSAProvider.getInstance().verify(jwt, key);
+                case "EdDSA":
+                    return key instanceof PublicKey && EdDSAProvider.getInstance().verify(jwt, key);
                 default:
-                    return true;
+                    // unsigned ("none") tokens are never accepted
+                    return false;
             }
         } catch (IOException e) {
             throw new SignatureValidationException();
@@ -41,7 +57,8 @@ public class JwtUtil {
      * @return the decoded JWT header
      */
     public static String getHeader(String base64jsonString) {
-        return decodeJSON(base64jsonString.split("\\.")[0]);
+        int headerEnd = base64jsonString.indexOf('.');
+        return decodeJSON(base64jsonString, 0, headerEnd < 0 ? base64jsonString.length() : headerEnd);
     }
 
     /**
@@ -52,11 +69,16 @@ public class JwtUtil {
      * @return the decoded JWT claim set
      */
     public static String getClaimsSet(String base64jsonString) {
-        return decodeJSON(base64jsonString.split("\\.")[1]);
+        int headerEnd = base64jsonString.indexOf('.');
+        if (headerEnd < 0) {
+            throw new TokenValidationException("Parsing error");
+        }
+        int contentEnd = base64jsonString.indexOf('.', headerEnd + 1);
+        return decodeJSON(base64jsonString, headerEnd + 1, contentEnd < 0 ? base64jsonString.length() : contentEnd);
     }
 
-    private static String decodeJSON(String base64jsonString) {
-        return new String(Base64.getUrlDecoder().decode(base64jsonString), StandardCharsets.UTF_8);
+    private static String decodeJSON(String base64jsonString, int start, int end) {
+        return new String(Base64.getUrlDecoder().decode(base64jsonString.substring(start, end)), StandardCharsets.UTF_8);
     }
 
     /**
@@ -69,17 +91,65 @@ public class JwtUtil {
      *                                  null, the signature can't be validated.
      */
     public static ValidationResponse verifyJwt(String jwt, Key key) throws TokenValidationException {
-        JwtClaims claims;
-        boolean isSignatureValid;
-        boolean isClaimValid = false;
+        if (key == null) {
+            throw new TokenValidationException("Key must not be null");
+        }
+        return verifySignatureAndClaims(new Jwt(jwt), key);
+    }
 
+    /**
+     * Verify the signature and expiration time of an already parsed JWT token, so that a caller that read
+     * its kid first does not parse it again.
+     *
+     * @param jwtToken The parsed JWT token
+     * @param key      The key used to check signature
+     * @return ValidationResponse
+     * @throws TokenValidationException If the key is null or the signature can't be validated.
+     */
+    public static ValidationResponse verifyJwt(Jwt jwtToken, Key key) throws TokenValidationException {
         if (key == null) {
             throw new TokenValidationException("Key must not be null");
         }
+        return verifySignatureAndClaims(jwtToken, key);
+    }
+
+    /**
+     * Verify JWT token format, signature and expiration time, with the key named by the kid header of the token.
+     *
+     * @param jwt     The JWT token Base64 encoded
+     * @param keyRing The keys that may have signed the token
+     * @return ValidationResponse, not valid when the key ring does not know the key
+     * @throws TokenValidationException If the JWT token has invalid format or is null, the key ring is
+     *                                  null, the signature can't be validated.
+     */
+    public static ValidationResponse verifyJwt(String jwt, KeyRing keyRing) throws TokenValidationException {
+        if (keyRing == null) {
+            throw new TokenValidationException("Key ring must not be null");
+        }
         Jwt jwtToken = new Jwt(jwt);
+        Key key;
+        try {
+            key = keyRing.getKey(jwtToken.getHeader().getKeyId());
+        } catch (IOException e) {
+            throw new TokenValidationException("Error parsing JWT");
+        }
+        if (key == null) {
+            return new ValidationResponse(false, null);
+        }
+        return verifySignatureAndClaims(jwtToken, key);
+    }
+
+    private static ValidationResponse verifySignatureAndClaims(Jwt jwtToken, Key key) throws TokenValidationException {
+        JwtClaims claims;
+        boolean isSignatureValid;
+        boolean isClaimValid = false;
 
         try {
             isSignatureValid = provider.verify(jwtToken, key);
+            if (!isSignatureValid) {
+                // claims of a forged token are never decoded
+                return new ValidationResponse(false, null);
+            }
 
             claims = jwtToken.getClaims();
             Date current = new Date();
@@ -103,8 +173,18 @@ public class JwtUtil {
      * @throws TokenValidationException If the JWT token has invalid format or is null
      */
     public static String getKeyId(String jwt) throws TokenValidationException {
+        return getKeyId(new Jwt(jwt));
+    }
+
+    /**
+     * Get key id from an already parsed JWT token.
+     *
+     * @param jwtToken The parsed JWT token
+     * @return key id which can be use to validate signature
+     * @throws TokenValidationException If the JWT header can't be parsed
+     */
+    public static String getKeyId(Jwt jwtToken) throws TokenValidationException {
         try {
-            Jwt jwtToken = new Jwt(jwt);
             JwtHeader header = jwtToken.getHeader();
             return header.getKeyId();
         } catch (IOException e) {
@@ -0,0 +1,205 @@
+package com.token.validation.keys;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Key ring over a key set kept in memory and loaded from elsewhere, typically the JWKS document of the auth service.
+ * <p>
+ * Lookups only read the cached key set and never wait for a fetch. Once the set is older than the refresh interval
+ * it keeps being served while a single background fetch replaces it (stale-while-revalidate), and a failed fetch
+ * keeps the current set. An unknown kid, e.g. right after a key rotation, triggers a fetch as well. Fetches are at
+ * least the minimum refresh interval apart, so tokens with made up kids cannot flood the key server.
+ * Only the lookups made before the first key set arrived wait for it, at most the initial load timeout.
+ * </p>
+ */
+public class CachedKeyRing implements KeyRing, AutoCloseable {
+
+    private static final long DEFAULT_MINIMUM_REFRESH_INTERVAL_MILLIS = 10_000;
+    private static final int DEFAULT_TIMEOUT_MILLIS = 5_000;
+
+    /**
+     * Loads the whole key set, by kid.
+     */
+    @FunctionalInterface
+    public interface KeySetLoader {
+        Map<String, ? extends Key> load() throws Exception;
+    }
+
+    private final KeySetLoader loader;
+    private final Consumer<Exception> failureListener;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final long refreshIntervalNanos;
+    private final long minimumRefreshIntervalNanos;
+    private final long initialLoadTimeoutNanos;
+    private final LongSupplier clock;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final CountDownLatch initialLoad = new CountDownLatch(1);
+    private volatile KeySet keySet;
+    private volatile long lastAttempt;
+
+    /**
+     * @param failureListener told about every failed fetch, the key ring keeps the current key set
+     */
+    public CachedKeyRing(KeySetLoader loader, Consumer<Exception> failureListener, long refreshIntervalMillis,
+                         long minimumRefreshIntervalMillis, long initialLoadTimeoutMillis) {
+        this(loader, failureListener, newRefreshExecutor(), true, refreshIntervalMillis,
+                minimumRefreshIntervalMillis, initialLoadTimeoutMillis, System::nanoTime);
+    }
+
+    CachedKeyRing(KeySetLoader loader, Consumer<Exception> failureListener, Executor executor,
+                  long refreshIntervalMillis, long minimumRefreshIntervalMillis, long initialLoadTimeoutMillis,
+                  LongSupplier clock) {
+        this(loader, failureListener, executor, false, refreshIntervalMillis,
+                minimumRefreshIntervalMillis, initialLoadTimeoutMillis, clock);
+    }
+
+    private CachedKeyRing(KeySetLoader loader, Consumer<Exception> failureListener, Executor executor, boolean ownsExecutor,
+                          long refreshIntervalMillis, long minimumRefreshIntervalMillis, long initialLoadTimeoutMillis,
+                          LongSupplier clock) {
+        this.loader = loader;
+        this.failureListener = failureListener;
+        this.executor = executor;
+        this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+        this.refreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(refreshIntervalMillis);
+        this.minimumRefreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minimumRefreshIntervalMillis);
+        this.initialLoadTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(initialLoadTimeoutMillis);
+        this.clock = clock;
+        refresh(clock.getAsLong());
+    }
+
+    /**
+     * Key ring over the JWKS document published at the URL.
+     */
+    public static CachedKeyRing forJwks(URL jwksUrl, long refreshIntervalMillis, Consumer<Exception> failureListener) {
+        return new CachedKeyRing(() -> JsonWebKeys.parse(fetch(jwksUrl)), failureListener, refreshIntervalMillis,
+                DEFAULT_MINIMUM_REFRESH_INTERVAL_MILLIS, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    @Override
+    public Key getKey(String keyId) {
+        KeySet current = keySet;
+        if (current == null) {
+            current = awaitInitialLoad();
+        }
+
+        long now = clock.getAsLong();
+        Key key = current == null ? null : current.get(keyId);
+        boolean stale = key == null || now - current.loadedAt >= refreshIntervalNanos;
+        if (stale && now - lastAttempt >= minimumRefreshIntervalNanos) {
+            refresh(now);
+        }
+        return key;
+    }
+
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
+    }
+
+    private KeySet awaitInitialLoad() {
+        try {
+            initialLoad.await(initialLoadTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return keySet;
+    }
+
+    /**
+     * Starts a fetch unless one is already running.
+     */
+    private void refresh(long now) {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        lastAttempt = now;
+        try {
+            executor.execute(this::load);
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+        }
+    }
+
+    private void load() {
+        try {
+            keySet = new KeySet(new HashMap<>(loader.load()), clock.getAsLong());
+        } catch (Exception e) {
+            failureListener.accept(e);
+        } finally {
+            refreshing.set(false);
+            initialLoad.countDown();
+        }
+    }
+
+    private static ExecutorService newRefreshExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "key-ring-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static String fetch(URL url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(DEFAULT_TIMEOUT_MILLIS);
+        connection.setReadTimeout(DEFAULT_TIMEOUT_MILLIS);
+        connection.setRequestProperty("Accept", "application/json");
+        try {
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Unable to fetch " + url + ", status " + connection.getResponseCode());
+            }
+            try (InputStream body = connection.getInputStream()) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    content.write(buffer, 0, read);
+                }
+                return new String(content.toByteArray(), StandardCharsets.UTF_8);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static final class KeySet {
+        private final Map<String, Key> keys;
+        private final long loadedAt;
+
+        KeySet(Map<String, Key> keys, long loadedAt) {
+            this.keys = keys;
+            this.loadedAt = loadedAt;
+        }
+
+        /**
+         * A token without kid can only be verified when there is no choice of key.
+         */
+        Key get(String keyId) {
+            if (keyId == null) {
+                return keys.size() == 1 ? keys.values().iterator().next() : null;
+            }
+            return keys.get(keyId);
+        }
+    }
+}
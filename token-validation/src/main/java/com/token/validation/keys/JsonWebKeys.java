@@ -0,0 +1,180 @@
+package com.token.validation.keys;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes JSON Web Key Sets (RFC 7517) of public signature keys: RSA, EC P-256 and Ed25519 (RFC 8037).
+ */
+public final class JsonWebKeys {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * DER prefix of an X.509 encoded Ed25519 public key, followed by the 32 bytes of the key.
+     */
+    private static final byte[] ED25519_PREFIX = {0x30, 0x2a, 0x30, 0x05, 0x06, 0x03, 0x2b, 0x65, 0x70, 0x03, 0x21, 0x00};
+    private static final int ED25519_KEY_LENGTH = 32;
+    private static final int P256_COORDINATE_LENGTH = 32;
+
+    private JsonWebKeys() {
+        throw new IllegalAccessError("Instantiation prohibited");
+    }
+
+    /**
+     * Keys without a kid, encryption keys and keys of an unsupported type are left out.
+     *
+     * @return the signature keys by kid
+     * @throws IOException when the document is not a JSON object
+     */
+    public static Map<String, PublicKey> parse(String jwks) throws IOException {
+        JsonNode document = mapper.readTree(jwks);
+        if (document == null || !document.isObject()) {
+            throw new IOException("Not a JSON Web Key Set");
+        }
+
+        Map<String, PublicKey> keys = new LinkedHashMap<>();
+        for (JsonNode jwk : document.path("keys")) {
+            String keyId = jwk.path("kid").asText(null);
+            if (keyId == null || "enc".equals(jwk.path("use").asText(null))) {
+                continue;
+            }
+            PublicKey key = toPublicKey(jwk);
+            if (key != null) {
+                keys.put(keyId, key);
+            }
+        }
+        return Collections.unmodifiableMap(keys);
+    }
+
+    /**
+     * @throws IllegalArgumentException when a key is neither RSA, EC P-256 nor Ed25519
+     */
+    public static String toJson(Map<String, ? extends PublicKey> keys) {
+        ObjectNode document = mapper.createObjectNode();
+        ArrayNode jwks = document.putArray("keys");
+        for (Map.Entry<String, ? extends PublicKey> entry : keys.entrySet()) {
+            jwks.add(toJwk(entry.getKey(), entry.getValue()));
+        }
+        return document.toString();
+    }
+
+    private static ObjectNode toJwk(String keyId, PublicKey key) {
+        ObjectNode jwk = mapper.createObjectNode();
+        if (key instanceof RSAPublicKey) {
+            RSAPublicKey rsaKey = (RSAPublicKey) key;
+            jwk.put("kty", "RSA");
+            jwk.put("n", encode(unsigned(rsaKey.getModulus(), 0)));
+            jwk.put("e", encode(unsigned(rsaKey.getPublicExponent(), 0)));
+        } else if (key instanceof ECPublicKey) {
+            ECPublicKey ecKey = (ECPublicKey) key;
+            if (ecKey.getParams().getCurve().getField().getFieldSize() != 256) {
+                throw new IllegalArgumentException("Only P-256 EC keys are supported");
+            }
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("x", encode(unsigned(ecKey.getW().getAffineX(), P256_COORDINATE_LENGTH)));
+            jwk.put("y", encode(unsigned(ecKey.getW().getAffineY(), P256_COORDINATE_LENGTH)));
+        } else if (isEd25519(key)) {
+            byte[] encoded = key.getEncoded();
+            jwk.put("kty", "OKP");
+            jwk.put("crv", "Ed25519");
+            jwk.put("x", encode(Arrays.copyOfRange(encoded, encoded.length - ED25519_KEY_LENGTH, encoded.length)));
+        } else {
+            throw new IllegalArgumentException("Unsupported key type " + key.getAlgorithm());
+        }
+        jwk.put("use", "sig");
+        jwk.put("kid", keyId);
+        return jwk;
+    }
+
+    /**
+     * @return the key, or null when the key type is not supported or the key is malformed
+     */
+    private static PublicKey toPublicKey(JsonNode jwk) {
+        try {
+            switch (jwk.path("kty").asText("")) {
+                case "RSA":
+                    return KeyFactory.getInstance("RSA").generatePublic(
+                            new RSAPublicKeySpec(decode(jwk, "n"), decode(jwk, "e")));
+                case "EC":
+                    if (!"P-256".equals(jwk.path("crv").asText(null))) {
+                        return null;
+                    }
+                    AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+                    parameters.init(new ECGenParameterSpec("secp256r1"));
+                    ECPoint point = new ECPoint(decode(jwk, "x"), decode(jwk, "y"));
+                    return KeyFactory.getInstance("EC").generatePublic(
+                            new ECPublicKeySpec(point, parameters.getParameterSpec(ECParameterSpec.class)));
+                case "OKP":
+                    if (!"Ed25519".equals(jwk.path("crv").asText(null))) {
+                        return null;
+                    }
+                    byte[] x = Base64.getUrlDecoder().decode(jwk.path("x").asText(""));
+                    if (x.length != ED25519_KEY_LENGTH) {
+                        return null;
+                    }
+                    byte[] encoded = Arrays.copyOf(ED25519_PREFIX, ED25519_PREFIX.length + ED25519_KEY_LENGTH);
+                    System.arraycopy(x, 0, encoded, ED25519_PREFIX.length, ED25519_KEY_LENGTH);
+                    return KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(encoded));
+                default:
+                    return null;
+            }
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean isEd25519(PublicKey key) {
+        String algorithm = key.getAlgorithm();
+        byte[] encoded = key.getEncoded();
+        return ("Ed25519".equals(algorithm) || "EdDSA".equals(algorithm))
+                && encoded != null && encoded.length == ED25519_PREFIX.length + ED25519_KEY_LENGTH;
+    }
+
+    private static BigInteger decode(JsonNode jwk, String member) {
+        String value = jwk.path(member).asText(null);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + member);
+        }
+        return new BigInteger(1, Base64.getUrlDecoder().decode(value));
+    }
+
+    /**
+     * Big endian bytes without the sign byte, left padded with zeros to the length.
+     */
+    private static byte[] unsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        int start = bytes.length > 1 && bytes[0] == 0 ? 1 : 0;
+        int size = Math.max(bytes.length - start, length);
+        byte[] result = new byte[size];
+        System.arraycopy(bytes, start, result, size - (bytes.length - start), bytes.length - start);
+        return result;
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
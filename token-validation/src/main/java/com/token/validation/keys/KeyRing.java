@@ -0,0 +1,18 @@
+package com.token.validation.keys;
+
+import java.security.Key;
+
+/**
+ * Resolves the key verifying a token from the kid header of the token.
+ */
+@FunctionalInterface
+public interface KeyRing {
+
+    /**
+     * Must not block on remote calls, requests are verified on the caller thread.
+     *
+     * @param keyId the kid header of the token, null for tokens signed without a kid
+     * @return the verification key, or null when the key ring does not know the key
+     */
+    Key getKey(String keyId);
+}
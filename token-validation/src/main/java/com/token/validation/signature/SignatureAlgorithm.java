@@ -35,7 +35,17 @@ public enum SignatureAlgorithm {
     /**
      * RSASSA-PKCS-v1_5 using SHA-512
      */
-    RS512("RS512", "RSASSA-PKCS-v1_5 using SHA-512", "RSA", "SHA512withRSA");
+    RS512("RS512", "RSASSA-PKCS-v1_5 using SHA-512", "RSA", "SHA512withRSA"),
+
+    /**
+     * ECDSA using P-256 and SHA-256
+     */
+    ES256("ES256", "ECDSA using P-256 and SHA-256", "EC", "SHA256withECDSA"),
+
+    /**
+     * EdDSA using Ed25519 (RFC 8037), needs a JVM providing Ed25519 (Java 15+)
+     */
+    EdDSA("EdDSA", "EdDSA using Ed25519", "Ed25519", "Ed25519");
 
 
     private final String value;
@@ -93,9 +103,41 @@ public enum SignatureAlgorithm {
         return getDescription().startsWith("RSASSA");
     }
 
+    /**
+     * Returns {@code true} if the enum instance represents an ECDSA signature algorithm, {@code false}
+     * otherwise.
+     */
+    public boolean isEcdsa() {
+        return name().startsWith("ES");
+    }
+
+    /**
+     * Returns {@code true} if the enum instance represents an EdDSA signature algorithm, {@code false}
+     * otherwise.
+     */
+    public boolean isEdDsa() {
+        return this == EdDSA;
+    }
+
     public String getSignatureType() {
         if (isHmac()) return "HMAC";
         if (isRsa())  return "RSA";
+        if (isEcdsa()) return "ECDSA";
+        if (isEdDsa()) return "EdDSA";
         return "NONE";
     }
+
+    /**
+     * Returns the algorithm for a JWA algorithm name, e.g. {@code RS256} or {@code EdDSA}.
+     *
+     * @throws IllegalArgumentException if the name is not a supported algorithm
+     */
+    public static SignatureAlgorithm forValue(String value) {
+        for (SignatureAlgorithm algorithm : values()) {
+            if (algorithm.value.equals(value)) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported signature algorithm " + value);
+    }
 }
@@ -0,0 +1,37 @@
+package com.token.validation.auth;
+
+import com.token.validation.jwt.JwtClaims;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+class UserPrincipalTest {
+
+    @Test
+    void principal_is_built_from_claims() {
+        JwtClaims claims = new JwtClaims();
+        claims.put("user_id", "42");
+        claims.put("email", "user@kalendarium.com");
+        claims.setRoles("admin, visitor");
+
+        UserPrincipal principal = UserPrincipal.fromClaims(claims);
+
+        Assertions.assertEquals("42", principal.getUserId());
+        Assertions.assertEquals("user@kalendarium.com", principal.getEmail());
+        Assertions.assertEquals("user@kalendarium.com", principal.getName());
+        Assertions.assertEquals(new LinkedHashSet<>(Arrays.asList("admin", "visitor")), principal.getRoles());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> principal.getRoles().add("owner"));
+    }
+
+    @Test
+    void principal_without_roles_has_no_access() {
+        UserPrincipal principal = UserPrincipal.fromClaims(new JwtClaims());
+
+        Assertions.assertNull(principal.getEmail());
+        Assertions.assertTrue(principal.getRoles().isEmpty());
+        Assertions.assertFalse(principal.hasAnyRole(Collections.singleton("admin")));
+    }
+}
@@ -0,0 +1,81 @@
+package com.token.validation.crypto;
+
+import com.token.validation.jwt.Jwt;
+import com.token.validation.jwt.exception.TokenValidationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.*;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+import java.util.Base64;
+
+class ECDSAProviderTest {
+
+    private KeyPair keyPair;
+
+    @BeforeEach
+    void setUp() throws GeneralSecurityException {
+        keyPair = generateECKeyPair();
+    }
+
+    @Test
+    void testVerifyES256() throws GeneralSecurityException, TokenValidationException {
+        Jwt jwt = new Jwt(createJWT(keyPair.getPrivate()));
+
+        Assertions.assertTrue(ECDSAProvider.getInstance().verify(jwt, keyPair.getPublic()));
+    }
+
+    @Test
+    void testVerifyInvalidPublicKey() throws GeneralSecurityException, TokenValidationException {
+        Jwt jwt = new Jwt(createJWT(keyPair.getPrivate()));
+
+        Assertions.assertFalse(ECDSAProvider.getInstance().verify(jwt, generateECKeyPair().getPublic()));
+    }
+
+    @Test
+    void testDerSignatureRoundTrip() {
+        byte[] jose = new byte[64];
+        jose[0] = (byte) 0x80;
+        jose[63] = 1;
+
+        byte[] der = ECDSAProvider.toDer(jose);
+
+        Assertions.assertArrayEquals(jose, toJose(der, 32));
+    }
+
+    private String createJWT(PrivateKey privateKey) throws GeneralSecurityException {
+        String header = "{ \"alg\" : \"ES256\", \"typ\" : \"JWT\" }";
+        String payload = "{ \"iss\" : \"issuer\" }";
+        String content = Base64.getUrlEncoder().encodeToString(header.getBytes())
+                + "." + Base64.getUrlEncoder().encodeToString(payload.getBytes());
+
+        Signature signature = Signature.getInstance("SHA256withECDSA");
+        signature.initSign(privateKey);
+        signature.update(content.getBytes());
+        return content + "." + Base64.getUrlEncoder().encodeToString(toJose(signature.sign(), 32));
+    }
+
+    /**
+     * Converts the DER sequence produced by the JCA to the concatenated R and S values used by JWS.
+     */
+    private static byte[] toJose(byte[] der, int valueLength) {
+        byte[] jose = new byte[2 * valueLength];
+        int offset = der[1] == (byte) 0x81 ? 3 : 2;
+        for (int i = 0; i < 2; i++) {
+            int length = der[offset + 1];
+            byte[] value = Arrays.copyOfRange(der, offset + 2, offset + 2 + length);
+            int copied = Math.min(length, valueLength);
+            System.arraycopy(value, length - copied, jose, (i + 1) * valueLength - copied, copied);
+            offset += 2 + length;
+        }
+        return jose;
+    }
+
+    private static KeyPair generateECKeyPair() throws GeneralSecurityException {
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("EC");
+        keyGen.initialize(new ECGenParameterSpec("secp256r1"));
+        return keyGen.generateKeyPair();
+    }
+}
@@ -0,0 +1,43 @@
+package com.token.validation.crypto;
+
+import com.token.validation.jwt.Jwt;
+import com.token.validation.jwt.exception.TokenValidationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.security.*;
+import java.util.Base64;
+
+class EdDSAProviderTest {
+
+    @Test
+    void testVerifyEdDSA() throws GeneralSecurityException, TokenValidationException {
+        KeyPair keyPair = generateEd25519KeyPair();
+        Jwt jwt = new Jwt(createJWT(keyPair.getPrivate()));
+
+        Assertions.assertTrue(EdDSAProvider.getInstance().verify(jwt, keyPair.getPublic()));
+        Assertions.assertFalse(EdDSAProvider.getInstance().verify(jwt, generateEd25519KeyPair().getPublic()));
+    }
+
+    private String createJWT(PrivateKey privateKey) throws GeneralSecurityException {
+        String header = "{ \"alg\" : \"EdDSA\", \"typ\" : \"JWT\" }";
+        String payload = "{ \"iss\" : \"issuer\" }";
+        String content = Base64.getUrlEncoder().encodeToString(header.getBytes())
+                + "." + Base64.getUrlEncoder().encodeToString(payload.getBytes());
+
+        Signature signature = Signature.getInstance("Ed25519");
+        signature.initSign(privateKey);
+        signature.update(content.getBytes());
+        return content + "." + Base64.getUrlEncoder().encodeToString(signature.sign());
+    }
+
+    private static KeyPair generateEd25519KeyPair() {
+        try {
+            return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+            Assumptions.assumeTrue(false, "Ed25519 is not available on this JVM");
+            return null;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
 import java.security.*;
 import java.util.Arrays;
 import java.util.Base64;
@@ -58,6 +59,22 @@ class JwtTest {
         Assertions.assertArrayEquals(payload.getBytes(), jwtToken.getContent());
     }
 
+    @Test
+    void testSigningInput() throws SignatureException, InvalidKeyException, NoSuchAlgorithmException {
+        String encodedHeader = Base64.getUrlEncoder().encodeToString("{ \"alg\" : \"RS256\" }".getBytes());
+        String encodedPayload = Base64.getUrlEncoder().encodeToString("{ \"iss\" : \"issuer\" }".getBytes());
+        String signingInput = encodedHeader + "." + encodedPayload;
+        String encodedSignature = Base64.getUrlEncoder().encodeToString(signWithRSA256(signingInput.getBytes(), keyPair.getPrivate()));
+
+        Jwt jwtToken = new Jwt(signingInput + "." + encodedSignature);
+        ByteBuffer buffer = jwtToken.getSigningInput();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+
+        Assertions.assertArrayEquals(signingInput.getBytes(), bytes);
+        Assertions.assertNull(new Jwt(signingInput).getSignature());
+    }
+
     @Test
     void testJwtNoTSigned() throws TokenValidationException {
 
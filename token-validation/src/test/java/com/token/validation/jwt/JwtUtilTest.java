@@ -2,6 +2,7 @@ package com.token.validation.jwt;
 
 import com.token.validation.auth.AuthUtils;
 import com.token.validation.jwt.exception.TokenValidationException;
+import com.token.validation.keys.KeyRing;
 import com.token.validation.response.ValidationResponse;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -65,6 +66,41 @@ class JwtUtilTest {
         Assertions.assertFalse(response.isValid());
     }
 
+    @Test
+    void testVerifyUnsignedToken() throws TokenValidationException {
+
+        long expiration = System.currentTimeMillis() / 1000 + 300;
+        String header = "{ \"alg\" : \"NONE\", \"typ\" : \"JWT\" }";
+        String payload = "{ \"iss\" : \"issuer\", \"exp\" : " + expiration + " }";
+        String jwt = Base64.getUrlEncoder().encodeToString(header.getBytes())
+                + "." + Base64.getUrlEncoder().encodeToString(payload.getBytes()) + ".";
+
+        Assertions.assertFalse(JwtUtil.verifyJwt(jwt, keyPair.getPublic()).isValid());
+        Assertions.assertFalse(JwtUtil.verifyJwt(jwt, secretKey).isValid());
+    }
+
+    @Test
+    void testVerifyHmacTokenWithPublicKey()
+            throws NoSuchAlgorithmException, SignatureException, InvalidKeyException, TokenValidationException {
+
+        long expiration = System.currentTimeMillis() / 1000 + 300;
+        String jwt = createJWT("HS256", "HMACSHA256", SIGN_HMAC_ALG, expiration);
+
+        Assertions.assertFalse(JwtUtil.verifyJwt(jwt, keyPair.getPublic()).isValid());
+    }
+
+    @Test
+    void testVerifyWithKeyRing()
+            throws NoSuchAlgorithmException, SignatureException, InvalidKeyException, TokenValidationException {
+
+        long expiration = System.currentTimeMillis() / 1000 + 300;
+        String jwt = createJWT("RS256", "SHA256withRSA", SIGN_RSA_ALG, expiration);
+
+        KeyRing keyRing = keyId -> "123456".equals(keyId) ? keyPair.getPublic() : null;
+        Assertions.assertTrue(JwtUtil.verifyJwt(jwt, keyRing).isValid());
+        Assertions.assertFalse(JwtUtil.verifyJwt(jwt, (KeyRing) keyId -> null).isValid());
+    }
+
     @Test
     void testGetHeader()
             throws NoSuchAlgorithmException, SignatureException, InvalidKeyException {
@@ -156,6 +192,20 @@ class JwtUtilTest {
         Assertions.assertEquals("123456", JwtUtil.getKeyId(jwt));
     }
 
+    @Test
+    void testVerifyParsedToken()
+            throws NoSuchAlgorithmException, SignatureException, InvalidKeyException, TokenValidationException {
+
+        long nowMillis = System.currentTimeMillis();
+        Date now = new Date(nowMillis);
+        Long expiration = (now.getTime() / 1000) + 300;
+        Jwt jwt = new Jwt(createJWT("RS256", "SHA256withRSA", SIGN_RSA_ALG, expiration));
+
+        Assertions.assertEquals("123456", JwtUtil.getKeyId(jwt));
+        Assertions.assertTrue(JwtUtil.verifyJwt(jwt, keyPair.getPublic()).isValid());
+        Assertions.assertFalse(JwtUtil.verifyJwt(jwt, generateRSAKeyPair().getPublic()).isValid());
+    }
+
     private String createJWT(String jwtAlgorithm, String signAlgorithm, String signKeyType,
                              Long expirationTime)
             throws SignatureException, InvalidKeyException, NoSuchAlgorithmException {
@@ -0,0 +1,107 @@
+package com.token.validation.keys;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+class CachedKeyRingTest {
+
+    private static final Key FIRST = new SecretKeySpec(new byte[]{1}, "HmacSHA256");
+    private static final Key SECOND = new SecretKeySpec(new byte[]{2}, "HmacSHA256");
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicReference<Map<String, Key>> published = new AtomicReference<>(Collections.singletonMap("first", FIRST));
+    private final List<Runnable> pendingRefreshes = new ArrayList<>();
+    private final List<Exception> failures = new ArrayList<>();
+
+    private final CachedKeyRing.KeySetLoader loader = () -> {
+        loads.incrementAndGet();
+        Map<String, Key> keys = published.get();
+        if (keys == null) {
+            throw new IllegalStateException("key server down");
+        }
+        return keys;
+    };
+
+    @Test
+    void stale_keys_are_served_while_refreshing() {
+        CachedKeyRing keyRing = new CachedKeyRing(loader, failures::add, Runnable::run, 60_000, 1_000, 0, clock::get);
+        Assertions.assertSame(FIRST, keyRing.getKey("first"));
+        Assertions.assertEquals(1, loads.get());
+
+        CachedKeyRing delayedKeyRing = new CachedKeyRing(loader, failures::add, pendingRefreshes::add, 60_000, 1_000, 0, clock::get);
+        runPendingRefreshes();
+        advance(60_000);
+        published.set(Collections.singletonMap("second", SECOND));
+
+        Assertions.assertSame(FIRST, delayedKeyRing.getKey("first"));
+        Assertions.assertSame(FIRST, delayedKeyRing.getKey("first"));
+        Assertions.assertEquals(1, pendingRefreshes.size());
+
+        runPendingRefreshes();
+        Assertions.assertNull(delayedKeyRing.getKey("first"));
+        Assertions.assertSame(SECOND, delayedKeyRing.getKey("second"));
+    }
+
+    @Test
+    void unknown_key_id_triggers_a_rate_limited_refresh() {
+        CachedKeyRing keyRing = new CachedKeyRing(loader, failures::add, Runnable::run, 60_000, 1_000, 0, clock::get);
+        published.set(Collections.singletonMap("second", SECOND));
+
+        advance(1_000);
+        Assertions.assertNull(keyRing.getKey("second"));
+        Assertions.assertSame(SECOND, keyRing.getKey("second"));
+        Assertions.assertEquals(2, loads.get());
+
+        Assertions.assertNull(keyRing.getKey("made-up"));
+        Assertions.assertNull(keyRing.getKey("made-up"));
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    void failed_refresh_keeps_the_current_keys() {
+        CachedKeyRing keyRing = new CachedKeyRing(loader, failures::add, Runnable::run, 60_000, 1_000, 0, clock::get);
+        published.set(null);
+
+        advance(60_000);
+        Assertions.assertSame(FIRST, keyRing.getKey("first"));
+        Assertions.assertSame(FIRST, keyRing.getKey("first"));
+        Assertions.assertEquals(1, failures.size());
+    }
+
+    @Test
+    void token_without_key_id_needs_a_single_key() {
+        CachedKeyRing keyRing = new CachedKeyRing(loader, failures::add, Runnable::run, 60_000, 1_000, 0, clock::get);
+        Assertions.assertSame(FIRST, keyRing.getKey(null));
+
+        Map<String, Key> keys = new HashMap<>();
+        keys.put("first", FIRST);
+        keys.put("second", SECOND);
+        published.set(keys);
+        advance(60_000);
+        keyRing.getKey("first");
+
+        Assertions.assertNull(keyRing.getKey(null));
+    }
+
+    private void runPendingRefreshes() {
+        List<Runnable> refreshes = new ArrayList<>(pendingRefreshes);
+        pendingRefreshes.clear();
+        refreshes.forEach(Runnable::run);
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(millis * 1_000_000L);
+    }
+}
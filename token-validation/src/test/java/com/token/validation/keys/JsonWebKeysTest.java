@@ -0,0 +1,63 @@
+package com.token.validation.keys;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class JsonWebKeysTest {
+
+    @Test
+    void rsa_and_ec_keys_survive_a_round_trip() throws GeneralSecurityException, IOException {
+        KeyPairGenerator rsa = KeyPairGenerator.getInstance("RSA");
+        rsa.initialize(2048);
+        KeyPairGenerator ec = KeyPairGenerator.getInstance("EC");
+        ec.initialize(new ECGenParameterSpec("secp256r1"));
+
+        Map<String, PublicKey> keys = new LinkedHashMap<>();
+        keys.put("rsa", rsa.generateKeyPair().getPublic());
+        keys.put("ec", ec.generateKeyPair().getPublic());
+
+        Map<String, PublicKey> parsed = JsonWebKeys.parse(JsonWebKeys.toJson(keys));
+
+        Assertions.assertEquals(keys, parsed);
+    }
+
+    @Test
+    void ed25519_key_survives_a_round_trip() throws GeneralSecurityException, IOException {
+        KeyPairGenerator ed25519;
+        try {
+            ed25519 = KeyPairGenerator.getInstance("Ed25519");
+        } catch (GeneralSecurityException e) {
+            // Ed25519 needs Java 15+
+            return;
+        }
+        Map<String, PublicKey> keys = new LinkedHashMap<>();
+        keys.put("ed", ed25519.generateKeyPair().getPublic());
+
+        String jwks = JsonWebKeys.toJson(keys);
+
+        Assertions.assertTrue(jwks.contains("\"crv\":\"Ed25519\""));
+        Assertions.assertArrayEquals(keys.get("ed").getEncoded(), JsonWebKeys.parse(jwks).get("ed").getEncoded());
+    }
+
+    @Test
+    void unusable_keys_are_left_out() throws IOException {
+        String jwks = "{\"keys\":["
+                + "{\"kty\":\"oct\",\"kid\":\"secret\",\"k\":\"AAAA\"},"
+                + "{\"kty\":\"RSA\",\"use\":\"enc\",\"kid\":\"encryption\",\"n\":\"AQAB\",\"e\":\"AQAB\"},"
+                + "{\"kty\":\"RSA\",\"n\":\"AQAB\",\"e\":\"AQAB\"},"
+                + "{\"kty\":\"EC\",\"crv\":\"P-384\",\"kid\":\"p384\",\"x\":\"AQAB\",\"y\":\"AQAB\"},"
+                + "{\"kty\":\"EC\",\"crv\":\"P-256\",\"kid\":\"broken\",\"x\":\"AQAB\"}"
+                + "]}";
+
+        Assertions.assertTrue(JsonWebKeys.parse(jwks).isEmpty());
+        Assertions.assertThrows(IOException.class, () -> JsonWebKeys.parse("[]"));
+    }
+}